@@ -0,0 +1,270 @@
+package com.clinic.build;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step run by exec-maven-plugin on the static resources copied to target/classes.
+ * Images are downscaled to the largest size the pages display and re-encoded; every asset
+ * gets a content-hashed copy (style.3f2a9c01de.css) that can be cached forever; references
+ * in CSS and HTML are rewritten to the hashed names; text files get .gz and .br siblings for
+ * {@code EncodedResourceResolver}. HTML keeps its name so links to pages keep working, and
+ * asset-manifest.json maps original to hashed names.
+ * <p>
+ * The tool lives under backend/src/build and is launched as a single source file on the
+ * compile class path, so it is neither compiled into nor shipped with the application.
+ * <p>
+ * Usage: {@code AssetPipeline <static dir> [max image width]}
+ */
+public final class AssetPipeline {
+    private static final Logger log = LoggerFactory.getLogger(AssetPipeline.class);
+    private static final Pattern HASHED_NAME = Pattern.compile(".+\\.[0-9a-f]{10}\\.[A-Za-z0-9]+$");
+    private static final Set<String> IMAGE_TYPES = Set.of("png", "jpg", "jpeg");
+    private static final Set<String> TEXT_TYPES = Set.of("html", "css", "js", "svg", "json", "txt");
+    private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*(['\"]?)([^'\")]+)\\1\\s*\\)");
+    private static final Pattern HTML_REF = Pattern.compile("(\\s(?:href|src)=)([\"'])([^\"']+)\\2");
+    // Text smaller than this gains nothing from compression
+    private static final int MIN_COMPRESS_BYTES = 256;
+
+    private final Path root;
+    private final int maxImageWidth;
+    private final Map<String, String> manifest = new TreeMap<>();
+
+    private AssetPipeline(Path root, int maxImageWidth) {
+        this.root = root;
+        this.maxImageWidth = maxImageWidth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: AssetPipeline <static dir> [max image width]");
+        }
+        Path root = Path.of(args[0]);
+        if (!Files.isDirectory(root)) {
+            log.info("No static directory at {}, nothing to do", root);
+            return;
+        }
+        new AssetPipeline(root, args.length > 1 ? Integer.parseInt(args[1]) : 360).run();
+    }
+
+    private void run() throws IOException {
+        List<Path> images = new ArrayList<>();
+        List<Path> styles = new ArrayList<>();
+        List<Path> others = new ArrayList<>();
+        List<Path> pages = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).filter(this::isSource).forEach(file -> {
+                String type = extension(file);
+                if (type.isEmpty()) {
+                    return;
+                }
+                if (IMAGE_TYPES.contains(type)) {
+                    images.add(file);
+                } else if (type.equals("css")) {
+                    styles.add(file);
+                } else if (type.equals("html")) {
+                    pages.add(file);
+                } else {
+                    others.add(file);
+                }
+            });
+        }
+
+        // Order matters: a file's hash must cover the rewritten names of what it references
+        for (Path image : images) {
+            optimizeImage(image);
+            fingerprint(image);
+        }
+        for (Path file : others) {
+            fingerprint(file);
+        }
+        for (Path style : styles) {
+            rewrite(style, CSS_URL, 2);
+            fingerprint(style);
+        }
+        for (Path page : pages) {
+            rewrite(page, HTML_REF, 3);
+            precompress(page);
+        }
+
+        StringBuilder json = new StringBuilder("{\n");
+        manifest.forEach((original, hashed) -> json.append(json.length() > 2 ? ",\n" : "")
+                .append("  \"").append(original).append("\": \"").append(hashed).append('"'));
+        Files.writeString(root.resolve("asset-manifest.json"), json.append("\n}\n"), StandardCharsets.UTF_8);
+        log.info("Fingerprinted {} assets, {} pages in {}", manifest.size(), pages.size(), root);
+    }
+
+    // Skips outputs of earlier runs, which stay in target/classes between incremental builds
+    private boolean isSource(Path file) {
+        String name = file.getFileName().toString();
+        return !HASHED_NAME.matcher(name).matches()
+                && !name.endsWith(".gz") && !name.endsWith(".br")
+                && !name.equals("asset-manifest.json");
+    }
+
+    private void optimizeImage(Path image) throws IOException {
+        byte[] original = Files.readAllBytes(image);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(original));
+        if (decoded == null) {
+            return;
+        }
+        if (decoded.getWidth() > maxImageWidth) {
+            int height = Math.max(1, decoded.getHeight() * maxImageWidth / decoded.getWidth());
+            BufferedImage scaled = new BufferedImage(maxImageWidth, height,
+                    decoded.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(decoded, 0, 0, maxImageWidth, height, null);
+            graphics.dispose();
+            decoded = scaled;
+        }
+        byte[] encoded = encode(decoded, extension(image));
+        // Re-encoding without metadata at the highest compression; keep the original if that is smaller
+        if (encoded != null && encoded.length < original.length) {
+            Files.write(image, encoded);
+            log.info("{}: {} -> {} bytes", root.relativize(image), original.length, encoded.length);
+        }
+    }
+
+    private static byte[] encode(BufferedImage image, String type) throws IOException {
+        String format = type.equals("png") ? "png" : "jpeg";
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            // PNG: 0.0 is the strongest deflate; JPEG: quality
+            param.setCompressionQuality(format.equals("png") ? 0.0f : 0.85f);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private void rewrite(Path file, Pattern references, int group) throws IOException {
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        Matcher matcher = references.matcher(content);
+        StringBuilder rewritten = new StringBuilder();
+        while (matcher.find()) {
+            String hashed = hashedReference(file, matcher.group(group));
+            String replacement = hashed == null ? matcher.group()
+                    : matcher.group().substring(0, matcher.start(group) - matcher.start()) + hashed
+                    + matcher.group().substring(matcher.end(group) - matcher.start());
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(rewritten);
+        Files.writeString(file, rewritten, StandardCharsets.UTF_8);
+    }
+
+    // The hashed form of a relative reference, or null for external links, pages and unknown files
+    private String hashedReference(Path from, String reference) {
+        if (reference.contains(":") || reference.startsWith("//") || reference.startsWith("#")) {
+            return null;
+        }
+        int suffixStart = indexOfAny(reference, '?', '#');
+        String path = suffixStart < 0 ? reference : reference.substring(0, suffixStart);
+        String suffix = suffixStart < 0 ? "" : reference.substring(suffixStart);
+        Path target = path.startsWith("/") ? root.resolve(path.substring(1)) : from.getParent().resolve(path);
+        String hashed = manifest.get(logicalName(target.normalize()));
+        if (hashed == null) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        return path.substring(0, slash + 1) + Path.of(hashed).getFileName() + suffix;
+    }
+
+    private void fingerprint(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String hashedName = name.substring(0, dot) + '.' + sha256(content).substring(0, 10) + name.substring(dot);
+        Path hashed = file.resolveSibling(hashedName);
+        Files.write(hashed, content);
+        manifest.put(logicalName(file), logicalName(hashed));
+        precompress(hashed);
+    }
+
+    private void precompress(Path file) throws IOException {
+        if (!TEXT_TYPES.contains(extension(file))) {
+            return;
+        }
+        byte[] content = Files.readAllBytes(file);
+        if (content.length < MIN_COMPRESS_BYTES) {
+            return;
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(gzipped) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        Files.write(file.resolveSibling(file.getFileName() + ".gz"), gzipped.toByteArray());
+
+        if (Brotli4jLoader.isAvailable()) {
+            Files.write(file.resolveSibling(file.getFileName() + ".br"),
+                    Encoder.compress(content, new Encoder.Parameters().setQuality(11)));
+        }
+    }
+
+    private String logicalName(Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot <= 0 ? "" : name.substring(dot + 1).toLowerCase();
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        int a = value.indexOf(first);
+        int b = value.indexOf(second);
+        return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
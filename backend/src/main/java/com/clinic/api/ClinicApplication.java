@@ -0,0 +1,12 @@
+package com.clinic.api;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ClinicApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ClinicApplication.class, args);
+    }
+}
@@ -0,0 +1,87 @@
+package com.clinic.api.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows measured latency. Every sample window the limit is scaled
+ * by the ratio of the best observed latency to the window's average: when queries start
+ * queueing on the connection pool latency rises and the limit shrinks, when the database
+ * keeps up the limit grows by roughly its square root.
+ */
+class AdaptiveConcurrencyLimiter {
+    private static final int WINDOW_SAMPLES = 100;
+    private static final double MIN_RTT_DECAY = 0.99;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong windowTotalNanos = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile int limit;
+    private volatile double minRttNanos = Double.MAX_VALUE;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    boolean tryAcquire(PriorityClass priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getLimitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        windowTotalNanos.addAndGet(rttNanos);
+        if (windowCount.incrementAndGet() >= WINDOW_SAMPLES && updating.compareAndSet(false, true)) {
+            try {
+                updateLimit();
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    // Frees the slot without a latency sample, for requests whose duration says nothing about load
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void updateLimit() {
+        int samples = windowCount.getAndSet(0);
+        long total = windowTotalNanos.getAndSet(0);
+        if (samples == 0) {
+            return;
+        }
+        double averageRtt = (double) total / samples;
+        // Let the baseline drift upwards slowly so a permanently slower database is accepted
+        double baseline = Math.min(minRttNanos / MIN_RTT_DECAY, averageRtt);
+        minRttNanos = baseline;
+
+        double gradient = Math.max(0.5, Math.min(1.0, baseline / averageRtt));
+        int current = limit;
+        int next = (int) (current * gradient + Math.sqrt(current));
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,180 @@
+package com.clinic.api.admission;
+
+import com.clinic.api.security.TokenPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the API. Each client gets a token bucket per endpoint
+ * group and priority class, sized by the class (so a kiosk hammering patient search spends
+ * neither its booking budget nor its doctor search budget), and admitted requests then
+ * compete for an adaptive concurrency limit in which searches may only use half of the slots. Rate rejections answer 429, overload rejections 503, both with Retry-After.
+ * <p>
+ * A client is the authenticated account, or the remote address for anonymous requests
+ * such as login; nothing the client sends chooses its bucket. Runs inside the security
+ * chain after authorization; see SecurityConfig.
+ * <p>
+ * Streams such as the SSE appointment feed are admitted like any other request, but their
+ * duration is not fed to the limiter: an open stream is not a slow query.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_BUCKETS = 50_000;
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final boolean enabled;
+    private final double[] ratePerSecond = new double[PriorityClass.values().length];
+    private final int[] burst = new int[PriorityClass.values().length];
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdmissionControlFilter(@Value("${clinic.admission.enabled:true}") boolean enabled,
+                                  @Value("${clinic.admission.booking.rate:10}") double bookingRate,
+                                  @Value("${clinic.admission.booking.burst:20}") int bookingBurst,
+                                  @Value("${clinic.admission.default.rate:20}") double defaultRate,
+                                  @Value("${clinic.admission.default.burst:40}") int defaultBurst,
+                                  @Value("${clinic.admission.search.rate:5}") double searchRate,
+                                  @Value("${clinic.admission.search.burst:10}") int searchBurst,
+                                  @Value("${clinic.admission.limit.initial:20}") int initialLimit,
+                                  @Value("${clinic.admission.limit.min:4}") int minLimit,
+                                  @Value("${clinic.admission.limit.max:200}") int maxLimit) {
+        this.enabled = enabled;
+        configure(PriorityClass.BOOKING, bookingRate, bookingBurst);
+        configure(PriorityClass.DEFAULT, defaultRate, defaultBurst);
+        configure(PriorityClass.SEARCH, searchRate, searchBurst);
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+    }
+
+    private void configure(PriorityClass priority, double rate, int burstSize) {
+        ratePerSecond[priority.ordinal()] = rate;
+        burst[priority.ordinal()] = burstSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        PriorityClass priority = classify(request);
+        long now = System.nanoTime();
+
+        long waitNanos = bucketFor(clientId(request), endpointGroup(request.getRequestURI()), priority, now)
+                .tryAcquire(now);
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            return;
+        }
+        if (!limiter.tryAcquire(priority)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (isStreaming(request, response)) {
+                limiter.release();
+            } else {
+                limiter.release(System.nanoTime() - now);
+            }
+        }
+    }
+
+    // An async response (SseEmitter and friends) returns from the chain before it is done
+    private static boolean isStreaming(HttpServletRequest request, HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return request.isAsyncStarted()
+                || (contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    static PriorityClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        boolean read = "GET".equals(request.getMethod());
+        if (path.startsWith("/api/appointments") && !read) {
+            return PriorityClass.BOOKING;
+        }
+        if (read && (path.contains("/search")
+                || path.equals("/api/patients") || path.equals("/api/doctors")
+                || path.equals("/api/medications"))) {
+            return PriorityClass.SEARCH;
+        }
+        return PriorityClass.DEFAULT;
+    }
+
+    // The resource under /api/, e.g. "patients" for /api/patients/search
+    static String endpointGroup(String path) {
+        int start = "/api/".length();
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private TokenBucket bucketFor(String clientId, String endpointGroup, PriorityClass priority, long now) {
+        String key = clientId + '|' + endpointGroup + '|' + priority.name();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= MAX_TRACKED_BUCKETS) {
+            synchronized (buckets) {
+                if (buckets.size() >= MAX_TRACKED_BUCKETS) {
+                    evictLeastRecentlyUsed(now);
+                }
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(
+                ratePerSecond[priority.ordinal()], burst[priority.ordinal()], now));
+    }
+
+    /**
+     * Drops idle buckets and, if that is not enough because many clients are active at once,
+     * the least recently used ones until a tenth of the cap is free again. Sweeping a batch
+     * keeps the sort off the per-request path; an evicted client merely starts a full bucket.
+     */
+    private void evictLeastRecentlyUsed(long now) {
+        buckets.values().removeIf(bucket -> now - bucket.getLastUsedNanos() > IDLE_BUCKET_NANOS);
+        int excess = buckets.size() - MAX_TRACKED_BUCKETS + MAX_TRACKED_BUCKETS / 10;
+        if (excess <= 0) {
+            return;
+        }
+        long[] ages = buckets.values().stream()
+                .mapToLong(bucket -> now - bucket.getLastUsedNanos())
+                .sorted()
+                .toArray();
+        long minAge = ages[Math.max(0, ages.length - excess)];
+        buckets.values().removeIf(bucket -> now - bucket.getLastUsedNanos() >= minAge);
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        TokenPrincipal principal = TokenPrincipal.current();
+        return principal != null ? principal.key() : "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos) {
+        long seconds = Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+
+    int getTrackedBuckets() {
+        return buckets.size();
+    }
+
+    int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+}
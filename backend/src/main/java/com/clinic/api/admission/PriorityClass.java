@@ -0,0 +1,21 @@
+package com.clinic.api.admission;
+
+/**
+ * Request classes in admission order. A class may only use its share of the adaptive
+ * concurrency limit, so searches are shed well before bookings are.
+ */
+public enum PriorityClass {
+    BOOKING(1.0),
+    DEFAULT(0.8),
+    SEARCH(0.5);
+
+    private final double limitShare;
+
+    PriorityClass(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
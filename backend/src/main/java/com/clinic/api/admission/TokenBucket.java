@@ -0,0 +1,46 @@
+package com.clinic.api.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket implemented as a generic cell rate algorithm: the whole state is the
+ * theoretical arrival time of the next request, held in one {@link AtomicLong} and
+ * advanced with CAS, so acquiring never locks.
+ */
+class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    private volatile long lastUsedNanos;
+
+    // nanoTime has an arbitrary origin and may be negative, so the bucket starts full at "now" rather than 0
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.lastUsedNanos = nowNanos;
+    }
+
+    /**
+     * @return 0 if a permit was taken, otherwise the nanoseconds until one becomes available
+     */
+    long tryAcquire(long nowNanos) {
+        lastUsedNanos = nowNanos;
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long base = Math.max(arrival, nowNanos);
+            long waitNanos = base - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+}
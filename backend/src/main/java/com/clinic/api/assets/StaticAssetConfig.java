@@ -0,0 +1,39 @@
+package com.clinic.api.assets;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the output of the build-time asset pipeline (backend/src/build). Fingerprinted
+ * files never change under the same name, so they are cached for a year without
+ * revalidation; everything else, pages included, is revalidated on every load. Both serve
+ * the precompressed .br/.gz variant when the client accepts it.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StaticAssetConfig implements WebMvcConfigurer {
+    private static final String LOCATION = "classpath:/static/";
+    private static final String HASHED_FILE = "{file:[^/]+\\.[0-9a-f]{10}\\.[A-Za-z0-9]+}";
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/" + HASHED_FILE, "/*/" + HASHED_FILE, "/*/*/" + HASHED_FILE)
+                .addResourceLocations(LOCATION)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+
+        registry.addResourceHandler("/**")
+                .addResourceLocations(LOCATION)
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+}
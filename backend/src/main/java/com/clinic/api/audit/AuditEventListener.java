@@ -0,0 +1,177 @@
+package com.clinic.api.audit;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Medication;
+import com.clinic.api.models.Patient;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Captures committed changes to the clinic entities and hands them to the audit writer.
+ * Runs on Hibernate's post-commit events, so rolled-back work is never audited and the
+ * transaction only pays for building the diff and one ring-buffer offer.
+ */
+@Component
+public class AuditEventListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> AUDITED = Set.of(
+            Patient.class, Doctor.class, Appointment.class, Medication.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLogWriter writer;
+
+    @Autowired
+    public AuditEventListener(EntityManagerFactory entityManagerFactory, AuditLogWriter writer) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.writer = writer;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return AUDITED.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] state = event.getState();
+        StringBuilder changes = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (state[i] != null) {
+                appendChange(changes, names[i], null, state[i]);
+            }
+        }
+        append(AuditRecord.Action.INSERT, event.getPersister(), event.getId(), changes.append('}').toString());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        StringBuilder changes = new StringBuilder("{");
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null) {
+            for (int i : dirty) {
+                appendChange(changes, names[i], oldState == null ? null : oldState[i], state[i]);
+            }
+        } else {
+            // Detached merges carry no dirty-check result; fall back to comparing the snapshots
+            for (int i = 0; i < names.length; i++) {
+                Object before = oldState == null ? null : oldState[i];
+                if (!Objects.equals(render(before), render(state[i]))) {
+                    appendChange(changes, names[i], before, state[i]);
+                }
+            }
+        }
+        append(AuditRecord.Action.UPDATE, event.getPersister(), event.getId(), changes.append('}').toString());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        append(AuditRecord.Action.DELETE, event.getPersister(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, nothing to audit
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void append(AuditRecord.Action action, EntityPersister persister, Object id, String changes) {
+        writer.append(new AuditRecord(System.currentTimeMillis(), action,
+                persister.getMappedClass().getSimpleName(), String.valueOf(id), changes));
+    }
+
+    private static void appendChange(StringBuilder changes, String property, Object before, Object after) {
+        if (changes.length() > 1) {
+            changes.append(',');
+        }
+        changes.append(quote(property)).append(":[")
+                .append(quote(render(before))).append(',')
+                .append(quote(render(after))).append(']');
+    }
+
+    // Associations are recorded by id so the log never triggers lazy loading
+    private static String render(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof HibernateProxy proxy) {
+            return String.valueOf(proxy.getHibernateLazyInitializer().getIdentifier());
+        }
+        if (value instanceof Patient patient) {
+            return String.valueOf(patient.getId());
+        }
+        if (value instanceof Doctor doctor) {
+            return String.valueOf(doctor.getId());
+        }
+        if (value instanceof Appointment appointment) {
+            return String.valueOf(appointment.getId());
+        }
+        if (value instanceof Medication medication) {
+            return String.valueOf(medication.getId());
+        }
+        return String.valueOf(value);
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
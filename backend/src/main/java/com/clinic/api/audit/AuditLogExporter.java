@@ -0,0 +1,112 @@
+package com.clinic.api.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Offline export and compaction of the audit log. Sealed segments whose newest record is
+ * older than the cut-off are exported as JSON lines and then removed; the segment the
+ * writer is appending to is never touched. Compaction appends to the output, so it can be
+ * pointed at the same archive run after run, and a segment is only deleted once its lines
+ * are on disk (a crash in between exports it twice rather than losing it).
+ *
+ * <p>The application jar nests its classes under BOOT-INF, so run it through the launcher:
+ * <pre>java -cp app.jar -Dloader.main=com.clinic.api.audit.AuditLogExporter \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher &lt;audit-dir&gt; &lt;out.jsonl&gt; [before-iso-instant]</pre>
+ */
+public final class AuditLogExporter {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogExporter.class);
+
+    private AuditLogExporter() {
+    }
+
+    public static long export(Path directory, Path output) throws IOException {
+        long[] count = {0};
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (Path segment : AuditLogReader.listSegments(directory)) {
+                count[0] += exportSegment(segment, writer);
+            }
+        }
+        return count[0];
+    }
+
+    public static long compact(Path directory, Path output, Instant before) throws IOException {
+        List<Path> segments = AuditLogReader.listSegments(directory);
+        long exported = 0;
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            // The last segment is still open for appends
+            for (Path segment : segments.subList(0, Math.max(0, segments.size() - 1))) {
+                if (newestTimestamp(segment) >= before.toEpochMilli()) {
+                    break;
+                }
+                exported += exportSegment(segment, writer);
+                writer.flush();
+                channel.force(false);
+                Files.delete(segment);
+            }
+        }
+        return exported;
+    }
+
+    private static long exportSegment(Path segment, BufferedWriter writer) throws IOException {
+        long[] count = {0};
+        IOException[] failure = {null};
+        AuditLogReader.readSegment(segment, record -> {
+            if (failure[0] != null) {
+                return;
+            }
+            try {
+                writer.write(toJson(record));
+                writer.newLine();
+                count[0]++;
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return count[0];
+    }
+
+    private static long newestTimestamp(Path segment) {
+        long[] newest = {Long.MIN_VALUE};
+        AuditLogReader.readSegment(segment, record -> newest[0] = Math.max(newest[0], record.timestamp()));
+        return newest[0];
+    }
+
+    static String toJson(AuditRecord record) {
+        return "{\"timestamp\":\"" + Instant.ofEpochMilli(record.timestamp()) + "\"," +
+                "\"action\":\"" + record.action() + "\"," +
+                "\"entityType\":" + AuditEventListener.quote(record.entityType()) + "," +
+                "\"entityId\":" + AuditEventListener.quote(record.entityId()) + "," +
+                "\"changes\":" + (record.changes() == null || record.changes().isEmpty() ? "null" : record.changes()) +
+                "}";
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            log.error("Usage: AuditLogExporter <audit-dir> <out.jsonl> [before-iso-instant]");
+            System.exit(2);
+        }
+        Path directory = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        long count = args.length > 2
+                ? compact(directory, output, Instant.parse(args[2]))
+                : export(directory, output);
+        log.info("Exported {} audit records to {}", count, output);
+    }
+}
@@ -0,0 +1,108 @@
+package com.clinic.api.audit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read access to the audit log. Segments are read through read-only mappings, so a reader
+ * can run alongside the writer (or in a separate process) without locking.
+ */
+@Component
+public class AuditLogReader {
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+
+    @Autowired
+    public AuditLogReader(AuditLogWriter writer) {
+        this(writer.getDirectory());
+    }
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public void forEach(Consumer<AuditRecord> consumer) {
+        for (Path segment : listSegments(directory)) {
+            readSegment(segment, consumer);
+        }
+    }
+
+    public List<AuditRecord> findBetween(Instant from, Instant to) {
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        List<AuditRecord> records = new ArrayList<>();
+        forEach(record -> {
+            if (record.timestamp() >= start && record.timestamp() < end) {
+                records.add(record);
+            }
+        });
+        return records;
+    }
+
+    public List<AuditRecord> findHistory(String entityType, String entityId) {
+        List<AuditRecord> records = new ArrayList<>();
+        forEach(record -> {
+            if (record.entityType().equals(entityType) && record.entityId().equals(entityId)) {
+                records.add(record);
+            }
+        });
+        return records;
+    }
+
+    static void readSegment(Path segment, Consumer<AuditRecord> consumer) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= AuditRecord.FRAME_HEADER) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                int next = buffer.position() + length;
+                consumer.accept(AuditRecord.decode(buffer));
+                buffer.position(next);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit segment " + segment, e);
+        }
+    }
+
+    static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list audit segments in " + directory, e);
+        }
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,182 @@
+package com.clinic.api.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer of the audit log. Transactions hand records over through the ring buffer
+ * and return immediately; this thread appends them to memory-mapped segment files and
+ * rolls over to a new segment when the current one is full.
+ */
+@Component
+public class AuditLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final AuditRingBuffer<AuditRecord> ring;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    // Writer-thread state
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentSequence;
+    private long lastForce;
+
+    public AuditLogWriter(@Value("${clinic.audit.directory:audit}") String directory,
+                          @Value("${clinic.audit.segment-size-mb:64}") int segmentSizeMb,
+                          @Value("${clinic.audit.ring-capacity:65536}") int ringCapacity) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.ring = new AuditRingBuffer<>(ringCapacity);
+    }
+
+    /**
+     * Hands a record to the writer. Never blocks; if the ring is full the record is counted
+     * as dropped rather than stalling the committing thread.
+     */
+    public boolean append(AuditRecord record) {
+        if (!ring.offer(record)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        openLatestSegment();
+        running = true;
+        writerThread = new Thread(this::run, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (channel != null) {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    private void run() {
+        lastForce = System.nanoTime();
+        while (running || ring.size() > 0) {
+            int drained = ring.drain(this::write, DRAIN_BATCH);
+            long now = System.nanoTime();
+            if (now - lastForce >= FORCE_INTERVAL_NANOS) {
+                segment.force();
+                lastForce = now;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(AuditRecord record) {
+        byte[] frame;
+        try {
+            frame = record.encode();
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping audit record for {}: {}", record.entityType(), e.getMessage());
+            dropped.incrementAndGet();
+            return;
+        }
+        // Keep room for the zero length that marks the end of a segment
+        if (frame.length + AuditRecord.FRAME_HEADER > segmentBytes) {
+            log.warn("Dropping audit record for {} {}: {} bytes exceeds segment size",
+                    record.entityType(), record.entityId(), frame.length);
+            dropped.incrementAndGet();
+            return;
+        }
+        try {
+            if (segment.remaining() < frame.length + AuditRecord.FRAME_HEADER) {
+                rotate();
+            }
+            int position = segment.position();
+            // Body first, length last, so a concurrent reader never sees a half-written frame
+            segment.put(position + AuditRecord.FRAME_HEADER, frame, AuditRecord.FRAME_HEADER,
+                    frame.length - AuditRecord.FRAME_HEADER);
+            segment.putInt(position, frame.length - AuditRecord.FRAME_HEADER);
+            segment.position(position + frame.length);
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            log.error("Failed to append audit record", e);
+        }
+    }
+
+    private void openLatestSegment() throws IOException {
+        List<Path> segments = AuditLogReader.listSegments(directory);
+        if (segments.isEmpty()) {
+            openSegment(1);
+            return;
+        }
+        Path latest = segments.get(segments.size() - 1);
+        openSegment(AuditLogReader.sequenceOf(latest));
+        // Resume after the last complete frame
+        int position = 0;
+        while (position + AuditRecord.FRAME_HEADER <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0) {
+                break;
+            }
+            position += AuditRecord.FRAME_HEADER + length;
+        }
+        segment.position(position);
+    }
+
+    private void rotate() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(segmentSequence + 1);
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        Path file = directory.resolve(AuditLogReader.segmentName(sequence));
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            segmentSequence = sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit segment " + file, e);
+        }
+    }
+}
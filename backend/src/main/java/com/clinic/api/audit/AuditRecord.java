@@ -0,0 +1,66 @@
+package com.clinic.api.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One entry of the audit log. On disk a record is framed as
+ * {@code [int length][long timestamp][byte action][short type][short id][int changes]}
+ * where the strings are UTF-8 with the preceding length prefix. The short prefixes are
+ * unsigned, so entity types and ids may take up to 65535 bytes.
+ */
+public record AuditRecord(long timestamp, Action action, String entityType, String entityId, String changes) {
+
+    public enum Action {
+        INSERT, UPDATE, DELETE
+    }
+
+    static final int FRAME_HEADER = Integer.BYTES;
+    static final int MAX_SHORT_STRING_BYTES = 0xFFFF;
+
+    /**
+     * @throws IllegalArgumentException if the entity type or id does not fit its short length prefix
+     */
+    byte[] encode() {
+        byte[] type = entityType.getBytes(StandardCharsets.UTF_8);
+        byte[] id = entityId.getBytes(StandardCharsets.UTF_8);
+        byte[] diff = changes == null ? new byte[0] : changes.getBytes(StandardCharsets.UTF_8);
+
+        int bodyLength = Long.BYTES + 1 + Short.BYTES + type.length + Short.BYTES + id.length
+                + Integer.BYTES + diff.length;
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + bodyLength);
+        buffer.putInt(bodyLength);
+        buffer.putLong(timestamp);
+        buffer.put((byte) action.ordinal());
+        buffer.putShort(shortLength(type, "entity type")).put(type);
+        buffer.putShort(shortLength(id, "entity id")).put(id);
+        buffer.putInt(diff.length).put(diff);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes the body of a frame; the buffer must be positioned just after the length prefix.
+     */
+    static AuditRecord decode(ByteBuffer buffer) {
+        long timestamp = buffer.getLong();
+        Action action = Action.values()[buffer.get()];
+        String type = readString(buffer, Short.toUnsignedInt(buffer.getShort()));
+        String id = readString(buffer, Short.toUnsignedInt(buffer.getShort()));
+        String changes = readString(buffer, buffer.getInt());
+        return new AuditRecord(timestamp, action, type, id, changes);
+    }
+
+    private static short shortLength(byte[] bytes, String field) {
+        if (bytes.length > MAX_SHORT_STRING_BYTES) {
+            throw new IllegalArgumentException("Audit " + field + " is " + bytes.length
+                    + " bytes; at most " + MAX_SHORT_STRING_BYTES + " fit the frame");
+        }
+        return (short) bytes.length;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package com.clinic.api.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring. Producers claim a slot with a CAS on the
+ * tail and publish into it; the consumer clears a slot before advancing the head, so a
+ * producer never overwrites an entry that has not been drained. Offers never block.
+ */
+class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(E element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) (claimed & mask), element);
+        return true;
+    }
+
+    /**
+     * Drains up to {@code limit} published entries; only the writer thread may call this.
+     */
+    int drain(Consumer<E> consumer, int limit) {
+        long current = head.get();
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (current & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                // Either empty or a producer has claimed the slot but not yet published it
+                break;
+            }
+            slots.lazySet(index, null);
+            current++;
+            head.lazySet(current);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
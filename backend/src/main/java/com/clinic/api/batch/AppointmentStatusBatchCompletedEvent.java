@@ -0,0 +1,11 @@
+package com.clinic.api.batch;
+
+import java.util.Set;
+
+/**
+ * Published when a run of the status transition job ends, also after a failure (the chunks
+ * it finished stay committed), so anything holding appointment-derived state for these
+ * doctors of the clinic can refresh it.
+ */
+public record AppointmentStatusBatchCompletedEvent(String clinicId, Set<Integer> doctorIds, long transitioned) {
+}
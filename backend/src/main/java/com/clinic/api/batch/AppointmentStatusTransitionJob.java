@@ -0,0 +1,210 @@
+package com.clinic.api.batch;
+
+import com.clinic.api.audit.AuditLogWriter;
+import com.clinic.api.audit.AuditRecord;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.models.BatchCheckpoint;
+import com.clinic.api.repositories.AppointmentRepository;
+import com.clinic.api.repositories.BatchCheckpointRepository;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves appointments that are still SCHEDULED or RESCHEDULED once their time plus a grace
+ * period has passed (by default to NO_SHOW; staff mark attended visits COMPLETED during the day).
+ *
+ * <p>Work is partitioned per doctor and each partition is walked in chunks of set-based
+ * UPDATEs, so no appointment is ever loaded into a persistence context. A chunk is found by
+ * keyset on (doctor_id, id): it ends at the chunk-size-th pending id after the checkpoint, so
+ * a doctor's chunks skip the ids of other doctors in between. Every
+ * chunk commits together with its checkpoint; after a crash the next run resumes each
+ * partition after its last committed chunk, using the cut-off of the interrupted run.
+ * Scheduled runs visit every clinic shard in turn; checkpoints live in the shard they cover.
+ */
+@Component
+public class AppointmentStatusTransitionJob {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatusTransitionJob.class);
+    static final String JOB_NAME = "appointment-status-transition";
+    private static final Set<Status> SOURCE_STATUSES = EnumSet.of(Status.SCHEDULED, Status.RESCHEDULED);
+
+    private final AppointmentRepository appointmentRepository;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditLogWriter auditLogWriter;
+    private final ShardedQueryExecutor shards;
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final Status targetStatus;
+    private final long graceHours;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public AppointmentStatusTransitionJob(AppointmentRepository appointmentRepository,
+                                          BatchCheckpointRepository checkpointRepository,
+                                          PlatformTransactionManager transactionManager,
+                                          ApplicationEventPublisher eventPublisher,
+                                          AuditLogWriter auditLogWriter, ShardedQueryExecutor shards,
+                                          @Value("${clinic.batch.appointment-status.target:NO_SHOW}") Status targetStatus,
+                                          @Value("${clinic.batch.appointment-status.grace-hours:24}") long graceHours,
+                                          @Value("${clinic.batch.appointment-status.chunk-size:500}") int chunkSize,
+                                          @Value("${clinic.batch.appointment-status.parallelism:4}") int parallelism) {
+        this.appointmentRepository = appointmentRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.auditLogWriter = auditLogWriter;
+        this.shards = shards;
+        this.targetStatus = targetStatus;
+        this.graceHours = graceHours;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Scheduled(cron = "${clinic.batch.appointment-status.cron:0 15 * * * *}")
+    public void runScheduled() {
+        shards.forEachShard("Appointment status transition", this::run);
+    }
+
+    /**
+     * Runs the job for the clinic bound to the calling thread.
+     *
+     * @return the number of appointments transitioned, or -1 if a run was already in progress
+     */
+    public long run() {
+        if (!running.tryLock()) {
+            log.info("Appointment status transition already running, skipping");
+            return -1;
+        }
+        AtomicLong transitioned = new AtomicLong();
+        Set<Integer> touchedDoctors = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<BatchCheckpoint> partitions = loadOrPlanPartitions();
+            List<Future<?>> futures = new ArrayList<>();
+            for (BatchCheckpoint partition : partitions) {
+                if (!partition.isCompleted()) {
+                    futures.add(executor.submit(ClinicContext.wrap(
+                            () -> processPartition(partition, transitioned, touchedDoctors))));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.deleteByJobName(JOB_NAME));
+            log.info("Moved {} appointments to {} for {} doctors", transitioned.get(), targetStatus,
+                    touchedDoctors.size());
+            return transitioned.get();
+        } catch (Exception e) {
+            // Checkpoints of finished chunks are committed; the next run resumes from them
+            log.error("Appointment status transition interrupted after {} updates", transitioned.get(), e);
+            return transitioned.get();
+        } finally {
+            // Partitions still running must stop before the next run may plan or resume them
+            awaitTermination(executor);
+            try {
+                // Committed chunks are visible even when the run failed, so listeners refresh either way
+                eventPublisher.publishEvent(new AppointmentStatusBatchCompletedEvent(ClinicContext.get(),
+                        Set.copyOf(touchedDoctors), transitioned.get()));
+            } finally {
+                running.unlock();
+            }
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+                log.warn("Still waiting for appointment status transition partitions to stop");
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<BatchCheckpoint> loadOrPlanPartitions() {
+        return transactionTemplate.execute(status -> {
+            if (checkpointRepository.existsByJobNameAndState(JOB_NAME, BatchCheckpoint.State.IN_PROGRESS)) {
+                log.info("Resuming interrupted appointment status transition");
+                return checkpointRepository.findByJobName(JOB_NAME);
+            }
+            checkpointRepository.deleteByJobName(JOB_NAME);
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(graceHours);
+            List<BatchCheckpoint> planned = new ArrayList<>();
+            for (Object[] range : appointmentRepository.findPendingIdRangesByDoctor(SOURCE_STATUSES, cutoff)) {
+                planned.add(BatchCheckpoint.builder()
+                        .jobName(JOB_NAME)
+                        .partitionKey("doctor:" + range[0])
+                        .lastProcessedId((Integer) range[1] - 1)
+                        .upperId((Integer) range[2])
+                        .cutoff(cutoff)
+                        .build());
+            }
+            return checkpointRepository.saveAll(planned);
+        });
+    }
+
+    private void processPartition(BatchCheckpoint partition, AtomicLong transitioned, Set<Integer> touchedDoctors) {
+        Integer doctorId = Integer.valueOf(partition.getPartitionKey().substring("doctor:".length()));
+        // A failed run interrupts the other partitions; they stop at the next chunk boundary
+        while (partition.getLastProcessedId() < partition.getUpperId() && !Thread.currentThread().isInterrupted()) {
+            int fromId = partition.getLastProcessedId() + 1;
+            List<Integer> pending = appointmentRepository.findPendingIdsByDoctor(doctorId,
+                    partition.getLastProcessedId(), partition.getUpperId(), SOURCE_STATUSES,
+                    partition.getCutoff(), PageRequest.of(0, chunkSize));
+            // A short page means nothing is left up to the bound, so that chunk closes the partition
+            int toId = pending.size() < chunkSize ? partition.getUpperId() : pending.get(pending.size() - 1);
+
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = appointmentRepository.transitionStatusInRange(doctorId, fromId, toId,
+                        SOURCE_STATUSES, partition.getCutoff(), targetStatus, LocalDateTime.now());
+                partition.setLastProcessedId(toId);
+                if (toId >= partition.getUpperId()) {
+                    partition.setState(BatchCheckpoint.State.COMPLETED);
+                }
+                checkpointRepository.save(partition);
+                return count;
+            });
+
+            if (updated != null && updated > 0) {
+                transitioned.addAndGet(updated);
+                touchedDoctors.add(doctorId);
+                // Bulk updates bypass Hibernate's entity events, so record the chunk explicitly
+                auditLogWriter.append(new AuditRecord(System.currentTimeMillis(), AuditRecord.Action.UPDATE,
+                        "Appointment", "doctor:" + doctorId + ":" + fromId + "-" + toId,
+                        "{\"status\":[\"SCHEDULED|RESCHEDULED\",\"" + targetStatus + "\"],\"count\":" + updated + "}"));
+            }
+        }
+    }
+}
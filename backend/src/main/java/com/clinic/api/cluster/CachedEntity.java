@@ -0,0 +1,8 @@
+package com.clinic.api.cluster;
+
+/**
+ * Entity types whose cached copies are invalidated across instances.
+ */
+public enum CachedEntity {
+    PATIENT, DOCTOR, MEDICATION
+}
@@ -0,0 +1,308 @@
+package com.clinic.api.cluster;
+
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Broadcasts entity invalidations to the other backend instances over UDP. Invalidations
+ * are queued after commit and coalesced per clinic and entity, keeping only the highest
+ * version, then sent in batches every clinic.cluster.batch-ms. The version is the entity's
+ * version column, which every update raises. Each instance remembers the highest version
+ * it has seen per entity and ignores anything older, so a late or duplicated datagram can
+ * never bring back an entry that a newer change already evicted; caches use
+ * {@link #isStale} before storing a row they loaded.
+ * <p>
+ * Datagrams carry an HMAC-SHA256 over clinic.cluster.secret and are dropped if it does not
+ * match. A replayed datagram passes the check but can only evict, never restore an entry.
+ *
+ * <pre>
+ * datagram: magic(4) nodeId(8) count(2) { entity(1) id(4) version(8) clinicLength(1) clinic } x count mac(16)
+ * </pre>
+ */
+@Component
+public class InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    private static final int MAGIC = 0x494E5632; // "INV2"
+    private static final int HEADER_BYTES = 14;
+    private static final int ENTRY_BYTES = 14;
+    private static final int MAC_BYTES = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    // Stay under a typical MTU so batches are not fragmented
+    private static final int MAX_DATAGRAM = 1400;
+    private static final CachedEntity[] ENTITIES = CachedEntity.values();
+
+    private record Key(String clinicId, CachedEntity entity, int id) {
+    }
+
+    private record Watermark(long version, long seenAtMillis) {
+    }
+
+    private final boolean enabled;
+    private final String bindAddress;
+    private final int port;
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+    private final long retentionMillis;
+    private final SecretKeySpec secret;
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+    private final Map<Key, Watermark> highestSeen = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter ignored;
+    private final Counter rejected;
+
+    private DatagramChannel channel;
+    private Thread receiverThread;
+
+    public InvalidationBus(MeterRegistry meterRegistry,
+                           @Value("${clinic.cluster.enabled:false}") boolean enabled,
+                           @Value("${clinic.cluster.bind-address:127.0.0.1}") String bindAddress,
+                           @Value("${clinic.cluster.port:7600}") int port,
+                           @Value("${clinic.cluster.peers:}") List<String> peerAddresses,
+                           @Value("${clinic.cluster.secret:}") String secret,
+                           @Value("${clinic.cluster.retention-ms:3600000}") long retentionMillis) {
+        this.enabled = enabled;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.retentionMillis = retentionMillis;
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("clinic.cluster.secret is required when the invalidation bus is enabled");
+        }
+        this.secret = secret.isBlank() ? null : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        for (String peer : peerAddresses) {
+            if (!peer.isBlank()) {
+                String[] hostPort = peer.trim().split(":");
+                peers.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+            }
+        }
+        this.sent = meterRegistry.counter("clinic.cluster.invalidations", "direction", "sent");
+        this.received = meterRegistry.counter("clinic.cluster.invalidations", "direction", "received");
+        this.ignored = meterRegistry.counter("clinic.cluster.invalidations", "direction", "ignored");
+        this.rejected = meterRegistry.counter("clinic.cluster.invalidations", "direction", "rejected");
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        channel.bind(new InetSocketAddress(bindAddress, port));
+        receiverThread = new Thread(this::receive, "invalidation-bus");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        log.info("Invalidation bus listening on {}:{} with {} peers", bindAddress, port, peers.size());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (channel != null) {
+            flush();
+            channel.close();
+        }
+    }
+
+    public void addListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Queues an invalidation of the entity in the current clinic for the peers once the
+     * current transaction commits. The version supplier is read after commit, when
+     * Hibernate has raised the entity's version.
+     */
+    public void publish(CachedEntity entity, int id, LongSupplier version) {
+        if (!enabled) {
+            return;
+        }
+        Key key = new Key(ClinicContext.get(), entity, id);
+        AfterCommit.run(() -> {
+            long value = version.getAsLong();
+            pending.merge(key, value, Math::max);
+            advance(key, value);
+        });
+    }
+
+    /**
+     * True if a change newer than the given version has been seen for the entity, i.e. a row
+     * loaded at that version must not be cached.
+     */
+    public boolean isStale(String clinicId, CachedEntity entity, int id, long version) {
+        Watermark seen = highestSeen.get(new Key(clinicId, entity, id));
+        return seen != null && seen.version() > version;
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.cluster.batch-ms:50}")
+    public synchronized void flush() {
+        if (channel == null || pending.isEmpty()) {
+            return;
+        }
+        Mac mac = newMac();
+        ByteBuffer datagram = ByteBuffer.allocate(MAX_DATAGRAM);
+        int count = 0;
+        for (Key key : pending.keySet()) {
+            Long version = pending.remove(key);
+            if (version == null) {
+                continue;
+            }
+            byte[] clinic = key.clinicId() == null ? new byte[0] : key.clinicId().getBytes(StandardCharsets.UTF_8);
+            if (count > 0 && datagram.position() + ENTRY_BYTES + clinic.length + MAC_BYTES > MAX_DATAGRAM) {
+                send(datagram, count, mac);
+                count = 0;
+            }
+            if (count == 0) {
+                datagram.clear();
+                datagram.putInt(MAGIC).putLong(nodeId).putShort((short) 0);
+            }
+            datagram.put((byte) key.entity().ordinal()).putInt(key.id()).putLong(version)
+                    .put((byte) clinic.length).put(clinic);
+            count++;
+        }
+        if (count > 0) {
+            send(datagram, count, mac);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.cluster.retention-ms:3600000}")
+    public void pruneSeen() {
+        // Dropping an old watermark is safe: a replayed invalidation can only evict, never restore
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        highestSeen.values().removeIf(seen -> seen.seenAtMillis() < cutoff);
+    }
+
+    private void send(ByteBuffer datagram, int count, Mac mac) {
+        datagram.putShort(12, (short) count);
+        mac.update(datagram.array(), 0, datagram.position());
+        datagram.put(mac.doFinal(), 0, MAC_BYTES);
+        datagram.flip();
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(datagram.duplicate(), peer);
+            } catch (IOException e) {
+                log.warn("Could not send invalidations to {}", peer, e);
+            }
+        }
+        sent.increment(count);
+    }
+
+    private void receive() {
+        Mac mac = newMac();
+        ByteBuffer datagram = ByteBuffer.allocate(MAX_DATAGRAM);
+        while (channel.isOpen()) {
+            try {
+                datagram.clear();
+                channel.receive(datagram);
+                datagram.flip();
+                if (!authentic(datagram, mac)) {
+                    rejected.increment();
+                    continue;
+                }
+                apply(datagram);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Dropping malformed invalidation datagram", e);
+            }
+        }
+    }
+
+    // Checks the trailing MAC and leaves the datagram limited to the signed part
+    private static boolean authentic(ByteBuffer datagram, Mac mac) {
+        int signed = datagram.limit() - MAC_BYTES;
+        if (signed < HEADER_BYTES) {
+            return false;
+        }
+        mac.update(datagram.array(), 0, signed);
+        byte[] expected = Arrays.copyOf(mac.doFinal(), MAC_BYTES);
+        byte[] actual = Arrays.copyOfRange(datagram.array(), signed, datagram.limit());
+        datagram.limit(signed);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private void apply(ByteBuffer datagram) {
+        if (datagram.getInt() != MAGIC) {
+            return;
+        }
+        if (datagram.getLong() == nodeId) {
+            return;
+        }
+        int count = datagram.getShort();
+        for (int i = 0; i < count && datagram.remaining() >= ENTRY_BYTES; i++) {
+            CachedEntity entity = ENTITIES[datagram.get()];
+            int id = datagram.getInt();
+            long version = datagram.getLong();
+            byte[] clinic = new byte[datagram.get() & 0xFF];
+            datagram.get(clinic);
+            String clinicId = clinic.length == 0 ? null : new String(clinic, StandardCharsets.UTF_8);
+            if (!advance(new Key(clinicId, entity, id), version)) {
+                ignored.increment();
+                continue;
+            }
+            received.increment();
+            for (InvalidationListener listener : listeners) {
+                try {
+                    listener.onInvalidation(clinicId, entity, id, version);
+                } catch (RuntimeException e) {
+                    log.warn("Invalidation listener failed for {} {} of clinic {}", entity, id, clinicId, e);
+                }
+            }
+        }
+    }
+
+    // Raises the watermark; false if an equal or newer version was already seen
+    private boolean advance(Key key, long version) {
+        Watermark raised = new Watermark(version, System.currentTimeMillis());
+        while (true) {
+            Watermark seen = highestSeen.get(key);
+            if (seen != null && seen.version() >= version) {
+                return false;
+            }
+            if (seen == null ? highestSeen.putIfAbsent(key, raised) == null
+                    : highestSeen.replace(key, seen, raised)) {
+                return true;
+            }
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + MAC_ALGORITHM, e);
+        }
+    }
+}
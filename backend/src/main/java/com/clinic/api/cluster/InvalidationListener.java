@@ -0,0 +1,11 @@
+package com.clinic.api.cluster;
+
+/**
+ * Receives invalidations from peer instances. The version is the entity's version column;
+ * a cache of the clinic should drop any entry older than it.
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+
+    void onInvalidation(String clinicId, CachedEntity entity, int id, long version);
+}
@@ -0,0 +1,43 @@
+package com.clinic.api.config;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Medication;
+import com.clinic.api.models.Patient;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the native image build. Spring AOT covers the JPA
+ * managed types, but the Lombok builders, the embedded address and the enums are
+ * reached reflectively by Jackson and Hibernate and have to be listed here.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(ClinicRuntimeHints.Registrar.class)
+public class ClinicRuntimeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        private static final Class<?>[] MODEL_TYPES = {
+                Patient.class, Patient.Address.class, Patient.Gender.class,
+                Patient.PatientBuilder.class, Patient.Address.AddressBuilder.class,
+                Doctor.class, Doctor.Gender.class, Doctor.DoctorBuilder.class,
+                Appointment.class, Appointment.Status.class, Appointment.AppointmentBuilder.class,
+                Medication.class, Medication.Form.class, Medication.MedicationBuilder.class
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : MODEL_TYPES) {
+                hints.reflection().registerType(type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+            hints.resources().registerPattern("static/*");
+        }
+    }
+}
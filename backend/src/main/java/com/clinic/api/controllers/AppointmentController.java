@@ -3,7 +3,11 @@ package com.clinic.api.controllers;
 import com.clinic.api.models.Appointment;
 import com.clinic.api.models.Appointment.Status;
 import com.clinic.api.dto.AppointmentDTO;
+import com.clinic.api.dto.BulkStatusChangeResult;
 import com.clinic.api.dto.CreateAppointmentRequest;
+import com.clinic.api.dto.RecurringAppointmentRequest;
+import com.clinic.api.dto.RecurringSeriesResult;
+import com.clinic.api.dto.StatusChangeRequest;
 import com.clinic.api.services.AppointmentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +53,14 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/series")
+    public ResponseEntity<RecurringSeriesResult> createRecurringSeries(
+            @Valid @RequestBody RecurringAppointmentRequest request) {
+        RecurringSeriesResult result = appointmentService.createRecurringSeries(request);
+        HttpStatus status = result.getBooked() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<AppointmentDTO> updateAppointment(
             @PathVariable Integer id,
@@ -61,6 +73,12 @@ public class AppointmentController {
         return ResponseEntity.ok(updated);
     }
 
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusChangeResult> bulkUpdateStatus(
+            @RequestBody List<@Valid StatusChangeRequest> changes) {
+        return ResponseEntity.ok(appointmentService.bulkUpdateStatus(changes));
+    }
+
     @PatchMapping("/{id}/cancel")
     public ResponseEntity<Void> cancelAppointment(@PathVariable Integer id) {
         appointmentService.cancelAppointment(id);
@@ -0,0 +1,32 @@
+package com.clinic.api.controllers;
+
+import com.clinic.api.feed.AppointmentFeedHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/appointments/feed")
+public class AppointmentFeedController {
+
+    private final AppointmentFeedHub feedHub;
+
+    @Autowired
+    public AppointmentFeedController(AppointmentFeedHub feedHub) {
+        this.feedHub = feedHub;
+    }
+
+    // Streams "appointment" events; a "resync" event means events were dropped and the client should reload
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) Integer doctorId,
+                                @RequestParam(required = false) Integer patientId) {
+        try {
+            return feedHub.subscribe(doctorId, patientId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.clinic.api.controllers;
+
+import com.clinic.api.dto.LoginRequest;
+import com.clinic.api.dto.TokenResponse;
+import com.clinic.api.security.AuthService;
+import com.clinic.api.security.TokenService.IssuedToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    @Autowired
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @PostMapping("/login")
+    public TokenResponse login(@RequestBody LoginRequest request) {
+        if (request.getEmail() == null || request.getPassword() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "email and password are required");
+        }
+        try {
+            IssuedToken token = authService.login(request.getEmail(), request.getPassword());
+            return new TokenResponse(token.token(), "Bearer", token.expiresAt());
+        } catch (BadCredentialsException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.clinic.api.controllers;
 
 import com.clinic.api.models.Doctor;
 import com.clinic.api.services.DoctorService;
+import com.clinic.api.snapshot.DoctorSnapshot;
+import com.clinic.api.validation.BulkValidationResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +30,17 @@ public class DoctorController {
         return doctorService.getDoctorById(id);
     }
 
+    @GetMapping("/{id}/summary")
+    public DoctorSnapshot getDoctorSummary(@PathVariable Integer id) {
+        return doctorService.getDoctorSummary(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found"));
+    }
+
+    @PostMapping("/validate")
+    public BulkValidationResult validateDoctors(@RequestBody List<Doctor> doctors) {
+        return doctorService.validateDoctors(doctors);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Doctor createDoctor(@RequestBody Doctor doctor) {
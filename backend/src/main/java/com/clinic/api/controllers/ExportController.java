@@ -0,0 +1,35 @@
+package com.clinic.api.controllers;
+
+import com.clinic.api.dto.ExportSummary;
+import com.clinic.api.export.AnalyticsExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private final AnalyticsExportService exportService;
+
+    @Autowired
+    public ExportController(AnalyticsExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<ExportSummary> runExport(@RequestParam(defaultValue = "incremental") String mode) {
+        if (!mode.equals("incremental") && !mode.equals("full")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be 'incremental' or 'full'");
+        }
+        try {
+            return ResponseEntity.ok(exportService.export(mode.equals("incremental")));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.clinic.api.controllers;
 
+import com.clinic.api.dto.SliceResponse;
 import com.clinic.api.models.Medication;
+import com.clinic.api.paging.TotalMode;
 import com.clinic.api.services.MedicationService;
+import com.clinic.api.validation.BulkValidationResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import javax.validation.Valid;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,35 +22,46 @@ public class MedicationController {
     private MedicationService medicationService;
 
     @GetMapping
-    public Page<Medication> getAllMedications(
+    public SliceResponse<Medication> getAllMedications(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return medicationService.getAllMedications(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "approx") String total) {
+        TotalMode totalMode;
+        try {
+            totalMode = TotalMode.parse(total);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "total must be exact, approx or none");
+        }
+        return medicationService.getMedicationSlice(page, size, totalMode);
     }
 
     @GetMapping("/{id}")
-    public Medication getMedicationById(@PathVariable Long id) {
+    public Medication getMedicationById(@PathVariable Integer id) {
         return medicationService.getMedicationById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    @PostMapping("/validate")
+    public BulkValidationResult validateMedications(@RequestBody List<Medication> medications) {
+        return medicationService.validateMedications(medications);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Medication createMedication(@Valid @RequestBody Medication medication) {
-        return medicationService.saveMedication(medication);
+    public Medication createMedication(@RequestBody Medication medication) {
+        return medicationService.createMedication(medication);
     }
 
     @PutMapping("/{id}")
-    public Medication updateMedication(@PathVariable Long id,
-                                       @Valid @RequestBody Medication medication) {
-        medication.setId(id); // Ensure ID matches path variable
-        return medicationService.saveMedication(medication);
+    public Medication updateMedication(@PathVariable Integer id,
+                                       @RequestBody Medication medication) {
+        return medicationService.updateMedication(id, medication);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteMedication(@PathVariable Long id) {
-        medicationService.deleteMedication(id);
+    public void deleteMedication(@PathVariable Integer id) {
+        medicationService.deactivateMedication(id);
     }
 }
@@ -1,16 +1,24 @@
 package com.clinic.api.controllers;
 
+import com.clinic.api.dto.PatientTimeline;
+import com.clinic.api.dto.SliceResponse;
 import com.clinic.api.models.Patient;
+import com.clinic.api.paging.TotalMode;
 import com.clinic.api.services.PatientService;
+import com.clinic.api.services.PatientTimelineService;
+import com.clinic.api.snapshot.PatientSnapshot;
+import com.clinic.api.validation.BulkValidationResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import javax.validation.Valid;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/patients")
@@ -20,11 +28,28 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Operation(summary = "List patients a page at a time; total is exact, approx (cached) or none")
     @GetMapping
-    public Page<Patient> getAllPatients(
+    public SliceResponse<Patient> getAllPatients(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return patientService.getAllPatients(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "approx") String total) {
+        TotalMode totalMode;
+        try {
+            totalMode = TotalMode.parse(total);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "total must be exact, approx or none");
+        }
+        return patientService.getPatientSlice(page, size, totalMode);
+    }
+
+    @Operation(summary = "Find clusters of likely duplicate patients")
+    @GetMapping("/duplicates")
+    public List<Set<Integer>> getDuplicateClusters(@RequestParam(defaultValue = "0.9") double threshold) {
+        return patientService.findDuplicateClusters(threshold);
     }
 
     @Operation(summary = "Get patient by ID")
@@ -35,19 +60,49 @@ public class PatientController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
     }
 
+    @Operation(summary = "Get a compact patient summary, served from the warm-start snapshot")
+    @ApiResponse(responseCode = "404", description = "Patient not found")
+    @GetMapping("/{id}/summary")
+    public PatientSnapshot getPatientSummary(@PathVariable Integer id) {
+        return patientService.getPatientSummary(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+    }
+
+    @Operation(summary = "Get the patient chart: patient, first page of appointment history and active medications")
+    @ApiResponse(responseCode = "404", description = "Patient not found")
+    @GetMapping("/{id}/timeline")
+    public PatientTimeline getPatientTimeline(@PathVariable Integer id,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int size) {
+        return patientTimelineService.getTimeline(id, page, size)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+    }
+
+    @Operation(summary = "Get a further page of a patient's appointment history")
+    @GetMapping("/{id}/timeline/appointments")
+    public PatientTimeline.HistoryPage getPatientHistory(@PathVariable Integer id,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return patientTimelineService.getHistory(id, page, size);
+    }
+
+    @Operation(summary = "Validate a batch of patients without saving them; lists the errors of each invalid row")
+    @PostMapping("/validate")
+    public BulkValidationResult validatePatients(@RequestBody List<Patient> patients) {
+        return patientService.validatePatients(patients);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Patient createPatient(@Valid @RequestBody Patient patient) {
+    public Patient createPatient(@RequestBody Patient patient) {
         return patientService.createPatient(patient);
     }
 
     @PutMapping("/{id}")
     public Patient updatePatient(@PathVariable Integer id,
-                                 @Valid @RequestBody Patient patient) {
-        // Ensure the ID in the path matches the ID in the request body
-        patient.setId(id);
-        return patientService.updatePatient(patient);
+                                 @RequestBody Patient patient) {
+        return patientService.updatePatient(id, patient);
     }
 
     @DeleteMapping("/{id}")
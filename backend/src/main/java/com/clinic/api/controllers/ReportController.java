@@ -0,0 +1,56 @@
+package com.clinic.api.controllers;
+
+import com.clinic.api.dto.DoctorAppointmentCount;
+import com.clinic.api.dto.MonthlyReport;
+import com.clinic.api.reports.MonthlyReportCsvWriter;
+import com.clinic.api.reports.MonthlyReportService;
+import com.clinic.api.services.ClinicReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final ClinicReportService clinicReportService;
+    private final MonthlyReportService monthlyReportService;
+
+    @Autowired
+    public ReportController(ClinicReportService clinicReportService, MonthlyReportService monthlyReportService) {
+        this.clinicReportService = clinicReportService;
+        this.monthlyReportService = monthlyReportService;
+    }
+
+    @GetMapping("/completed-appointments")
+    public ResponseEntity<Map<String, Long>> getCompletedAppointmentsByClinic() {
+        return ResponseEntity.ok(clinicReportService.countCompletedAppointmentsByClinic());
+    }
+
+    @GetMapping("/completed-appointments/by-doctor")
+    public ResponseEntity<List<DoctorAppointmentCount>> getCompletedAppointmentsByDoctor(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(clinicReportService.findCompletedAppointmentsByDoctor(start, end));
+    }
+
+    @GetMapping(value = "/monthly", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MonthlyReport> getMonthlyReport(@RequestParam YearMonth month) {
+        return ResponseEntity.ok(monthlyReportService.generate(month));
+    }
+
+    @GetMapping(value = "/monthly", produces = "text/csv")
+    public ResponseEntity<String> getMonthlyReportCsv(@RequestParam YearMonth month) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-" + month + ".csv\"")
+                .body(MonthlyReportCsvWriter.write(monthlyReportService.generate(month)));
+    }
+}
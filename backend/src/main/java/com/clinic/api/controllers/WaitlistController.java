@@ -0,0 +1,50 @@
+package com.clinic.api.controllers;
+
+import com.clinic.api.dto.WaitlistRequest;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Patient;
+import com.clinic.api.models.WaitlistEntry;
+import com.clinic.api.waitlist.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @Autowired
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @PostMapping
+    public ResponseEntity<WaitlistEntry> register(@Valid @RequestBody WaitlistRequest request) {
+        WaitlistEntry entry = WaitlistEntry.builder()
+                .patient(Patient.builder().id(request.getPatientId()).build())
+                .doctor(request.getDoctorId() != null ? Doctor.builder().id(request.getDoctorId()).build() : null)
+                .specialization(request.getSpecialization())
+                .windowStart(request.getWindowStart())
+                .windowEnd(request.getWindowEnd())
+                .priority(request.getPriority())
+                .build();
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.register(entry));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable Integer id) {
+        waitlistService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<WaitlistEntry>> getByPatient(@PathVariable Integer patientId) {
+        return ResponseEntity.ok(waitlistService.getEntriesByPatient(patientId));
+    }
+}
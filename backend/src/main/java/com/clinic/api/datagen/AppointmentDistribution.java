@@ -0,0 +1,46 @@
+package com.clinic.api.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * How the number of appointments per patient is spread around the configured mean.
+ * GEOMETRIC gives the long tail real clinics see: most patients come a few times, a few
+ * chronic patients come very often.
+ */
+public enum AppointmentDistribution {
+    UNIFORM,
+    POISSON,
+    GEOMETRIC;
+
+    int sample(SplittableRandom random, double mean, int max) {
+        if (mean <= 0 || max <= 0) {
+            return 0;
+        }
+        int count = switch (this) {
+            case UNIFORM -> random.nextInt((int) Math.round(2 * mean) + 1);
+            case POISSON -> poisson(random, mean);
+            case GEOMETRIC -> {
+                // Failures before the first success with p = 1 / (mean + 1)
+                double p = 1 / (mean + 1);
+                yield (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+            }
+        };
+        return Math.min(count, max);
+    }
+
+    private static int poisson(SplittableRandom random, double mean) {
+        if (mean > 30) {
+            // Knuth's method underflows for large means; the normal approximation is close enough
+            double normal = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            return Math.max(0, (int) Math.round(mean + Math.sqrt(mean) * normal));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,591 @@
+package com.clinic.api.datagen;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Medication;
+import com.clinic.api.models.Patient;
+import com.clinic.api.sharding.ClinicContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the database with a synthetic clinic for scale testing: doctors, medications,
+ * patients and their appointment history. Rows are written with multi-row inserts by a pool
+ * of workers, one transaction per block of rows.
+ * <p>
+ * The data is deterministic: every block draws from its own random, seeded from
+ * clinic.datagen.seed and the block number, and ids are assigned explicitly after the
+ * current maximum, so the same seed on the same starting data gives the same rows whatever
+ * the thread count. Appointments get database ids and may be numbered in another order.
+ * <p>
+ * The rows satisfy the model rules: emails and license numbers embed the row id and are
+ * unique, phone numbers match both phone patterns and patient phones are unique,
+ * appointments start on the half hour between 08:00 and 16:30 on weekdays, and a patient
+ * has at most one appointment per day, so no two of their appointments are within 30 minutes.
+ * Doctors are not double-booked either: appointments are planned block by block in order on
+ * one thread, against a map of each doctor's taken slots that starts from the appointments
+ * already in the database, and a draw that lands within 30 minutes of a taken slot is
+ * redrawn. Only the writes run in parallel. Past appointments are completed, cancelled or
+ * no-shows; future ones are mostly scheduled.
+ * <p>
+ * Run it once against an empty or test database, e.g.
+ * {@code java -jar app.jar --clinic.datagen.enabled=true --clinic.warmup.enabled=false}.
+ * Every run adds a new dataset after the existing rows.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "clinic.datagen.enabled", havingValue = "true")
+public class DatasetGenerator implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+    private static final int FIRST_SLOT_HOUR = 8;
+    // Half-hour slots from 08:00 to 16:30, so every appointment ends by 17:00
+    private static final int SLOTS_PER_DAY = 18;
+    private static final int SLOT_MINUTES = 30;
+    // Redraws before an appointment is dropped; the doctor is redrawn every few slot draws
+    private static final int MAX_BOOKING_ATTEMPTS = 32;
+    private static final int SLOT_DRAWS_PER_DOCTOR = 4;
+
+    // Separate random streams per table, so changing one count does not reshuffle the others
+    private static final long DOCTOR_STREAM = 1;
+    private static final long MEDICATION_STREAM = 2;
+    private static final long PATIENT_STREAM = 3;
+    private static final long APPOINTMENT_STREAM = 4;
+    private static final long POPULARITY_STREAM = 5;
+
+    @FunctionalInterface
+    private interface BlockWriter {
+        long write(int block, long from, long to, SplittableRandom random);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long seed;
+    private final String clinicId;
+    private final long patients;
+    private final long doctors;
+    private final long medications;
+    private final double appointmentsPerPatient;
+    private final AppointmentDistribution distribution;
+    private final int maxAppointmentsPerPatient;
+    private final double doctorSkew;
+    private final int monthsBack;
+    private final int daysAhead;
+    private final double inactiveRatio;
+    private final int threads;
+    private final int blockSize;
+    private final int rowsPerStatement;
+    private final String categoryTable;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${clinic.datagen.seed:42}") long seed,
+                            @Value("${clinic.datagen.clinic-id:}") String clinicId,
+                            @Value("${clinic.datagen.patients:100000}") long patients,
+                            @Value("${clinic.datagen.doctors:200}") long doctors,
+                            @Value("${clinic.datagen.medications:500}") long medications,
+                            @Value("${clinic.datagen.appointments-per-patient:6}") double appointmentsPerPatient,
+                            @Value("${clinic.datagen.appointment-distribution:GEOMETRIC}") AppointmentDistribution distribution,
+                            @Value("${clinic.datagen.max-appointments-per-patient:120}") int maxAppointmentsPerPatient,
+                            @Value("${clinic.datagen.doctor-skew:0.8}") double doctorSkew,
+                            @Value("${clinic.datagen.months-back:24}") int monthsBack,
+                            @Value("${clinic.datagen.days-ahead:60}") int daysAhead,
+                            @Value("${clinic.datagen.inactive-ratio:0.05}") double inactiveRatio,
+                            @Value("${clinic.datagen.threads:4}") int threads,
+                            @Value("${clinic.datagen.block-size:5000}") int blockSize,
+                            @Value("${clinic.datagen.rows-per-statement:1000}") int rowsPerStatement,
+                            @Value("${clinic.datagen.category-table:medication_categories}") String categoryTable) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seed = seed;
+        this.clinicId = clinicId.isBlank() ? null : clinicId;
+        this.patients = Math.max(0, patients);
+        this.doctors = Math.max(0, doctors);
+        this.medications = Math.max(0, medications);
+        this.appointmentsPerPatient = appointmentsPerPatient;
+        this.distribution = distribution;
+        this.maxAppointmentsPerPatient = Math.max(0, maxAppointmentsPerPatient);
+        this.doctorSkew = Math.max(0, doctorSkew);
+        this.monthsBack = Math.max(0, monthsBack);
+        this.daysAhead = Math.max(0, daysAhead);
+        this.inactiveRatio = inactiveRatio;
+        this.threads = Math.max(1, threads);
+        this.blockSize = Math.max(1, blockSize);
+        this.rowsPerStatement = Math.max(1, rowsPerStatement);
+        this.categoryTable = categoryTable;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ClinicContext.callIn(clinicId, () -> {
+            generate();
+            return null;
+        });
+    }
+
+    private void generate() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Timestamp writtenAt = Timestamp.valueOf(now);
+        log.info("Generating synthetic dataset (seed {}): {} doctors, {} medications, {} patients, {} {} appointments per patient",
+                seed, doctors, medications, patients, distribution, appointmentsPerPatient);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "datagen-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long doctorBase = maxId("doctors");
+            runBlocks(pool, "doctors", DOCTOR_STREAM, doctors,
+                    (block, from, to, random) -> writeDoctors(doctorBase, from, to, random, writtenAt));
+
+            long[] categoryIds = categoryIds();
+            if (medications > 0 && categoryIds.length == 0) {
+                log.warn("No rows in {}; skipping medications, which need a category", categoryTable);
+            } else {
+                long medicationBase = maxId("medications");
+                runBlocks(pool, "medications", MEDICATION_STREAM, medications,
+                        (block, from, to, random) -> writeMedications(medicationBase, categoryIds, from, to, random, writtenAt));
+            }
+
+            long[] doctorIds = doctorIds();
+            if (patients > 0 && doctorIds.length == 0) {
+                throw new IllegalStateException("Appointments need doctors; set clinic.datagen.doctors above 0");
+            }
+            long patientBase = maxId("patients");
+            int[] bornDays = new int[Math.toIntExact(patients)];
+            runBlocks(pool, "patients", PATIENT_STREAM, patients,
+                    (block, from, to, random) -> writePatients(patientBase, from, to, random, now.toLocalDate(),
+                            bornDays, writtenAt));
+            generateAppointments(pool, patientBase, bornDays, doctorIds, now, writtenAt);
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Synthetic dataset generated in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Splits the rows into blocks, each written in its own transaction on the pool
+    private void runBlocks(ExecutorService pool, String what, long stream, long total, BlockWriter writer) {
+        if (total == 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>();
+        for (long from = 0; from < total; from += blockSize) {
+            int block = (int) (from / blockSize);
+            long blockStart = from;
+            long blockEnd = Math.min(from + blockSize, total);
+            futures.add(pool.submit(() -> ClinicContext.callIn(clinicId, () -> transactionTemplate.execute(
+                    status -> writer.write(block, blockStart, blockEnd, random(stream, block))))));
+        }
+        long rows = await(what, futures);
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Generated {} {} ({} rows, {} rows/s)", total, what, rows, rows * 1000 / millis);
+    }
+
+    /**
+     * Plans each block's appointments on this thread, in block order, so the redraws after a
+     * doctor conflict do not depend on the thread count; the planned rows are written on the
+     * pool. At most two blocks per thread wait to be written, which bounds the memory held.
+     */
+    private void generateAppointments(ExecutorService pool, long patientBase, int[] bornDays, long[] doctorIds,
+                                      LocalDateTime now, Timestamp writtenAt) {
+        if (patients == 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        double[] popularity = popularity(doctorIds.length);
+        LocalDate[] workdays = workdays(now.toLocalDate());
+        DoctorSlots slots = new DoctorSlots(doctorIds.length, workdays.length);
+        markBookedSlots(slots, doctorIds, workdays);
+
+        Semaphore queued = new Semaphore(threads * 2);
+        List<Future<Long>> futures = new ArrayList<>();
+        long dropped = 0;
+        try {
+            for (long from = 0; from < patients; from += blockSize) {
+                int block = (int) (from / blockSize);
+                PlannedAppointments planned = planAppointments(patientBase, from, Math.min(from + blockSize, patients),
+                        random(APPOINTMENT_STREAM, block), bornDays, slots, popularity, workdays, now);
+                dropped += planned.dropped;
+                queued.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        return ClinicContext.callIn(clinicId, () -> transactionTemplate.execute(
+                                status -> writeAppointments(planned, doctorIds, workdays, writtenAt)));
+                    } finally {
+                        queued.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Generating appointments was interrupted", e);
+        }
+        long rows = await("appointments", futures);
+        if (dropped > 0) {
+            log.warn("Dropped {} appointments whose doctors had no free slot; lower clinic.datagen.doctor-skew "
+                    + "or add doctors", dropped);
+        }
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Generated {} appointments ({} rows/s)", rows, rows * 1000 / millis);
+    }
+
+    private static long await(String what, List<Future<Long>> futures) {
+        long rows = 0;
+        try {
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new IllegalStateException("Generating " + what + " failed: " + cause.getMessage(), cause);
+        }
+        return rows;
+    }
+
+    private long writeDoctors(long base, long from, long to, SplittableRandom random, Timestamp writtenAt) {
+        MultiRowInsert insert = new MultiRowInsert(jdbcTemplate, "doctors", rowsPerStatement,
+                "id", "name", "specialization", "email", "phone", "gender", "license_number",
+                "clinic_id", "created_at", "updated_at");
+        for (long i = from; i < to; i++) {
+            long id = base + i + 1;
+            boolean female = SyntheticValues.female(random);
+            String first = SyntheticValues.firstName(random, female);
+            String last = SyntheticValues.lastName(random);
+            insert.add(id, "Dr. " + first + " " + last, SyntheticValues.specialization(random),
+                    SyntheticValues.email(first, last, id), SyntheticValues.phone(random),
+                    (female ? Doctor.Gender.FEMALE : Doctor.Gender.MALE).name(),
+                    SyntheticValues.licenseNumber(id), clinicId, writtenAt, writtenAt);
+        }
+        insert.flush();
+        return insert.getWritten();
+    }
+
+    private long writeMedications(long base, long[] categoryIds, long from, long to, SplittableRandom random,
+                                  Timestamp writtenAt) {
+        MultiRowInsert insert = new MultiRowInsert(jdbcTemplate, "medications", rowsPerStatement,
+                "id", "name", "dosage", "instructions", "form", "is_active", "category_id",
+                "created_at", "updated_at");
+        Medication.Form[] forms = Medication.Form.values();
+        for (long i = from; i < to; i++) {
+            long id = base + i + 1;
+            // Tablets and capsules dominate a real formulary
+            Medication.Form form = random.nextInt(100) < 60
+                    ? (random.nextBoolean() ? Medication.Form.TABLET : Medication.Form.CAPSULE)
+                    : SyntheticValues.pick(random, forms);
+            insert.add(id, SyntheticValues.medicationName(random, id), SyntheticValues.dosage(random),
+                    SyntheticValues.instructions(random), form.name(), random.nextInt(100) >= 3,
+                    categoryIds[random.nextInt(categoryIds.length)], writtenAt, writtenAt);
+        }
+        insert.flush();
+        return insert.getWritten();
+    }
+
+    private long writePatients(long base, long from, long to, SplittableRandom random, LocalDate today,
+                               int[] bornDays, Timestamp writtenAt) {
+        MultiRowInsert insert = new MultiRowInsert(jdbcTemplate, "patients", rowsPerStatement,
+                "id", "full_name", "email", "phone", "date_of_birth", "street", "city", "state",
+                "postal_code", "country", "gender", "is_active", "emergency_contact", "emergency_phone",
+                "blood_type", "clinic_id", "created_at", "updated_at");
+        for (long i = from; i < to; i++) {
+            long id = base + i + 1;
+            boolean female = SyntheticValues.female(random);
+            String first = SyntheticValues.firstName(random, female);
+            String last = SyntheticValues.lastName(random);
+            LocalDate dateOfBirth = SyntheticValues.dateOfBirth(random, today);
+            bornDays[(int) i] = (int) dateOfBirth.toEpochDay();
+            String[] city = SyntheticValues.cityAndState(random);
+            Patient.Gender gender = random.nextInt(100) < 2 ? Patient.Gender.UNSPECIFIED
+                    : female ? Patient.Gender.FEMALE : Patient.Gender.MALE;
+            String contact = SyntheticValues.firstName(random, random.nextBoolean()) + " " + last;
+            insert.add(id, first + " " + last, SyntheticValues.email(first, last, id),
+                    SyntheticValues.uniquePhone(id), dateOfBirth, SyntheticValues.street(random), city[0], city[1],
+                    SyntheticValues.postalCode(random), "USA", gender.name(), random.nextDouble() >= inactiveRatio,
+                    contact, SyntheticValues.phone(random), SyntheticValues.bloodType(random), clinicId,
+                    writtenAt, writtenAt);
+        }
+        insert.flush();
+        return insert.getWritten();
+    }
+
+    private PlannedAppointments planAppointments(long patientBase, long from, long to, SplittableRandom random,
+                                                 int[] bornDays, DoctorSlots slots, double[] popularity,
+                                                 LocalDate[] workdays, LocalDateTime now) {
+        PlannedAppointments planned = new PlannedAppointments();
+        int[] days = new int[maxAppointmentsPerPatient];
+        for (long i = from; i < to; i++) {
+            // No visits before the patient was born
+            int firstDay = Arrays.binarySearch(workdays, LocalDate.ofEpochDay(bornDays[(int) i]));
+            firstDay = firstDay < 0 ? -firstDay - 1 : firstDay;
+            int available = workdays.length - firstDay;
+            int count = Math.min(distribution.sample(random, appointmentsPerPatient, maxAppointmentsPerPatient), available);
+            distinctDays(random, available, count, days);
+            for (int j = 0; j < count; j++) {
+                int day = firstDay + days[j];
+                int doctor = pickDoctor(random, popularity);
+                int slot = random.nextInt(SLOTS_PER_DAY);
+                boolean booked = slots.book(doctor, day, slot);
+                for (int attempt = 1; !booked && attempt < MAX_BOOKING_ATTEMPTS; attempt++) {
+                    if (attempt % SLOT_DRAWS_PER_DOCTOR == 0) {
+                        doctor = pickDoctor(random, popularity);
+                    }
+                    slot = random.nextInt(SLOTS_PER_DAY);
+                    booked = slots.book(doctor, day, slot);
+                }
+                if (!booked) {
+                    planned.dropped++;
+                    continue;
+                }
+                LocalDateTime start = slotStart(workdays[day], slot);
+                planned.add(patientBase + i + 1, doctor, day, slot, status(random, start.isBefore(now)));
+            }
+        }
+        return planned;
+    }
+
+    private long writeAppointments(PlannedAppointments planned, long[] doctorIds, LocalDate[] workdays,
+                                   Timestamp writtenAt) {
+        MultiRowInsert insert = new MultiRowInsert(jdbcTemplate, "appointments", rowsPerStatement,
+                "patient_id", "doctor_id", "appointment_date", "status", "clinic_id", "created_at", "updated_at");
+        for (int i = 0; i < planned.size; i++) {
+            insert.add(planned.patientIds[i], doctorIds[planned.doctors[i]],
+                    slotStart(workdays[planned.days[i]], planned.slots[i]), planned.statuses[i].name(),
+                    clinicId, writtenAt, writtenAt);
+        }
+        insert.flush();
+        return insert.getWritten();
+    }
+
+    private static LocalDateTime slotStart(LocalDate day, int slot) {
+        return day.atTime(FIRST_SLOT_HOUR, 0).plusMinutes((long) SLOT_MINUTES * slot);
+    }
+
+    // Blocks the slots around appointments already booked, so new ones keep 30 minutes from them
+    private void markBookedSlots(DoctorSlots slots, long[] doctorIds, LocalDate[] workdays) {
+        if (workdays.length == 0) {
+            return;
+        }
+        jdbcTemplate.query("SELECT doctor_id, appointment_date FROM appointments " +
+                        "WHERE appointment_date >= ? AND appointment_date < ? AND status <> ?",
+                (ResultSet rs) -> {
+                    int doctor = Arrays.binarySearch(doctorIds, rs.getLong(1));
+                    LocalDateTime start = rs.getTimestamp(2).toLocalDateTime();
+                    int day = Arrays.binarySearch(workdays, start.toLocalDate());
+                    if (doctor >= 0 && day >= 0) {
+                        long minute = ChronoUnit.MINUTES.between(slotStart(workdays[day], 0), start);
+                        slots.blockAround(doctor, day, minute);
+                    }
+                },
+                Timestamp.valueOf(workdays[0].atStartOfDay()),
+                Timestamp.valueOf(workdays[workdays.length - 1].plusDays(1).atStartOfDay()),
+                Appointment.Status.CANCELLED.name());
+    }
+
+    private static Appointment.Status status(SplittableRandom random, boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 82 ? Appointment.Status.COMPLETED
+                    : roll < 93 ? Appointment.Status.CANCELLED
+                    : Appointment.Status.NO_SHOW;
+        }
+        return roll < 92 ? Appointment.Status.SCHEDULED : Appointment.Status.CANCELLED;
+    }
+
+    // Floyd's sampling: count distinct values in [0, range) without touching the whole range
+    private static void distinctDays(SplittableRandom random, int range, int count, int[] into) {
+        int chosen = 0;
+        for (int j = range - count; j < range; j++) {
+            int candidate = random.nextInt(j + 1);
+            into[chosen] = contains(into, chosen, candidate) ? j : candidate;
+            chosen++;
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cumulative Zipf weights over the doctors, in an order shuffled by the seed so the busy
+     * doctors are not simply the oldest rows. A skew of 0 spreads appointments evenly.
+     */
+    private double[] popularity(int doctorCount) {
+        int[] rank = new int[doctorCount];
+        for (int i = 0; i < doctorCount; i++) {
+            rank[i] = i;
+        }
+        SplittableRandom random = random(POPULARITY_STREAM, 0);
+        for (int i = doctorCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = rank[i];
+            rank[i] = rank[j];
+            rank[j] = swap;
+        }
+        double[] cumulative = new double[doctorCount];
+        double total = 0;
+        for (int i = 0; i < doctorCount; i++) {
+            total += 1 / Math.pow(rank[i] + 1, doctorSkew);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private static int pickDoctor(SplittableRandom random, double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private LocalDate[] workdays(LocalDate today) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = today.minusMonths(monthsBack); !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return days.toArray(LocalDate[]::new);
+    }
+
+    private long[] categoryIds() {
+        try {
+            return jdbcTemplate.queryForList("SELECT id FROM " + categoryTable + " ORDER BY id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+        } catch (DataAccessException e) {
+            log.warn("Could not read medication categories from {}: {}", categoryTable, e.getMessage());
+            return new long[0];
+        }
+    }
+
+    // Only this clinic's doctors; other clinics' rows may share the table
+    private long[] doctorIds() {
+        List<Long> ids = clinicId == null
+                ? jdbcTemplate.queryForList("SELECT id FROM doctors WHERE clinic_id IS NULL ORDER BY id", Long.class)
+                : jdbcTemplate.queryForList("SELECT id FROM doctors WHERE clinic_id = ? ORDER BY id", Long.class, clinicId);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private SplittableRandom random(long stream, long block) {
+        return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + block));
+    }
+
+    // SplitMix64 finalizer, so neighbouring blocks get unrelated seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Taken half-hour slots per doctor and workday. Booking a slot also blocks its neighbours,
+     * since appointments of one doctor must be more than 30 minutes apart. Only used from the
+     * planning thread.
+     */
+    private static final class DoctorSlots {
+        private final int workdays;
+        private final long[] blocked;
+
+        DoctorSlots(int doctors, int workdays) {
+            this.workdays = workdays;
+            this.blocked = new long[(int) (((long) doctors * workdays * SLOTS_PER_DAY + 63) / 64)];
+        }
+
+        // Books the slot if no appointment of the doctor is within 30 minutes of it
+        boolean book(int doctor, int day, int slot) {
+            if (isBlocked(index(doctor, day, slot))) {
+                return false;
+            }
+            blockAround(doctor, day, (long) SLOT_MINUTES * slot);
+            return true;
+        }
+
+        // Blocks every slot that starts within 30 minutes of the given minute after the first slot
+        void blockAround(int doctor, int day, long minute) {
+            long first = Math.max(0, Math.floorDiv(minute - 1, SLOT_MINUTES));
+            long last = Math.min(SLOTS_PER_DAY - 1, Math.floorDiv(minute + SLOT_MINUTES, SLOT_MINUTES));
+            for (long slot = first; slot <= last; slot++) {
+                int index = index(doctor, day, (int) slot);
+                blocked[index >>> 6] |= 1L << index;
+            }
+        }
+
+        private boolean isBlocked(int index) {
+            return (blocked[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private int index(int doctor, int day, int slot) {
+            return (int) (((long) doctor * workdays + day) * SLOTS_PER_DAY + slot);
+        }
+    }
+
+    // One block's appointments, as doctor indexes and workday/slot numbers
+    private static final class PlannedAppointments {
+        long[] patientIds = new long[64];
+        int[] doctors = new int[64];
+        int[] days = new int[64];
+        byte[] slots = new byte[64];
+        Appointment.Status[] statuses = new Appointment.Status[64];
+        int size;
+        long dropped;
+
+        void add(long patientId, int doctor, int day, int slot, Appointment.Status status) {
+            if (size == patientIds.length) {
+                int grown = size * 2;
+                patientIds = Arrays.copyOf(patientIds, grown);
+                doctors = Arrays.copyOf(doctors, grown);
+                days = Arrays.copyOf(days, grown);
+                slots = Arrays.copyOf(slots, grown);
+                statuses = Arrays.copyOf(statuses, grown);
+            }
+            patientIds[size] = patientId;
+            doctors[size] = doctor;
+            days[size] = day;
+            slots[size] = (byte) slot;
+            statuses[size] = status;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.clinic.api.datagen;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Buffers rows for one table and writes them as {@code INSERT ... VALUES (...), (...)}
+ * statements of up to rowsPerStatement rows, so the driver sends one round trip per
+ * statement instead of one per row. Not thread-safe; each worker uses its own.
+ */
+final class MultiRowInsert {
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+    private final String rowPlaceholders;
+    private final int columns;
+    private final int rowsPerStatement;
+    private final String fullStatement;
+
+    private final Object[] args;
+    private int rows;
+    private long written;
+
+    MultiRowInsert(JdbcTemplate jdbcTemplate, String table, int rowsPerStatement, String... columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < columns.length; i++) {
+            placeholders.add("?");
+        }
+        this.rowPlaceholders = placeholders.toString();
+        this.columns = columns.length;
+        // MySQL allows at most 65535 placeholders per statement
+        this.rowsPerStatement = Math.max(1, Math.min(rowsPerStatement, 65535 / columns.length));
+        this.fullStatement = statement(this.rowsPerStatement);
+        this.args = new Object[this.rowsPerStatement * columns.length];
+    }
+
+    void add(Object... row) {
+        if (row.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values but got " + row.length);
+        }
+        System.arraycopy(row, 0, args, rows * columns, columns);
+        if (++rows == rowsPerStatement) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (rows == 0) {
+            return;
+        }
+        if (rows == rowsPerStatement) {
+            jdbcTemplate.update(fullStatement, args);
+        } else {
+            jdbcTemplate.update(statement(rows), Arrays.copyOf(args, rows * columns));
+        }
+        written += rows;
+        rows = 0;
+        Arrays.fill(args, null);
+    }
+
+    long getWritten() {
+        return written;
+    }
+
+    private String statement(int rowCount) {
+        StringBuilder sql = new StringBuilder(prefix.length() + rowCount * (rowPlaceholders.length() + 2))
+                .append(prefix);
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "" : ", ").append(rowPlaceholders);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.clinic.api.datagen;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Value pools and pickers for synthetic rows. Everything is drawn from the caller's random,
+ * so a row depends only on the seed of the block it belongs to. Phone numbers use the
+ * {@code (555) 123-4567} form, which passes both the patient and the doctor phone pattern.
+ */
+final class SyntheticValues {
+    private static final String[] FEMALE_NAMES = {
+            "Mary", "Patricia", "Jennifer", "Linda", "Elizabeth", "Barbara", "Susan", "Jessica", "Sarah", "Karen",
+            "Lisa", "Nancy", "Betty", "Sandra", "Ashley", "Emily", "Grace", "Amara", "Wanjiru", "Fatima",
+            "Mei", "Priya", "Sofia", "Olga", "Aisha", "Chloe", "Hannah", "Zanele", "Lucia", "Yuki"};
+    private static final String[] MALE_NAMES = {
+            "James", "Robert", "John", "Michael", "David", "William", "Richard", "Joseph", "Thomas", "Charles",
+            "Daniel", "Matthew", "Anthony", "Mark", "Steven", "Paul", "Kevin", "Brian", "Otieno", "Kamau",
+            "Ahmed", "Wei", "Arjun", "Mateo", "Ivan", "Kwame", "Lucas", "Hiroshi", "Omar", "Samuel"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee",
+            "Thompson", "White", "Harris", "Clark", "Lewis", "Walker", "Young", "Allen", "King", "Wright",
+            "Mwangi", "Odhiambo", "Kariuki", "Chen", "Wang", "Patel", "Singh", "Nguyen", "Kim", "Okafor",
+            "Mensah", "Ivanova", "Rossi", "Muller", "Silva", "Tanaka", "Haddad", "Cohen", "Novak", "Khan"};
+    private static final String[] STREETS = {
+            "Main St", "Oak Ave", "Maple Dr", "Cedar Ln", "Park Rd", "Elm St", "Pine St", "Lakeview Dr",
+            "Hillcrest Ave", "Washington Blvd", "River Rd", "Sunset Blvd", "Church St", "Mill Rd", "Highland Ave"};
+    private static final String[][] CITIES = {
+            {"Springfield", "IL"}, {"Columbus", "OH"}, {"Austin", "TX"}, {"Denver", "CO"}, {"Portland", "OR"},
+            {"Madison", "WI"}, {"Raleigh", "NC"}, {"Tucson", "AZ"}, {"Albany", "NY"}, {"Richmond", "VA"},
+            {"Boise", "ID"}, {"Omaha", "NE"}, {"Tampa", "FL"}, {"Fresno", "CA"}, {"Spokane", "WA"}};
+    // Roughly the US donor population
+    private static final String[] BLOOD_TYPES = {"O+", "A+", "B+", "O-", "A-", "AB+", "B-", "AB-"};
+    private static final int[] BLOOD_TYPE_WEIGHTS = {37, 36, 9, 7, 6, 3, 1, 1};
+    private static final String[] SPECIALIZATIONS = {
+            "General Practice", "Family Medicine", "Internal Medicine", "Pediatrics", "Cardiology",
+            "Dermatology", "Orthopedics", "Gynecology", "Neurology", "Psychiatry", "Ophthalmology", "ENT"};
+    private static final int[] SPECIALIZATION_WEIGHTS = {20, 16, 12, 12, 6, 6, 6, 6, 4, 4, 4, 4};
+    private static final String[] MEDICATION_STEMS = {
+            "Amoxi", "Lisino", "Metfor", "Atorva", "Omepra", "Losar", "Albute", "Levothy", "Sertra", "Ibupro",
+            "Predni", "Azithro", "Gabapen", "Hydrochlo", "Montelu", "Pantopra", "Cetiri", "Doxycy", "Fluoxe", "Warfa"};
+    private static final String[] MEDICATION_SUFFIXES = {"cillin", "pril", "min", "statin", "zole", "tan", "rol", "xine", "line", "fen"};
+    private static final String[] DOSAGES = {"5 mg", "10 mg", "20 mg", "25 mg", "50 mg", "100 mg", "250 mg", "500 mg", "5 ml", "10 ml"};
+    private static final String[] INSTRUCTIONS = {
+            "Take once daily with water", "Take twice daily after meals", "Take every 8 hours as needed",
+            "Take at bedtime", "Apply to the affected area twice daily", "Use as directed by your doctor"};
+    static final String EMAIL_DOMAIN = "synthetic.example";
+    // 800 area codes x 800 exchanges x 10000 lines; the stride is coprime to it
+    private static final long PHONE_NUMBERS = 800L * 800 * 10_000;
+    private static final long PHONE_STRIDE = 1_000_003L;
+
+    private SyntheticValues() {
+    }
+
+    static boolean female(SplittableRandom random) {
+        return random.nextInt(100) < 51;
+    }
+
+    static String firstName(SplittableRandom random, boolean female) {
+        return pick(random, female ? FEMALE_NAMES : MALE_NAMES);
+    }
+
+    static String lastName(SplittableRandom random) {
+        return pick(random, LAST_NAMES);
+    }
+
+    // The id keeps the address unique across the whole dataset and across runs
+    static String email(String first, String last, long id) {
+        return (first + '.' + last + '.' + id + '@' + EMAIL_DOMAIN).toLowerCase();
+    }
+
+    static String phone(SplittableRandom random) {
+        return String.format("(%03d) %03d-%04d", 200 + random.nextInt(800), 200 + random.nextInt(800),
+                random.nextInt(10000));
+    }
+
+    // patients.phone is unique: a fixed permutation of the id spreads sequential ids over all numbers
+    static String uniquePhone(long id) {
+        long n = Math.floorMod(id, PHONE_NUMBERS) * PHONE_STRIDE % PHONE_NUMBERS;
+        return String.format("(%03d) %03d-%04d", 200 + n / 8_000_000, 200 + n / 10_000 % 800, n % 10_000);
+    }
+
+    static LocalDate dateOfBirth(SplittableRandom random, LocalDate today) {
+        // Mix of children, adults and a heavier tail of older patients
+        int ageYears = switch (random.nextInt(10)) {
+            case 0, 1 -> random.nextInt(18);
+            case 2, 3, 4, 5, 6 -> 18 + random.nextInt(47);
+            default -> 65 + random.nextInt(31);
+        };
+        return today.minusYears(ageYears).minusDays(1 + random.nextInt(364));
+    }
+
+    static String street(SplittableRandom random) {
+        return (1 + random.nextInt(9999)) + " " + pick(random, STREETS);
+    }
+
+    static String[] cityAndState(SplittableRandom random) {
+        return CITIES[random.nextInt(CITIES.length)];
+    }
+
+    static String postalCode(SplittableRandom random) {
+        return String.format("%05d", 10000 + random.nextInt(89999));
+    }
+
+    static String bloodType(SplittableRandom random) {
+        return BLOOD_TYPES[weighted(random, BLOOD_TYPE_WEIGHTS)];
+    }
+
+    static String specialization(SplittableRandom random) {
+        return SPECIALIZATIONS[weighted(random, SPECIALIZATION_WEIGHTS)];
+    }
+
+    // Long enough for Doctor.isLicenseValid and unique through the id
+    static String licenseNumber(long id) {
+        return String.format("SYN-%08d", id);
+    }
+
+    static String medicationName(SplittableRandom random, long id) {
+        return pick(random, MEDICATION_STEMS) + pick(random, MEDICATION_SUFFIXES) + " " + id;
+    }
+
+    static String dosage(SplittableRandom random) {
+        return pick(random, DOSAGES);
+    }
+
+    static String instructions(SplittableRandom random) {
+        return pick(random, INSTRUCTIONS);
+    }
+
+    static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
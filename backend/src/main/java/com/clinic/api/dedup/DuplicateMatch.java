@@ -0,0 +1,4 @@
+package com.clinic.api.dedup;
+
+public record DuplicateMatch(int patientId, double score) {
+}
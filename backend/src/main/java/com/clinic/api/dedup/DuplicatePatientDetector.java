@@ -0,0 +1,231 @@
+package com.clinic.api.dedup;
+
+import com.clinic.api.models.Patient;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import com.clinic.api.sharding.ShardingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Finds likely duplicate patients without scanning the table. Every active patient is
+ * filed in three blocking indexes (phonetic name key, national phone number, date of
+ * birth); a new registration is only scored against patients sharing at least one block.
+ * Each clinic shard is indexed separately.
+ */
+@Component
+public class DuplicatePatientDetector {
+    private static final Logger log = LoggerFactory.getLogger(DuplicatePatientDetector.class);
+    // Blocks larger than this carry little signal (common names, popular birthdays)
+    private static final int MAX_BLOCK_CANDIDATES = 256;
+
+    private static final class Indexes {
+        final Map<Integer, PatientFingerprint> fingerprints = new ConcurrentHashMap<>();
+        final Map<String, Set<Integer>> byPhoneticKey = new ConcurrentHashMap<>();
+        final Map<String, Set<Integer>> byPhone = new ConcurrentHashMap<>();
+        final Map<LocalDate, Set<Integer>> byDateOfBirth = new ConcurrentHashMap<>();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardedQueryExecutor shards;
+    private final ShardingProperties shardingProperties;
+    private final Map<String, Indexes> byClinic = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DuplicatePatientDetector(JdbcTemplate jdbcTemplate, ShardedQueryExecutor shards,
+                                    ShardingProperties shardingProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        shards.forEachShard("Duplicate detection indexing", this::loadCurrentClinic);
+    }
+
+    private void loadCurrentClinic() {
+        Indexes indexes = indexes();
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        streaming.query("SELECT id, full_name, phone, date_of_birth, email FROM patients WHERE is_active = true",
+                rs -> {
+                    Date dateOfBirth = rs.getDate(4);
+                    add(indexes, PatientFingerprint.of(rs.getInt(1), rs.getString(2), rs.getString(3),
+                            dateOfBirth == null ? null : dateOfBirth.toLocalDate(), rs.getString(5)));
+                });
+        log.info("Indexed {} patients of clinic {} for duplicate detection", indexes.fingerprints.size(),
+                ClinicContext.get());
+    }
+
+    /**
+     * Best scoring existing patient for a registration, excluding the patient itself.
+     */
+    public Optional<DuplicateMatch> findBestMatch(Patient patient) {
+        int selfId = patient.getId() == null ? -1 : patient.getId();
+        PatientFingerprint probe = PatientFingerprint.of(selfId, patient.getFullName(), patient.getPhone(),
+                patient.getDateOfBirth(), patient.getEmail());
+
+        Indexes indexes = indexes();
+        DuplicateMatch best = null;
+        for (Integer candidateId : candidatesFor(indexes, probe)) {
+            PatientFingerprint candidate = indexes.fingerprints.get(candidateId);
+            if (candidate == null || candidateId == selfId) {
+                continue;
+            }
+            double score = probe.similarityTo(candidate);
+            if (best == null || score > best.score()) {
+                best = new DuplicateMatch(candidateId, score);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Scans all indexed patients for clusters of likely duplicates. Blocks are scored in
+     * parallel; pairs above the threshold are then joined with union-find.
+     */
+    public List<Set<Integer>> findDuplicateClusters(double threshold) {
+        Indexes indexes = indexes();
+        List<Set<Integer>> blocks = new ArrayList<>();
+        indexes.byPhoneticKey.values().forEach(blocks::add);
+        indexes.byPhone.values().forEach(blocks::add);
+        indexes.byDateOfBirth.values().forEach(blocks::add);
+
+        List<int[]> pairs = blocks.parallelStream()
+                .filter(block -> block.size() > 1 && block.size() <= MAX_BLOCK_CANDIDATES)
+                .flatMap(block -> matchingPairs(indexes, block, threshold).stream())
+                .collect(Collectors.toList());
+
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (int[] pair : pairs) {
+            union(parent, pair[0], pair[1]);
+        }
+        Map<Integer, Set<Integer>> clusters = new HashMap<>();
+        for (Integer id : parent.keySet()) {
+            clusters.computeIfAbsent(find(parent, id), root -> new HashSet<>()).add(id);
+        }
+        return clusters.values().stream()
+                .filter(cluster -> cluster.size() > 1)
+                .collect(Collectors.toList());
+    }
+
+    public void index(Patient patient) {
+        remove(patient.getId());
+        add(indexes(), PatientFingerprint.of(patient.getId(), patient.getFullName(), patient.getPhone(),
+                patient.getDateOfBirth(), patient.getEmail()));
+    }
+
+    public void remove(Integer patientId) {
+        Indexes indexes = indexes();
+        PatientFingerprint previous = indexes.fingerprints.remove(patientId);
+        if (previous != null) {
+            removeFrom(indexes.byPhoneticKey, previous.phoneticKey(), patientId);
+            removeFrom(indexes.byPhone, previous.phone(), patientId);
+            removeFrom(indexes.byDateOfBirth, previous.dateOfBirth(), patientId);
+        }
+    }
+
+    // Indexes of the clinic the current thread works for
+    private Indexes indexes() {
+        return byClinic.computeIfAbsent(shardingProperties.resolve(ClinicContext.get()), clinicId -> new Indexes());
+    }
+
+    private static void add(Indexes indexes, PatientFingerprint fingerprint) {
+        indexes.fingerprints.put(fingerprint.patientId(), fingerprint);
+        addTo(indexes.byPhoneticKey, fingerprint.phoneticKey(), fingerprint.patientId());
+        addTo(indexes.byPhone, fingerprint.phone(), fingerprint.patientId());
+        addTo(indexes.byDateOfBirth, fingerprint.dateOfBirth(), fingerprint.patientId());
+    }
+
+    private static Set<Integer> candidatesFor(Indexes indexes, PatientFingerprint probe) {
+        Set<Integer> candidates = new HashSet<>();
+        addCandidates(candidates, indexes.byPhoneticKey.get(probe.phoneticKey()));
+        addCandidates(candidates, indexes.byPhone.get(probe.phone()));
+        addCandidates(candidates, indexes.byDateOfBirth.get(probe.dateOfBirth()));
+        return candidates;
+    }
+
+    private static void addCandidates(Set<Integer> candidates, Set<Integer> block) {
+        if (block != null && block.size() <= MAX_BLOCK_CANDIDATES) {
+            candidates.addAll(block);
+        }
+    }
+
+    private static List<int[]> matchingPairs(Indexes indexes, Set<Integer> block, double threshold) {
+        List<PatientFingerprint> members = new ArrayList<>(block.size());
+        for (Integer id : block) {
+            PatientFingerprint fingerprint = indexes.fingerprints.get(id);
+            if (fingerprint != null) {
+                members.add(fingerprint);
+            }
+        }
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            for (int j = i + 1; j < members.size(); j++) {
+                if (members.get(i).similarityTo(members.get(j)) >= threshold) {
+                    pairs.add(new int[]{members.get(i).patientId(), members.get(j).patientId()});
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static <K> void addTo(Map<K, Set<Integer>> index, K key, int patientId) {
+        if (key == null || "".equals(key)) {
+            return;
+        }
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(patientId);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> index, K key, int patientId) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(patientId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static void union(Map<Integer, Integer> parent, int a, int b) {
+        parent.putIfAbsent(a, a);
+        parent.putIfAbsent(b, b);
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(rootA, rootB);
+        }
+    }
+
+    private static int find(Map<Integer, Integer> parent, int id) {
+        int root = id;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        // Path compression
+        while (parent.get(id) != root) {
+            int next = parent.get(id);
+            parent.put(id, root);
+            id = next;
+        }
+        return root;
+    }
+}
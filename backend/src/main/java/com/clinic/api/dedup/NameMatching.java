@@ -0,0 +1,147 @@
+package com.clinic.api.dedup;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * String normalisation, phonetic keys and similarity used for duplicate detection.
+ */
+final class NameMatching {
+    private static final int PHONE_SUFFIX_DIGITS = 9;
+    //                                        abcdefghijklmnopqrstuvwxyz
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private NameMatching() {
+    }
+
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(stripped.length());
+        boolean space = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = Character.toLowerCase(stripped.charAt(i));
+            if (c >= 'a' && c <= 'z') {
+                normalized.append(c);
+                space = false;
+            } else if (Character.isWhitespace(c) || c == '-' || c == '\'') {
+                if (!space && normalized.length() > 0) {
+                    normalized.append(' ');
+                    space = true;
+                }
+            }
+            // Combining accents and other punctuation are dropped
+        }
+        return normalized.toString().trim();
+    }
+
+    /**
+     * Order-independent phonetic key: the Soundex code of every name token, sorted, so
+     * "Smith, John" and "Jon Smyth" land in the same block.
+     */
+    static String phoneticKey(String normalizedName) {
+        if (normalizedName.isEmpty()) {
+            return "";
+        }
+        String[] tokens = normalizedName.split(" ");
+        String[] codes = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            codes[i] = soundex(tokens[i]);
+        }
+        Arrays.sort(codes);
+        return String.join(" ", codes);
+    }
+
+    static String soundex(String token) {
+        char[] code = {Character.toUpperCase(token.charAt(0)), '0', '0', '0'};
+        char previous = SOUNDEX_CODES.charAt(token.charAt(0) - 'a');
+        int length = 1;
+        for (int i = 1; i < token.length() && length < 4; i++) {
+            char c = token.charAt(i);
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            // 'h' and 'w' do not separate letters with the same code
+            if (c != 'h' && c != 'w') {
+                previous = digit;
+            }
+        }
+        return new String(code);
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        // Compare national numbers so +27 82... and 082... match
+        return digits.length() > PHONE_SUFFIX_DIGITS
+                ? digits.substring(digits.length() - PHONE_SUFFIX_DIGITS)
+                : digits.toString();
+    }
+
+    static String emailLocalPart(String email) {
+        if (email == null) {
+            return "";
+        }
+        int at = email.indexOf('@');
+        return (at < 0 ? email : email.substring(0, at)).toLowerCase(Locale.ROOT);
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatched = new boolean[a.length()];
+        boolean[] bMatched = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (aMatched[i]) {
+                while (!bMatched[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+}
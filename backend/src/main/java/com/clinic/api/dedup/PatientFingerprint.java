@@ -0,0 +1,31 @@
+package com.clinic.api.dedup;
+
+import java.time.LocalDate;
+
+/**
+ * The normalised fields of a patient that duplicate detection compares.
+ */
+record PatientFingerprint(int patientId, String name, String phoneticKey, String phone,
+                          LocalDate dateOfBirth, String emailLocalPart) {
+
+    static PatientFingerprint of(int patientId, String fullName, String phone, LocalDate dateOfBirth, String email) {
+        String name = NameMatching.normalizeName(fullName);
+        return new PatientFingerprint(patientId, name, NameMatching.phoneticKey(name),
+                NameMatching.normalizePhone(phone), dateOfBirth, NameMatching.emailLocalPart(email));
+    }
+
+    /**
+     * Weighted similarity in [0, 1]: name 0.45, phone 0.25, date of birth 0.2, email 0.1.
+     */
+    double similarityTo(PatientFingerprint other) {
+        double score = 0.45 * NameMatching.jaroWinkler(name, other.name);
+        if (!phone.isEmpty() && phone.equals(other.phone)) {
+            score += 0.25;
+        }
+        if (dateOfBirth != null && dateOfBirth.equals(other.dateOfBirth)) {
+            score += 0.2;
+        }
+        score += 0.1 * NameMatching.jaroWinkler(emailLocalPart, other.emailLocalPart);
+        return score;
+    }
+}
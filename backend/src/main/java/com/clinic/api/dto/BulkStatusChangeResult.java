@@ -0,0 +1,31 @@
+package com.clinic.api.dto;
+
+import com.clinic.api.models.Appointment.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusChangeResult {
+
+    private int updated;
+    private List<Item> items;
+
+    public enum Outcome {
+        UPDATED, NOT_FOUND, INVALID_TRANSITION, CONFLICT
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Integer id;
+        private Status status;
+        private Outcome outcome;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.clinic.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAppointmentCount {
+
+    private String clinicId;
+    private String doctorName;
+    private long appointments;
+}
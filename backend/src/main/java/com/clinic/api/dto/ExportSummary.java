@@ -0,0 +1,32 @@
+package com.clinic.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportSummary {
+
+    private String mode;
+    private String clinicId;
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private List<TableLine> tables;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TableLine {
+        private String table;
+        private String directory;
+        private LocalDateTime changedAfter;
+        private LocalDateTime changedUpTo;
+        private long rows;
+        private int files;
+    }
+}
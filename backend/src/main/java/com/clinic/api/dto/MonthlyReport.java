@@ -0,0 +1,49 @@
+package com.clinic.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyReport {
+
+    private YearMonth month;
+    private String clinicId;
+    private LocalDateTime generatedAt;
+    private long totalAppointments;
+    private long distinctPatients;
+    private Map<String, Long> appointmentsByStatus;
+    private List<DoctorLine> appointmentsByDoctor;
+    private Map<String, Long> appointmentsBySpecialization;
+    private Map<String, Long> patientsByGender;
+    private Map<String, Long> patientsByAgeBand;
+    private List<MedicationLine> medicationUsage;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DoctorLine {
+        private Integer doctorId;
+        private String doctorName;
+        private String specialization;
+        private long appointments;
+        private long completed;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MedicationLine {
+        private Integer medicationId;
+        private String name;
+        private String dosage;
+        private long prescriptions;
+    }
+}
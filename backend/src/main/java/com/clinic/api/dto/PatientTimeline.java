@@ -0,0 +1,89 @@
+package com.clinic.api.dto;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Medication;
+import com.clinic.api.models.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything a patient chart needs in one response: the patient, one page of appointment
+ * history with doctor summaries, and the patient's active medications.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientTimeline {
+
+    private PatientSummary patient;
+    private HistoryPage history;
+    private List<MedicationSummary> activeMedications;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PatientSummary {
+        private Integer id;
+        private String fullName;
+        private String email;
+        private String phone;
+        private LocalDate dateOfBirth;
+        private Patient.Gender gender;
+        private String bloodType;
+
+        public static PatientSummary of(Patient patient) {
+            return new PatientSummary(patient.getId(), patient.getFullName(), patient.getEmail(),
+                    patient.getPhone(), patient.getDateOfBirth(), patient.getGender(), patient.getBloodType());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistoryPage {
+        private int page;
+        private int size;
+        private boolean hasNext;
+        private List<AppointmentEntry> appointments;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AppointmentEntry {
+        private Integer id;
+        private LocalDateTime appointmentDate;
+        private Appointment.Status status;
+        private Integer doctorId;
+        private String doctorName;
+        private String specialization;
+
+        // The doctor must have been fetched with the appointment
+        public static AppointmentEntry of(Appointment appointment) {
+            return new AppointmentEntry(appointment.getId(), appointment.getAppointmentDate(),
+                    appointment.getStatus(), appointment.getDoctor().getId(), appointment.getDoctor().getName(),
+                    appointment.getDoctor().getSpecialization());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MedicationSummary {
+        private Integer id;
+        private String name;
+        private String dosage;
+        private Medication.Form form;
+        private String instructions;
+
+        public static MedicationSummary of(Medication medication) {
+            return new MedicationSummary(medication.getId(), medication.getName(), medication.getDosage(),
+                    medication.getForm(), medication.getInstructions());
+        }
+    }
+}
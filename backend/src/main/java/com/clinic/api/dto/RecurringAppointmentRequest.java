@@ -0,0 +1,60 @@
+package com.clinic.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringAppointmentRequest {
+
+    @NotNull(message = "Patient is required")
+    private Integer patientId;
+
+    @NotNull(message = "Doctor is required")
+    private Integer doctorId;
+
+    @NotNull(message = "First occurrence is required")
+    private LocalDateTime firstOccurrence;
+
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency;
+
+    @Builder.Default
+    @Min(value = 1, message = "Interval must be at least 1")
+    private int interval = 1;
+
+    // Either count or until bounds the series; count wins if both are given
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = 104, message = "A series can have at most 104 occurrences")
+    private Integer count;
+
+    private LocalDate until;
+
+    // Book the free occurrences even if some of them conflict
+    private boolean allowPartial;
+
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS), WEEKLY(ChronoUnit.WEEKS), MONTHLY(ChronoUnit.MONTHS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinic.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringSeriesResult {
+
+    private int booked;
+    private int rejected;
+    private List<Occurrence> occurrences;
+
+    public enum Outcome {
+        BOOKED, DOCTOR_CONFLICT, PATIENT_CONFLICT, INVALID_TIME, NOT_BOOKED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Occurrence {
+        private LocalDateTime appointmentDate;
+        private Outcome outcome;
+        private String reason;
+    }
+}
@@ -0,0 +1,32 @@
+package com.clinic.api.dto;
+
+import com.clinic.api.paging.TotalMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * One page of a listing without a mandatory COUNT(*). hasNext comes from fetching one row
+ * more than the page size; total is only present when requested, and is approximate
+ * unless totalMode is EXACT.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long total;
+    private TotalMode totalMode;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice, TotalMode totalMode, Long total) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(),
+                totalMode == TotalMode.NONE ? null : total, totalMode);
+    }
+}
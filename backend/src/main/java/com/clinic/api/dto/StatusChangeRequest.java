@@ -0,0 +1,19 @@
+package com.clinic.api.dto;
+
+import com.clinic.api.models.Appointment.Status;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusChangeRequest {
+
+    @NotNull(message = "Appointment id is required")
+    private Integer id;
+
+    @NotNull(message = "Target status is required")
+    private Status status;
+}
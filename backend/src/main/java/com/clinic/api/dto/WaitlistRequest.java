@@ -0,0 +1,31 @@
+package com.clinic.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistRequest {
+
+    @NotNull(message = "Patient is required")
+    private Integer patientId;
+
+    private Integer doctorId;
+
+    private String specialization;
+
+    @NotNull(message = "Window start is required")
+    private LocalDateTime windowStart;
+
+    @NotNull(message = "Window end is required")
+    private LocalDateTime windowEnd;
+
+    private Integer priority;
+}
@@ -0,0 +1,28 @@
+package com.clinic.api.events;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.sharding.ClinicContext;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by appointment writes inside the transaction; listeners that react to it should
+ * use {@code @TransactionalEventListener} so they only see committed changes. Ids are only
+ * unique within the clinic (shard) the change was made in.
+ */
+public record AppointmentChangedEvent(String clinicId, ChangeType type, Integer appointmentId, Integer doctorId,
+                                      Integer patientId, LocalDateTime appointmentDate, Status status) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, CANCELLED, RESCHEDULED, DELETED, STATUS_CHANGED
+    }
+
+    // Doctor and patient are lazy; reading their ids from the proxies does not initialise them
+    public static AppointmentChangedEvent of(ChangeType type, Appointment appointment) {
+        return new AppointmentChangedEvent(ClinicContext.get(), type, appointment.getId(),
+                appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getPatient() != null ? appointment.getPatient().getId() : null,
+                appointment.getAppointmentDate(), appointment.getStatus());
+    }
+}
@@ -0,0 +1,291 @@
+package com.clinic.api.export;
+
+import com.clinic.api.dto.ExportSummary;
+import com.clinic.api.dto.ExportSummary.TableLine;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import jakarta.annotation.PreDestroy;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Exports the clinic tables to compressed Arrow IPC files so analytics can run off the OLTP
+ * database. Each table is cut into id ranges that are streamed and written in parallel, one
+ * file per non-empty range, under {@code <dir>/[clinic=<id>/]<table>/run=<mode>-<time>/}.
+ * <p>
+ * An incremental export only takes rows whose updated_at moved past the previous export's
+ * watermark. The watermark is stepped back by clinic.export.overlap-ms so rows committed
+ * late by a long transaction are not missed; readers keep the newest version per id.
+ * Watermarks only advance when every chunk of the run succeeded; a failed run's directories
+ * are deleted.
+ */
+@Service
+public class AnalyticsExportService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsExportService.class);
+    private static final DateTimeFormatter RUN_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final String WATERMARK_FILE = "_watermarks.properties";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streaming;
+    private final ShardedQueryExecutor shards;
+    private final ExecutorService pool;
+    private final BufferAllocator allocator;
+    private final Path directory;
+    private final int chunkSize;
+    private final int batchRows;
+    private final long overlapMillis;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public AnalyticsExportService(JdbcTemplate jdbcTemplate, ShardedQueryExecutor shards,
+                                  @Value("${clinic.export.directory:export}") String directory,
+                                  @Value("${clinic.export.parallelism:4}") int parallelism,
+                                  @Value("${clinic.export.chunk-size:50000}") int chunkSize,
+                                  @Value("${clinic.export.batch-rows:8192}") int batchRows,
+                                  @Value("${clinic.export.fetch-size:1000}") int fetchSize,
+                                  @Value("${clinic.export.overlap-ms:300000}") long overlapMillis,
+                                  @Value("${clinic.export.memory-limit-bytes:268435456}") long memoryLimit,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Own template so the fetch size does not leak into other queries
+        this.streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streaming.setFetchSize(fetchSize);
+        this.shards = shards;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Each running chunk holds a connection; leave the rest of the pool to requests
+        this.pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, connectionPoolSize / 2)), runnable -> {
+            Thread thread = new Thread(runnable, "analytics-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.allocator = new RootAllocator(memoryLimit);
+        this.directory = Path.of(directory);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.batchRows = Math.max(1, batchRows);
+        this.overlapMillis = overlapMillis;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+        allocator.close();
+    }
+
+    // Disabled unless clinic.export.cron is set; exports every configured clinic in turn
+    @Scheduled(cron = "${clinic.export.cron:-}")
+    public void scheduledExport() {
+        shards.forEachShard("Analytics export", () -> export(true));
+    }
+
+    /**
+     * Runs a full or incremental export for the current clinic. Throws IllegalStateException
+     * if another export is still running.
+     */
+    public ExportSummary export(boolean incremental) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("An export is already running");
+        }
+        try {
+            return runExport(incremental);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private ExportSummary runExport(boolean incremental) {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String clinicId = ClinicContext.get();
+        Path base = clinicId == null ? directory : directory.resolve("clinic=" + clinicId);
+        String mode = incremental ? "incremental" : "full";
+        String run = "run=" + mode + "-" + RUN_TIME.format(startedAt);
+        Properties watermarks = loadWatermarks(base);
+
+        // Every chunk of every table is queued up front so the pool stays busy across tables
+        Map<ExportTable, LocalDateTime> changedAfter = new EnumMap<>(ExportTable.class);
+        Map<ExportTable, List<Future<Long>>> chunks = new EnumMap<>(ExportTable.class);
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<TableLine> lines = new ArrayList<>();
+        try {
+            for (ExportTable table : ExportTable.values()) {
+                String previous = watermarks.getProperty(table.name());
+                LocalDateTime after = incremental && previous != null
+                        ? LocalDateTime.parse(previous).minus(overlapMillis, ChronoUnit.MILLIS)
+                        : null;
+                changedAfter.put(table, after);
+                chunks.put(table, submitChunks(table, clinicId, after, startedAt,
+                        base.resolve(table.getTableName()).resolve(run), aborted));
+            }
+
+            for (ExportTable table : ExportTable.values()) {
+                long rows = 0;
+                int files = 0;
+                for (Future<Long> chunk : chunks.get(table)) {
+                    long written = chunk.get();
+                    rows += written;
+                    files += written > 0 ? 1 : 0;
+                }
+                lines.add(new TableLine(table.getTableName(),
+                        base.resolve(table.getTableName()).resolve(run).toString(),
+                        changedAfter.get(table), startedAt, rows, files));
+            }
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            // Queued chunks skip their work, running ones finish; only then is the run directory removed
+            aborted.set(true);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            awaitQuietly(chunks);
+            deleteRun(base, run);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new RuntimeException("Analytics export " + run + " failed: " + cause.getMessage(), cause);
+        }
+
+        for (ExportTable table : ExportTable.values()) {
+            watermarks.setProperty(table.name(), startedAt.toString());
+        }
+        saveWatermarks(base, watermarks);
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Analytics export {} wrote {} rows in {} ms", run,
+                lines.stream().mapToLong(TableLine::getRows).sum(), durationMillis);
+        return new ExportSummary(mode, clinicId, startedAt, durationMillis, lines);
+    }
+
+    private List<Future<Long>> submitChunks(ExportTable table, String clinicId, LocalDateTime after,
+                                            LocalDateTime upTo, Path runDirectory, AtomicBoolean aborted) {
+        String where = after == null ? " WHERE updated_at IS NULL OR updated_at <= ?"
+                : " WHERE updated_at > ? AND updated_at <= ?";
+        Object[] changed = after == null ? new Object[]{Timestamp.valueOf(upTo)}
+                : new Object[]{Timestamp.valueOf(after), Timestamp.valueOf(upTo)};
+
+        int[] bounds = jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM " + table.getTableName() + where,
+                (ResultSet rs) -> {
+                    rs.next();
+                    int min = rs.getInt(1);
+                    return rs.wasNull() ? null : new int[]{min, rs.getInt(2)};
+                }, changed);
+        List<Future<Long>> futures = new ArrayList<>();
+        if (bounds == null) {
+            return futures;
+        }
+
+        String sql = "SELECT " + table.selectList() + " FROM " + table.getTableName()
+                + " WHERE id >= ? AND id < ? AND (" + where.substring(" WHERE ".length()) + ") ORDER BY id";
+        for (long from = bounds[0]; from <= bounds[1]; from += chunkSize) {
+            Object[] args = new Object[changed.length + 2];
+            args[0] = from;
+            args[1] = Math.min(from + chunkSize, (long) bounds[1] + 1);
+            System.arraycopy(changed, 0, args, 2, changed.length);
+            Path file = runDirectory.resolve(String.format("part-%010d.arrow", from));
+            futures.add(pool.submit(() -> aborted.get() ? 0L
+                    : ClinicContext.callIn(clinicId, () -> writeChunk(table, sql, args, file))));
+        }
+        return futures;
+    }
+
+    private long writeChunk(ExportTable table, String sql, Object[] args, Path file) throws IOException {
+        try (BufferAllocator chunkAllocator = allocator.newChildAllocator(file.toString(), 0, Long.MAX_VALUE);
+             ArrowChunkWriter writer = new ArrowChunkWriter(table, chunkAllocator, file, batchRows)) {
+            streaming.query(sql, writer::append, args);
+            return writer.finish();
+        }
+    }
+
+    private static void awaitQuietly(Map<ExportTable, List<Future<Long>>> chunks) {
+        boolean interrupted = Thread.interrupted();
+        for (List<Future<Long>> futures : chunks.values()) {
+            for (Future<Long> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException | CancellationException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A failed run must not leave files behind that look like part of an export
+    private static void deleteRun(Path base, String run) {
+        for (ExportTable table : ExportTable.values()) {
+            Path runDirectory = base.resolve(table.getTableName()).resolve(run);
+            if (!Files.exists(runDirectory)) {
+                continue;
+            }
+            try (Stream<Path> paths = Files.walk(runDirectory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete {} of failed analytics export", runDirectory, e);
+            }
+        }
+    }
+
+    private static Properties loadWatermarks(Path base) {
+        Properties watermarks = new Properties();
+        Path file = base.resolve(WATERMARK_FILE);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                watermarks.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + file, e);
+            }
+        }
+        return watermarks;
+    }
+
+    private static void saveWatermarks(Path base, Properties watermarks) {
+        Path file = base.resolve(WATERMARK_FILE);
+        Path temporary = base.resolve(WATERMARK_FILE + ".tmp");
+        try {
+            Files.createDirectories(base);
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                watermarks.store(out, "Last exported updated_at per table");
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.clinic.api.export;
+
+import com.clinic.api.export.ExportTable.Column;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams result set rows into one ZSTD-compressed Arrow IPC file, a record batch at a time,
+ * so memory is bounded by the batch size. The file is written under a temporary name and
+ * only moved into place by {@link #finish}; nothing is created for a chunk without rows.
+ */
+final class ArrowChunkWriter implements AutoCloseable {
+    private final ExportTable table;
+    private final List<Column> columns;
+    private final VectorSchemaRoot root;
+    private final List<FieldVector> vectors;
+    private final Path target;
+    private final Path temporary;
+    private final int batchRows;
+
+    private FileChannel channel;
+    private ArrowFileWriter writer;
+    private int batchSize;
+    private long rows;
+
+    ArrowChunkWriter(ExportTable table, BufferAllocator allocator, Path target, int batchRows) {
+        this.table = table;
+        this.columns = table.getColumns();
+        this.root = VectorSchemaRoot.create(table.getSchema(), allocator);
+        this.vectors = root.getFieldVectors();
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.batchRows = batchRows;
+    }
+
+    void append(ResultSet rs) throws SQLException {
+        if (writer == null) {
+            open();
+        }
+        if (batchSize == 0) {
+            root.allocateNew();
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            set(vectors.get(i), columns.get(i), rs, i + 1);
+        }
+        rows++;
+        if (++batchSize == batchRows) {
+            try {
+                writeBatch();
+            } catch (IOException e) {
+                throw new SQLException("Could not write " + temporary, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the last batch and publishes the file. Returns the number of rows written.
+     */
+    long finish() throws IOException {
+        if (writer == null) {
+            return 0;
+        }
+        if (batchSize > 0) {
+            writeBatch();
+        }
+        writer.end();
+        writer.close();
+        writer = null;
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer != null) {
+                writer.close();
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        } finally {
+            root.close();
+        }
+    }
+
+    private void open() throws SQLException {
+        try {
+            Files.createDirectories(target.getParent());
+            channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writer = new ArrowFileWriter(root, null, channel, Map.of("table", table.getTableName()),
+                    IpcOption.DEFAULT, CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD);
+            writer.start();
+        } catch (IOException e) {
+            throw new SQLException("Could not create " + temporary, e);
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(batchSize);
+        writer.writeBatch();
+        batchSize = 0;
+    }
+
+    private void set(FieldVector vector, Column column, ResultSet rs, int index) throws SQLException {
+        int row = batchSize;
+        switch (column.kind()) {
+            case INT -> {
+                int value = rs.getInt(index);
+                if (rs.wasNull()) {
+                    ((IntVector) vector).setNull(row);
+                } else {
+                    ((IntVector) vector).setSafe(row, value);
+                }
+            }
+            case STRING -> {
+                String value = rs.getString(index);
+                if (value == null) {
+                    ((VarCharVector) vector).setNull(row);
+                } else {
+                    ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            case BOOLEAN -> {
+                boolean value = rs.getBoolean(index);
+                if (rs.wasNull()) {
+                    ((BitVector) vector).setNull(row);
+                } else {
+                    ((BitVector) vector).setSafe(row, value ? 1 : 0);
+                }
+            }
+            case DATE -> {
+                Date value = rs.getDate(index);
+                if (value == null) {
+                    ((DateDayVector) vector).setNull(row);
+                } else {
+                    ((DateDayVector) vector).setSafe(row, (int) value.toLocalDate().toEpochDay());
+                }
+            }
+            case TIMESTAMP -> {
+                Timestamp value = rs.getTimestamp(index);
+                if (value == null) {
+                    ((TimeStampMilliVector) vector).setNull(row);
+                } else {
+                    ((TimeStampMilliVector) vector).setSafe(row,
+                            value.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+                }
+            }
+        }
+    }
+}
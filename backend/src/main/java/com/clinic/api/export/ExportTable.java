@@ -0,0 +1,104 @@
+package com.clinic.api.export;
+
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tables offered to analytics and the columns exported from each. Patients are exported
+ * without names or contact details; demographics and location are enough for reporting.
+ */
+public enum ExportTable {
+    APPOINTMENTS("appointments",
+            column("id", Kind.INT),
+            column("patient_id", Kind.INT),
+            column("doctor_id", Kind.INT),
+            column("appointment_date", Kind.TIMESTAMP),
+            column("status", Kind.STRING),
+            column("clinic_id", Kind.STRING),
+            column("created_at", Kind.TIMESTAMP),
+            column("updated_at", Kind.TIMESTAMP)),
+    PATIENTS("patients",
+            column("id", Kind.INT),
+            column("gender", Kind.STRING),
+            column("date_of_birth", Kind.DATE),
+            column("blood_type", Kind.STRING),
+            column("city", Kind.STRING),
+            column("state", Kind.STRING),
+            column("country", Kind.STRING),
+            column("is_active", Kind.BOOLEAN),
+            column("clinic_id", Kind.STRING),
+            column("created_at", Kind.TIMESTAMP),
+            column("updated_at", Kind.TIMESTAMP)),
+    DOCTORS("doctors",
+            column("id", Kind.INT),
+            column("name", Kind.STRING),
+            column("specialization", Kind.STRING),
+            column("gender", Kind.STRING),
+            column("clinic_id", Kind.STRING),
+            column("created_at", Kind.TIMESTAMP),
+            column("updated_at", Kind.TIMESTAMP)),
+    MEDICATIONS("medications",
+            column("id", Kind.INT),
+            column("name", Kind.STRING),
+            column("dosage", Kind.STRING),
+            column("form", Kind.STRING),
+            column("category_id", Kind.INT),
+            column("is_active", Kind.BOOLEAN),
+            column("created_at", Kind.TIMESTAMP),
+            column("updated_at", Kind.TIMESTAMP));
+
+    enum Kind {
+        INT, STRING, BOOLEAN, DATE, TIMESTAMP
+    }
+
+    record Column(String name, Kind kind) {
+        Field toField() {
+            ArrowType type = switch (kind) {
+                case INT -> new ArrowType.Int(32, true);
+                case STRING -> ArrowType.Utf8.INSTANCE;
+                case BOOLEAN -> ArrowType.Bool.INSTANCE;
+                case DATE -> new ArrowType.Date(DateUnit.DAY);
+                // Zone-less: values are the database's local wall-clock times
+                case TIMESTAMP -> new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+            };
+            return Field.nullable(name, type);
+        }
+    }
+
+    private final String tableName;
+    private final List<Column> columns;
+    private final Schema schema;
+
+    ExportTable(String tableName, Column... columns) {
+        this.tableName = tableName;
+        this.columns = List.of(columns);
+        this.schema = new Schema(Arrays.stream(columns).map(Column::toField).toList());
+    }
+
+    private static Column column(String name, Kind kind) {
+        return new Column(name, kind);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    List<Column> getColumns() {
+        return columns;
+    }
+
+    Schema getSchema() {
+        return schema;
+    }
+
+    String selectList() {
+        return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,235 @@
+package com.clinic.api.feed;
+
+import com.clinic.api.batch.AppointmentStatusBatchCompletedEvent;
+import com.clinic.api.events.AppointmentChangedEvent;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans committed appointment changes out to SSE subscribers. Publishing only enqueues:
+ * every subscriber has a small bounded queue drained by a shared sender pool, so a slow
+ * client never blocks the committing thread or other clients. When a queue overflows the
+ * oldest events are dropped and the client is sent a {@code resync} event telling it to
+ * reload instead of trusting the stream.
+ * <p>
+ * Doctor and patient ids are only unique within a clinic, so subscribers are filed under
+ * the clinic they subscribed from and only see that clinic's events.
+ */
+@Component
+public class AppointmentFeedHub {
+    private static final int QUEUE_CAPACITY = 256;
+
+    private record Key(String clinicId, Integer id) {
+    }
+
+    final class Subscriber {
+        final long id;
+        final String clinicId;
+        final Integer doctorId;
+        final Integer patientId;
+        final SseEmitter emitter;
+        final Queue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean overflowed = new AtomicBoolean();
+
+        Subscriber(long id, String clinicId, Integer doctorId, Integer patientId, SseEmitter emitter) {
+            this.id = id;
+            this.clinicId = clinicId;
+            this.doctorId = doctorId;
+            this.patientId = patientId;
+            this.emitter = emitter;
+        }
+
+        boolean accepts(AppointmentChangedEvent event) {
+            return (doctorId == null || doctorId.equals(event.doctorId())) &&
+                    (patientId == null || patientId.equals(event.patientId()));
+        }
+
+        void offer(Object event) {
+            while (!queue.offer(event)) {
+                queue.poll();
+                overflowed.set(true);
+                dropped.increment();
+            }
+            scheduleDrain(this);
+        }
+    }
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<Key, Set<Subscriber>> byDoctor = new ConcurrentHashMap<>();
+    private final Map<Key, Set<Subscriber>> byPatient = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> unfiltered = new ConcurrentHashMap<>();
+    private final ShardingProperties shardingProperties;
+    private final AtomicLong nextId = new AtomicLong();
+    private final ExecutorService sender;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final Counter dropped;
+
+    @Autowired
+    public AppointmentFeedHub(MeterRegistry meterRegistry, ShardingProperties shardingProperties,
+                              @Value("${clinic.feed.sender-threads:4}") int senderThreads,
+                              @Value("${clinic.feed.timeout-ms:1800000}") long timeoutMillis,
+                              @Value("${clinic.feed.max-subscribers:10000}") int maxSubscribers) {
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "appointment-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shardingProperties = shardingProperties;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.dropped = meterRegistry.counter("clinic.feed.events.dropped");
+        meterRegistry.gaugeMapSize("clinic.feed.subscribers", Tags.empty(), subscribers);
+    }
+
+    public SseEmitter subscribe(Integer doctorId, Integer patientId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(nextId.incrementAndGet(),
+                shardingProperties.resolve(ClinicContext.get()), doctorId, patientId, emitter);
+        subscribers.put(subscriber.id, subscriber);
+        indexFor(subscriber).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        String clinicId = shardingProperties.resolve(event.clinicId());
+        unfiltered.getOrDefault(clinicId, Set.of()).forEach(subscriber -> subscriber.offer(event));
+        if (event.doctorId() != null) {
+            byDoctor.getOrDefault(new Key(clinicId, event.doctorId()), Set.of()).stream()
+                    .filter(subscriber -> subscriber.accepts(event))
+                    .forEach(subscriber -> subscriber.offer(event));
+        }
+        if (event.patientId() != null) {
+            byPatient.getOrDefault(new Key(clinicId, event.patientId()), Set.of())
+                    .forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    // Bulk transitions are not streamed row by row; affected dashboards reload instead
+    @EventListener
+    public void onBatchCompleted(AppointmentStatusBatchCompletedEvent event) {
+        String clinicId = shardingProperties.resolve(event.clinicId());
+        unfiltered.getOrDefault(clinicId, Set.of()).forEach(this::requestResync);
+        event.doctorIds().forEach(doctorId ->
+                byDoctor.getOrDefault(new Key(clinicId, doctorId), Set.of()).forEach(this::requestResync));
+        byPatient.forEach((key, patientSubscribers) -> {
+            if (key.clinicId().equals(clinicId)) {
+                patientSubscribers.forEach(this::requestResync);
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${clinic.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(subscriber -> sender.execute(() -> {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(subscriber);
+            }
+        }));
+    }
+
+    private void requestResync(Subscriber subscriber) {
+        subscriber.overflowed.set(true);
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.overflowed.getAndSet(false)) {
+                subscriber.emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+            }
+            Object event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event().name("appointment").data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Events offered after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty() || subscriber.overflowed.get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) != null) {
+            if (subscriber.doctorId != null) {
+                removeFrom(byDoctor, new Key(subscriber.clinicId, subscriber.doctorId), subscriber);
+            } else if (subscriber.patientId != null) {
+                removeFrom(byPatient, new Key(subscriber.clinicId, subscriber.patientId), subscriber);
+            } else {
+                removeFrom(unfiltered, subscriber.clinicId, subscriber);
+            }
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private Set<Subscriber> indexFor(Subscriber subscriber) {
+        if (subscriber.doctorId != null) {
+            return byDoctor.computeIfAbsent(new Key(subscriber.clinicId, subscriber.doctorId),
+                    key -> ConcurrentHashMap.newKeySet());
+        }
+        if (subscriber.patientId != null) {
+            return byPatient.computeIfAbsent(new Key(subscriber.clinicId, subscriber.patientId),
+                    key -> ConcurrentHashMap.newKeySet());
+        }
+        return unfiltered.computeIfAbsent(subscriber.clinicId, key -> ConcurrentHashMap.newKeySet());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdownNow();
+    }
+}
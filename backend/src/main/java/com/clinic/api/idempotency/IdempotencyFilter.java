@@ -0,0 +1,221 @@
+package com.clinic.api.idempotency;
+
+import com.clinic.api.idempotency.IdempotencyStore.Entry;
+import com.clinic.api.idempotency.IdempotencyStore.KeyInUseException;
+import com.clinic.api.idempotency.IdempotencyStore.StoredResponse;
+import com.clinic.api.security.TokenPrincipal;
+import com.clinic.api.sharding.ClinicContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes creation requests safe to retry. A POST carrying an Idempotency-Key header runs
+ * once; retries with the same key and body are answered with the stored response without
+ * reaching the controllers, and a retry that arrives while the first request is still
+ * running waits for its result. A retry that reaches another instance while the first is
+ * running gets 409 with Retry-After. Only responses a retry would repeat are stored; see
+ * {@link IdempotencyStore}.
+ * <p>
+ * Keys are scoped to the caller and the clinic as well as the endpoint, so two callers that
+ * happen to pick the same key never see each other's responses. Runs inside the security
+ * chain after authorization (see SecurityConfig); anonymous requests are not deduplicated.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    static final String KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final long waitTimeoutMillis;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${clinic.idempotency.paths:/api/appointments,/api/patients}") List<String> paths,
+                             @Value("${clinic.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.store = store;
+        this.paths = paths;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI())
+                || TokenPrincipal.current() == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = sha256(body);
+        String scope = TokenPrincipal.current().key() + ' ' + ClinicContext.get()
+                + ' ' + request.getMethod() + ' ' + request.getRequestURI();
+
+        Entry existing;
+        try {
+            existing = store.claim(scope, key, requestHash);
+        } catch (KeyInUseException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+            return;
+        } catch (IllegalStateException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+            return;
+        }
+        if (existing != null) {
+            replay(existing, requestHash, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), wrapped);
+            store.complete(scope, key, new StoredResponse(wrapped.getStatus(), wrapped.getContentType(),
+                    wrapped.getContentAsByteArray()));
+        } catch (IOException | ServletException | RuntimeException e) {
+            store.abandon(scope, key, e);
+            throw e;
+        } finally {
+            wrapped.copyBodyToResponse();
+        }
+    }
+
+    private void replay(Entry existing, String requestHash, HttpServletResponse response) throws IOException {
+        if (!existing.getRequestHash().equals(requestHash)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    KEY_HEADER + " was already used with a different request body");
+            return;
+        }
+        StoredResponse stored;
+        try {
+            stored = existing.getResponse().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + KEY_HEADER + " is still in progress");
+            return;
+        } catch (ExecutionException e) {
+            response.sendError(HttpStatus.CONFLICT.value(),
+                    "The original request with this " + KEY_HEADER + " failed; retry it");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Replays the body that was read for hashing
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.clinic.api.idempotency;
+
+import com.clinic.api.models.IdempotencyRecord;
+import com.clinic.api.repositories.IdempotencyRecordRepository;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses by idempotency key. Recent and in-flight keys are held in a bounded in-memory
+ * map; completed responses are also written to the idempotency_keys table so a retry that
+ * arrives after eviction, a restart or on another instance is still answered. The first
+ * request for a key owns it; concurrent duplicates on this instance get the owner's future
+ * and wait on it.
+ * <p>
+ * The owner also claims the key in the table before running, with a pending row that the
+ * unique constraint on (scope, key) allows only once. A duplicate that reaches another
+ * instance meanwhile finds the claim and is told to retry instead of running the request a
+ * second time. A claim left behind by a crashed instance lapses after the lease.
+ * <p>
+ * Only outcomes that a retry would repeat are kept: successes and client errors caused by
+ * the request itself. Anything else (401, 403, 409, 429, server errors) is released, so a
+ * later retry runs again.
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    // Status of a claimed row whose response is not written yet
+    private static final int PENDING = 0;
+    private static final Set<Integer> DETERMINISTIC_CLIENT_ERRORS = Set.of(400, 404, 405, 410, 413, 415, 422);
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * The key is claimed by a request still running on another instance.
+     */
+    public static class KeyInUseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        KeyInUseException(String key) {
+            super("A request with idempotency key " + key + " is in progress on another instance");
+        }
+    }
+
+    public static final class Entry {
+        private final String requestHash;
+        private final long expiresAtMillis;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        Entry(String requestHash, long expiresAtMillis) {
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getRequestHash() {
+            return requestHash;
+        }
+
+        public CompletableFuture<StoredResponse> getResponse() {
+            return response;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final ShardedQueryExecutor shards;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long leaseMillis;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, ShardedQueryExecutor shards,
+                            @Value("${clinic.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${clinic.idempotency.ttl-ms:86400000}") long ttlMillis,
+                            @Value("${clinic.idempotency.lease-ms:60000}") long leaseMillis) {
+        this.repository = repository;
+        this.shards = shards;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * True if a retry would get the same outcome, so the response may be replayed.
+     */
+    static boolean isReplayable(int status) {
+        return (status >= 200 && status < 300) || DETERMINISTIC_CLIENT_ERRORS.contains(status);
+    }
+
+    /**
+     * Claims the key for the caller. Returns null if the caller now owns the key and must
+     * finish with {@link #complete} or {@link #abandon}; otherwise returns the existing entry,
+     * whose response may still be pending. Throws {@link KeyInUseException} if another
+     * instance holds the key.
+     */
+    public Entry claim(String scope, String key, String requestHash) {
+        String mapKey = scope + '\n' + key;
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(mapKey);
+        if (entry != null) {
+            if (!entry.isExpired(now)) {
+                return entry;
+            }
+            entries.remove(mapKey, entry);
+        }
+
+        IdempotencyRecord record = repository.findByScopeAndIdempotencyKeyAndExpiresAtAfter(scope, key,
+                LocalDateTime.now()).orElse(null);
+        if (record != null && record.getStatusCode() == PENDING) {
+            // Either a request on this instance claimed it after the check above, or another instance holds it
+            Entry local = entries.get(mapKey);
+            if (local != null) {
+                return local;
+            }
+            throw new KeyInUseException(key);
+        }
+        if (record != null) {
+            Entry stored = fromRecord(record);
+            Entry previous = entries.putIfAbsent(mapKey, stored);
+            return previous != null ? previous : stored;
+        }
+
+        if (entries.size() >= maxEntries) {
+            evict(now);
+            if (entries.size() >= maxEntries) {
+                throw new IllegalStateException("Too many in-flight idempotency keys");
+            }
+        }
+        Entry owned = new Entry(requestHash, now + ttlMillis);
+        Entry previous = entries.putIfAbsent(mapKey, owned);
+        if (previous != null) {
+            return previous;
+        }
+        if (!claimShared(scope, key, requestHash)) {
+            entries.remove(mapKey, owned);
+            KeyInUseException inUse = new KeyInUseException(key);
+            owned.response.completeExceptionally(inUse);
+            throw inUse;
+        }
+        return null;
+    }
+
+    // Inserts the pending row; false if another instance claimed or completed the key first
+    private boolean claimShared(String scope, String key, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                repository.saveAndFlush(IdempotencyRecord.builder()
+                        .scope(scope)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .statusCode(PENDING)
+                        .expiresAt(LocalDateTime.now().plus(leaseMillis, ChronoUnit.MILLIS))
+                        .build());
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                // Either held by someone else, or an expired row the purge has not reached yet
+                if (repository.deleteExpired(scope, key, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the owner's response to waiting duplicates and stores it in the claimed row.
+     * A response that a retry might not repeat releases the key instead.
+     */
+    public void complete(String scope, String key, StoredResponse response) {
+        String mapKey = scope + '\n' + key;
+        Entry entry = entries.get(mapKey);
+        if (entry == null) {
+            return;
+        }
+        entry.response.complete(response);
+        if (!isReplayable(response.status())) {
+            entries.remove(mapKey, entry);
+            release(scope, key);
+            return;
+        }
+        int updated = repository.complete(scope, key, response.status(), response.contentType(), response.body(),
+                LocalDateTime.now().plus(ttlMillis, ChronoUnit.MILLIS));
+        if (updated == 0) {
+            // The lease ran out and the row was purged; the in-memory entry still answers here
+            log.warn("Idempotency claim on {} for {} lapsed before the response was stored", key, scope);
+        }
+    }
+
+    /**
+     * Releases a key whose request failed without a response; waiting duplicates fail too.
+     */
+    public void abandon(String scope, String key, Throwable cause) {
+        Entry entry = entries.remove(scope + '\n' + key);
+        if (entry != null) {
+            entry.response.completeExceptionally(cause);
+            release(scope, key);
+        }
+    }
+
+    private void release(String scope, String key) {
+        try {
+            repository.release(scope, key);
+        } catch (RuntimeException e) {
+            // The claim lapses on its own once the lease runs out
+            log.warn("Could not release idempotency key {} for {}", key, scope, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        evict(System.currentTimeMillis());
+        // Each shard keeps the keys of its own clinic
+        shards.forEachShard("Idempotency key purge", () -> {
+            int purged = repository.deleteExpired(LocalDateTime.now());
+            if (purged > 0) {
+                log.debug("Purged {} expired idempotency keys", purged);
+            }
+        });
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        // Completed responses are safe to drop: the table still answers for them
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.response.isDone() && entries.size() >= maxEntries * 9 / 10);
+        }
+    }
+
+    private Entry fromRecord(IdempotencyRecord record) {
+        long remaining = Duration.between(LocalDateTime.now(), record.getExpiresAt()).toMillis();
+        Entry entry = new Entry(record.getRequestHash(), System.currentTimeMillis() + Math.max(0, remaining));
+        entry.response.complete(new StoredResponse(record.getStatusCode(), record.getContentType(),
+                record.getResponseBody() == null ? new byte[0] : record.getResponseBody()));
+        return entry;
+    }
+}
@@ -1,5 +1,6 @@
 package com.clinic.api.models;
 
+import com.clinic.api.sharding.ClinicAssignmentListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
@@ -19,6 +20,7 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(ClinicAssignmentListener.class)
 public class Appointment {
 
     @Id
@@ -45,6 +47,10 @@ public class Appointment {
     @Column(nullable = false, length = 20)
     private Status status = Status.SCHEDULED;
 
+    // Shard key; filled from the clinic context when the row is first written
+    @Column(name = "clinic_id", length = 20)
+    private String clinicId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -82,6 +88,34 @@ public class Appointment {
         this.status = Status.RESCHEDULED;
     }
 
+    /**
+     * Checks that the appointment may move straight to the given status, as the end-of-day
+     * bulk update does. Rescheduling needs a new date and goes through {@link #reschedule}.
+     */
+    public void checkTransition(Status target) {
+        if (target == status) {
+            throw new IllegalStateException("Appointment is already " + status);
+        }
+        switch (target) {
+            case CANCELLED -> {
+                if (!isCancellable()) {
+                    throw new IllegalStateException(
+                            "Appointment cannot be cancelled. Either it's not scheduled or cancellation window has passed.");
+                }
+            }
+            case COMPLETED, NO_SHOW -> {
+                if (status != Status.SCHEDULED && status != Status.RESCHEDULED) {
+                    throw new IllegalStateException("Only scheduled appointments can be marked " + target);
+                }
+                if (appointmentDate.isAfter(LocalDateTime.now())) {
+                    throw new IllegalStateException("Appointment has not taken place yet");
+                }
+            }
+            default -> throw new IllegalStateException("Appointments cannot be moved to " + target +
+                    " in bulk; use reschedule instead");
+        }
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,77 @@
+package com.clinic.api.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "batch_checkpoints",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"job_name", "partition_key"}))
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "partition_key", nullable = false, length = 50)
+    private String partitionKey;
+
+    // Highest id whose chunk has been committed; the next chunk starts after it
+    @Column(name = "last_processed_id", nullable = false)
+    private Integer lastProcessedId;
+
+    @Column(name = "upper_id", nullable = false)
+    private Integer upperId;
+
+    // Cut-off of the run that owns this checkpoint, reused when resuming after a crash
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state = State.IN_PROGRESS;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum State {
+        IN_PROGRESS, COMPLETED
+    }
+
+    public boolean isCompleted() {
+        return state == State.COMPLETED;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        Class<?> oEffectiveClass = o instanceof HibernateProxy ?
+                ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy ?
+                ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) return false;
+        BatchCheckpoint that = (BatchCheckpoint) o;
+        return getId() != null && Objects.equals(getId(), that.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return getClass().hashCode();
+    }
+}
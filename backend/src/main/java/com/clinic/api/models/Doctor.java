@@ -1,8 +1,10 @@
 package com.clinic.api.models;
 
+import com.clinic.api.sharding.ClinicAssignmentListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.proxy.HibernateProxy;
@@ -18,6 +20,7 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(ClinicAssignmentListener.class)
 public class Doctor {
 
     @Id
@@ -53,6 +56,10 @@ public class Doctor {
     @Column(name = "license_number", unique = true, nullable = false, length = 50)
     private String licenseNumber;
 
+    // Shard key; filled from the clinic context when the row is first written
+    @Column(name = "clinic_id", length = 20)
+    private String clinicId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -61,6 +68,12 @@ public class Doctor {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped by every update; orders invalidations and cached copies across instances
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public enum Gender {
         MALE, FEMALE, OTHER, UNSPECIFIED
     }
@@ -3,6 +3,7 @@ package com.clinic.api.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -13,14 +14,15 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "medications")
+@Table(name = "medications", uniqueConstraints =
+        @UniqueConstraint(name = "uk_medications_name_dosage", columnNames = {"name", "dosage"}))
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@SQLDelete(sql = "UPDATE medications SET is_active = false WHERE id=?")
+@SQLDelete(sql = "UPDATE medications SET is_active = false, version = version + 1 WHERE id = ? AND version = ?")
 @Where(clause = "is_active=true")
 public class Medication {
 
@@ -63,6 +65,12 @@ public class Medication {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped by every update; orders invalidations and cached copies across instances
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public enum Form {
         TABLET, CAPSULE, LIQUID, INJECTION,
         TOPICAL, SUPPOSITORY, POWDER,
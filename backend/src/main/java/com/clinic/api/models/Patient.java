@@ -1,8 +1,11 @@
 package com.clinic.api.models;
 
+import com.clinic.api.sharding.ClinicAssignmentListener;
+import com.clinic.api.validation.Checks;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -22,7 +25,8 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@SQLDelete(sql = "UPDATE patients SET is_active = false WHERE id=?")
+@EntityListeners(ClinicAssignmentListener.class)
+@SQLDelete(sql = "UPDATE patients SET is_active = false, version = version + 1 WHERE id = ? AND version = ?")
 @Where(clause = "is_active=true")
 public class Patient {
 
@@ -43,7 +47,7 @@ public class Patient {
     @NotBlank(message = "Phone number is required")
     @Pattern(regexp = "^\\+?[0-9\\-\\s()]{10,20}$",
             message = "Invalid phone number format")
-    @Column(nullable = false, length = 20)
+    @Column(nullable = false, unique = true, length = 20)
     private String phone;
 
     @NotNull(message = "Date of birth is required")
@@ -81,6 +85,10 @@ public class Patient {
     @Column(name = "blood_type", length = 5)
     private String bloodType;
 
+    // Shard key; filled from the clinic context when the row is first written
+    @Column(name = "clinic_id", length = 20)
+    private String clinicId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -89,6 +97,12 @@ public class Patient {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped by every update; orders invalidations and cached copies across instances
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public enum Gender {
         MALE, FEMALE, OTHER, UNSPECIFIED
     }
@@ -134,7 +148,7 @@ public class Patient {
 
     public boolean hasValidEmergencyInfo() {
         return emergencyContact != null && !emergencyContact.isBlank() &&
-                emergencyPhone != null && emergencyPhone.matches("^\\+?[0-9\\-\\s()]{10,20}$");
+                Checks.matches(Checks.PATIENT_PHONE, emergencyPhone);
     }
 
     @Override
@@ -0,0 +1,89 @@
+package com.clinic.api.paging;
+
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.transaction.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Row counts for paged listings, so a page request does not have to run COUNT(*). Counts
+ * are kept per table and clinic, adjusted after each committed insert or removal, and
+ * recounted periodically to correct drift from writes made elsewhere.
+ */
+@Component
+public class CountCache {
+    private static final Logger log = LoggerFactory.getLogger(CountCache.class);
+
+    private final Map<String, LongSupplier> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Registers how to count a table exactly. Called once per table by the owning service.
+     */
+    public void register(String table, LongSupplier exactCount) {
+        counters.put(table, exactCount);
+    }
+
+    /**
+     * Returns the cached count, counting once if this table and clinic have not been seen yet.
+     */
+    public long approximate(String table) {
+        AtomicLong count = counts.get(key(table, ClinicContext.get()));
+        return count != null ? Math.max(0, count.get()) : exact(table);
+    }
+
+    /**
+     * Counts now and stores the result.
+     */
+    public long exact(String table) {
+        long count = counterFor(table).getAsLong();
+        counts.computeIfAbsent(key(table, ClinicContext.get()), k -> new AtomicLong()).set(count);
+        return count;
+    }
+
+    /**
+     * Adjusts the cached count once the current transaction commits.
+     */
+    public void adjust(String table, long delta) {
+        String key = key(table, ClinicContext.get());
+        Runnable apply = () -> {
+            AtomicLong count = counts.get(key);
+            if (count != null) {
+                count.addAndGet(delta);
+            }
+        };
+        AfterCommit.run(apply);
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.paging.count-refresh-ms:300000}")
+    public void refresh() {
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            String[] parts = entry.getKey().split("@", 2);
+            String clinicId = parts[1].isEmpty() ? null : parts[1];
+            try {
+                entry.getValue().set(ClinicContext.callIn(clinicId, () -> counterFor(parts[0]).getAsLong()));
+            } catch (Exception e) {
+                log.warn("Could not refresh count of {} for clinic {}", parts[0], clinicId, e);
+            }
+        }
+    }
+
+    private LongSupplier counterFor(String table) {
+        LongSupplier counter = counters.get(table);
+        if (counter == null) {
+            throw new IllegalArgumentException("No count registered for " + table);
+        }
+        return counter;
+    }
+
+    private static String key(String table, String clinicId) {
+        return table + '@' + (clinicId == null ? "" : clinicId);
+    }
+}
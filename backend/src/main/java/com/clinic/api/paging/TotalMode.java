@@ -0,0 +1,13 @@
+package com.clinic.api.paging;
+
+/**
+ * How a sliced listing reports its total: counted now, taken from the count cache, or
+ * left out entirely.
+ */
+public enum TotalMode {
+    EXACT, APPROX, NONE;
+
+    public static TotalMode parse(String value) {
+        return value == null ? APPROX : valueOf(value.trim().toUpperCase());
+    }
+}
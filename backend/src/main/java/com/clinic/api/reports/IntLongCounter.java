@@ -0,0 +1,109 @@
+package com.clinic.api.reports;
+
+/**
+ * Open-addressing int to long map for counting by entity id without boxing. Keys must be
+ * non-zero (database ids are); zero marks an empty slot. Not thread-safe: each partition
+ * owns its counters and they are merged after the partitions join.
+ */
+public final class IntLongCounter {
+
+    /** Visits one key and its count. */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(int key, long value);
+    }
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    public IntLongCounter() {
+        this(64);
+    }
+
+    public IntLongCounter(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new long[capacity];
+    }
+
+    public void add(int key, long delta) {
+        int slot = slotOf(key, keys);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+            if (size * 4 > keys.length * 3) {
+                values[slot] = delta;
+                grow();
+                return;
+            }
+        }
+        values[slot] += delta;
+    }
+
+    public void increment(int key) {
+        add(key, 1);
+    }
+
+    /** Stores the value only if the key is absent; used for per-key attributes rather than counts. */
+    public void putIfAbsent(int key, long value) {
+        if (!containsKey(key)) {
+            add(key, value);
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return keys[slotOf(key, keys)] == key;
+    }
+
+    public long get(int key) {
+        int slot = slotOf(key, keys);
+        return keys[slot] == key ? values[slot] : 0L;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /** Adds every count of the other counter into this one. */
+    public void addAll(IntLongCounter other) {
+        other.forEach(this::add);
+    }
+
+    /** Copies entries of the other counter whose keys are not present here. */
+    public void putAllAbsent(IntLongCounter other) {
+        other.forEach(this::putIfAbsent);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slotOf(int key, int[] table) {
+        int mask = table.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (table[slot] != 0 && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,67 @@
+package com.clinic.api.reports;
+
+import com.clinic.api.dto.MonthlyReport;
+import com.clinic.api.dto.MonthlyReport.DoctorLine;
+import com.clinic.api.dto.MonthlyReport.MedicationLine;
+
+import java.util.Map;
+
+/**
+ * Renders a monthly report as CSV, one "section,key,..." block per breakdown so the whole
+ * report fits in a single sheet.
+ */
+public final class MonthlyReportCsvWriter {
+
+    private MonthlyReportCsvWriter() {
+    }
+
+    public static String write(MonthlyReport report) {
+        StringBuilder csv = new StringBuilder(4096);
+        csv.append("section,key,value\n");
+        row(csv, "summary", "month", report.getMonth());
+        row(csv, "summary", "clinic", report.getClinicId());
+        row(csv, "summary", "appointments", report.getTotalAppointments());
+        row(csv, "summary", "distinctPatients", report.getDistinctPatients());
+        section(csv, "status", report.getAppointmentsByStatus());
+        section(csv, "specialization", report.getAppointmentsBySpecialization());
+        section(csv, "gender", report.getPatientsByGender());
+        section(csv, "ageBand", report.getPatientsByAgeBand());
+
+        csv.append("\nsection,doctorId,doctorName,specialization,appointments,completed\n");
+        for (DoctorLine line : report.getAppointmentsByDoctor()) {
+            csv.append("doctor,").append(line.getDoctorId()).append(',')
+                    .append(escape(line.getDoctorName())).append(',')
+                    .append(escape(line.getSpecialization())).append(',')
+                    .append(line.getAppointments()).append(',')
+                    .append(line.getCompleted()).append('\n');
+        }
+
+        csv.append("\nsection,medicationId,name,dosage,prescriptions\n");
+        for (MedicationLine line : report.getMedicationUsage()) {
+            csv.append("medication,").append(line.getMedicationId()).append(',')
+                    .append(escape(line.getName())).append(',')
+                    .append(escape(line.getDosage())).append(',')
+                    .append(line.getPrescriptions()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static void section(StringBuilder csv, String section, Map<String, Long> counts) {
+        counts.forEach((key, value) -> row(csv, section, key, value));
+    }
+
+    private static void row(StringBuilder csv, String section, String key, Object value) {
+        csv.append(section).append(',').append(escape(key)).append(',')
+                .append(value == null ? "" : escape(value.toString())).append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
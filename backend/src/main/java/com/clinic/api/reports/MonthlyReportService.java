@@ -0,0 +1,218 @@
+package com.clinic.api.reports;
+
+import com.clinic.api.dto.MonthlyReport;
+import com.clinic.api.dto.MonthlyReport.DoctorLine;
+import com.clinic.api.dto.MonthlyReport.MedicationLine;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.models.Patient.Gender;
+import com.clinic.api.sharding.ClinicContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the monthly management report without loading whole tables. The month is split
+ * into date partitions that are aggregated in parallel on a fork/join pool; each partition
+ * streams its appointment and prescription rows into primitive id-keyed counters, so memory
+ * grows with the number of distinct doctors, patients and medications, not with rows.
+ * Every running leaf holds a connection, so the pool is kept to half the connection pool.
+ */
+@Service
+public class MonthlyReportService {
+    private static final Logger log = LoggerFactory.getLogger(MonthlyReportService.class);
+    private static final String[] AGE_BAND_LABELS = {"0-17", "18-34", "35-49", "50-64", "65+"};
+
+    private static final String APPOINTMENT_ROWS =
+            "SELECT a.status, a.doctor_id, a.patient_id, p.gender, p.date_of_birth " +
+            "FROM appointments a JOIN patients p ON p.id = a.patient_id " +
+            "WHERE a.appointment_date >= ? AND a.appointment_date < ?";
+    private static final String PRESCRIPTION_ROWS =
+            "SELECT pi.medication_id FROM prescription_items pi " +
+            "JOIN prescriptions pr ON pi.prescription_id = pr.id " +
+            "WHERE pr.created_at >= ? AND pr.created_at < ?";
+
+    private final JdbcTemplate streaming;
+    private final ForkJoinPool pool;
+    private final int partitionDays;
+
+    public MonthlyReportService(JdbcTemplate jdbcTemplate,
+                                @Value("${clinic.reports.parallelism:0}") int parallelism,
+                                @Value("${clinic.reports.partition-days:1}") int partitionDays,
+                                @Value("${clinic.reports.fetch-size:1000}") int fetchSize,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        // Own template so the fetch size does not leak into other queries
+        this.streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streaming.setFetchSize(fetchSize);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(Math.max(1, Math.min(threads, connectionPoolSize / 2)));
+        this.partitionDays = Math.max(1, partitionDays);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public MonthlyReport generate(YearMonth month) {
+        long started = System.nanoTime();
+        String clinicId = ClinicContext.get();
+        LocalDate from = month.atDay(1);
+        ReportPartition totals = pool.invoke(new PartitionTask(clinicId, from, month.plusMonths(1).atDay(1), from));
+        log.info("Monthly report {} built from {} rows in {} ms on {} threads", month, totals.rows,
+                (System.nanoTime() - started) / 1_000_000, pool.getParallelism());
+        return render(month, clinicId, totals);
+    }
+
+    private MonthlyReport render(YearMonth month, String clinicId, ReportPartition totals) {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Status status : Status.values()) {
+            byStatus.put(status.name(), totals.byStatus[status.ordinal()]);
+        }
+
+        // Reference data is small and read once per report
+        Map<Integer, String[]> doctors = new HashMap<>();
+        Map<Integer, String[]> medications = new HashMap<>();
+        try {
+            ClinicContext.callIn(clinicId, () -> {
+                streaming.query("SELECT id, name, specialization FROM doctors", (ResultSet rs) -> {
+                    doctors.put(rs.getInt(1), new String[]{rs.getString(2), rs.getString(3)});
+                });
+                streaming.query("SELECT id, name, dosage FROM medications", (ResultSet rs) -> {
+                    medications.put(rs.getInt(1), new String[]{rs.getString(2), rs.getString(3)});
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load report reference data", e);
+        }
+
+        List<DoctorLine> byDoctor = new ArrayList<>(totals.byDoctor.size());
+        Map<String, Long> bySpecialization = new TreeMap<>();
+        totals.byDoctor.forEach((doctorId, count) -> {
+            String[] doctor = doctors.getOrDefault(doctorId, new String[]{null, "UNKNOWN"});
+            byDoctor.add(new DoctorLine(doctorId, doctor[0], doctor[1], count, totals.completedByDoctor.get(doctorId)));
+            bySpecialization.merge(doctor[1], count, Long::sum);
+        });
+        byDoctor.sort(Comparator.comparingLong(DoctorLine::getAppointments).reversed());
+
+        long[] genders = new long[Gender.values().length];
+        long[] ageBands = new long[AGE_BAND_LABELS.length];
+        totals.patientProfile.forEach((patientId, profile) -> {
+            genders[(int) (profile / ReportPartition.AGE_BANDS)]++;
+            ageBands[(int) (profile % ReportPartition.AGE_BANDS)]++;
+        });
+        Map<String, Long> byGender = new LinkedHashMap<>();
+        for (Gender gender : Gender.values()) {
+            byGender.put(gender.name(), genders[gender.ordinal()]);
+        }
+        Map<String, Long> byAgeBand = new LinkedHashMap<>();
+        for (int i = 0; i < AGE_BAND_LABELS.length; i++) {
+            byAgeBand.put(AGE_BAND_LABELS[i], ageBands[i]);
+        }
+
+        List<MedicationLine> medicationUsage = new ArrayList<>(totals.prescriptionsByMedication.size());
+        totals.prescriptionsByMedication.forEach((medicationId, count) -> {
+            String[] medication = medications.getOrDefault(medicationId, new String[2]);
+            medicationUsage.add(new MedicationLine(medicationId, medication[0], medication[1], count));
+        });
+        medicationUsage.sort(Comparator.comparingLong(MedicationLine::getPrescriptions).reversed());
+
+        return new MonthlyReport(month, clinicId, LocalDateTime.now(), totals.appointments,
+                totals.visitsByPatient.size(), byStatus, byDoctor, bySpecialization, byGender, byAgeBand,
+                medicationUsage);
+    }
+
+    /**
+     * Aggregates [from, to). Ranges longer than the partition size are halved and the halves
+     * run as separate tasks; leaves stream their rows from the database.
+     */
+    private final class PartitionTask extends RecursiveTask<ReportPartition> {
+        private static final long serialVersionUID = 1L;
+
+        private final String clinicId;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final LocalDate ageReference;
+
+        PartitionTask(String clinicId, LocalDate from, LocalDate to, LocalDate ageReference) {
+            this.clinicId = clinicId;
+            this.from = from;
+            this.to = to;
+            this.ageReference = ageReference;
+        }
+
+        @Override
+        protected ReportPartition compute() {
+            long days = ChronoUnit.DAYS.between(from, to);
+            if (days > partitionDays) {
+                LocalDate middle = from.plusDays(days / 2);
+                PartitionTask left = new PartitionTask(clinicId, from, middle, ageReference);
+                PartitionTask right = new PartitionTask(clinicId, middle, to, ageReference);
+                left.fork();
+                ReportPartition merged = right.compute();
+                return merged.merge(left.join());
+            }
+            try {
+                return ClinicContext.callIn(clinicId, this::aggregate);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Report partition " + from + " failed", e);
+            }
+        }
+
+        private ReportPartition aggregate() {
+            ReportPartition partition = new ReportPartition();
+            Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+            Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+            int completed = Status.COMPLETED.ordinal();
+
+            streaming.query(APPOINTMENT_ROWS, (ResultSet rs) -> {
+                int status = Status.valueOf(rs.getString(1)).ordinal();
+                int doctorId = rs.getInt(2);
+                int patientId = rs.getInt(3);
+                partition.rows++;
+                partition.appointments++;
+                partition.byStatus[status]++;
+                partition.byDoctor.increment(doctorId);
+                if (status == completed) {
+                    partition.completedByDoctor.increment(doctorId);
+                }
+                partition.visitsByPatient.increment(patientId);
+                if (!partition.patientProfile.containsKey(patientId)) {
+                    partition.patientProfile.add(patientId, profileOf(rs));
+                }
+            }, start, end);
+
+            streaming.query(PRESCRIPTION_ROWS, (ResultSet rs) -> {
+                partition.rows++;
+                partition.prescriptionsByMedication.increment(rs.getInt(1));
+            }, start, end);
+            return partition;
+        }
+
+        private long profileOf(ResultSet rs) throws SQLException {
+            String gender = rs.getString(4);
+            Date dateOfBirth = rs.getDate(5);
+            int genderOrdinal = gender == null ? Gender.UNSPECIFIED.ordinal() : Gender.valueOf(gender).ordinal();
+            int age = dateOfBirth == null ? 0
+                    : (int) ChronoUnit.YEARS.between(dateOfBirth.toLocalDate(), ageReference);
+            return ReportPartition.profile(genderOrdinal, ReportPartition.ageBand(age));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.clinic.api.reports;
+
+import com.clinic.api.models.Appointment.Status;
+
+/**
+ * Counts gathered from one date partition of the month. Partitions are filled
+ * independently and merged pairwise as the fork/join tasks complete.
+ */
+final class ReportPartition {
+    static final int AGE_BANDS = 5;
+
+    final long[] byStatus = new long[Status.values().length];
+    final IntLongCounter byDoctor = new IntLongCounter(256);
+    final IntLongCounter completedByDoctor = new IntLongCounter(256);
+    // Patient id -> visits, and patient id -> packed (gender ordinal, age band)
+    final IntLongCounter visitsByPatient = new IntLongCounter(1024);
+    final IntLongCounter patientProfile = new IntLongCounter(1024);
+    final IntLongCounter prescriptionsByMedication = new IntLongCounter(256);
+    long appointments;
+    long rows;
+
+    static long profile(int genderOrdinal, int ageBand) {
+        return (long) genderOrdinal * AGE_BANDS + ageBand;
+    }
+
+    static int ageBand(int age) {
+        if (age < 18) return 0;
+        if (age < 35) return 1;
+        if (age < 50) return 2;
+        if (age < 65) return 3;
+        return 4;
+    }
+
+    ReportPartition merge(ReportPartition other) {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] += other.byStatus[i];
+        }
+        byDoctor.addAll(other.byDoctor);
+        completedByDoctor.addAll(other.completedByDoctor);
+        visitsByPatient.addAll(other.visitsByPatient);
+        patientProfile.putAllAbsent(other.patientProfile);
+        prescriptionsByMedication.addAll(other.prescriptionsByMedication);
+        appointments += other.appointments;
+        rows += other.rows;
+        return this;
+    }
+}
@@ -2,12 +2,16 @@ package com.clinic.api.repositories;
 
 import com.clinic.api.models.Appointment;
 import com.clinic.api.models.Appointment.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -58,4 +62,51 @@ public interface AppointmentRepository extends JpaRepository<Appointment,Integer
     List<Object[]> findCompletedAppointmentsByDoctor(@Param("start") LocalDate start,
                                                      @Param("end") LocalDate end);
 
+    // A page of a patient's history with doctors fetched in the same query; Slice avoids the COUNT
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor WHERE a.patient.id = :patientId " +
+            "ORDER BY a.appointmentDate DESC, a.id DESC")
+    Slice<Appointment> findHistoryWithDoctor(@Param("patientId") Integer patientId, Pageable pageable);
+
+    // Non-cancelled bookings of a doctor or a patient in a window: [doctorId, patientId, appointmentDate]
+    @Query("SELECT a.doctor.id, a.patient.id, a.appointmentDate FROM Appointment a " +
+            "WHERE (a.doctor.id = :doctorId OR a.patient.id = :patientId) " +
+            "AND a.appointmentDate BETWEEN :start AND :end " +
+            "AND a.status <> com.clinic.api.models.Appointment.Status.CANCELLED")
+    List<Object[]> findBookedSlots(@Param("doctorId") Integer doctorId,
+                                   @Param("patientId") Integer patientId,
+                                   @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+
+    // Id range per doctor of past appointments still in one of the given states: [doctorId, minId, maxId]
+    @Query("SELECT a.doctor.id, MIN(a.id), MAX(a.id) FROM Appointment a " +
+            "WHERE a.status IN :statuses AND a.appointmentDate < :cutoff " +
+            "GROUP BY a.doctor.id")
+    List<Object[]> findPendingIdRangesByDoctor(@Param("statuses") Collection<Status> statuses,
+                                               @Param("cutoff") LocalDateTime cutoff);
+
+    // Next pending ids of one doctor after a keyset position, in id order (served by the doctor_id index)
+    @Query("SELECT a.id FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.id > :afterId AND a.id <= :upperId " +
+            "AND a.status IN :statuses AND a.appointmentDate < :cutoff " +
+            "ORDER BY a.id")
+    List<Integer> findPendingIdsByDoctor(@Param("doctorId") Integer doctorId,
+                                         @Param("afterId") Integer afterId,
+                                         @Param("upperId") Integer upperId,
+                                         @Param("statuses") Collection<Status> statuses,
+                                         @Param("cutoff") LocalDateTime cutoff,
+                                         Pageable pageable);
+
+    // Set-based status transition for one doctor's id range
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :target, a.updatedAt = :now " +
+            "WHERE a.doctor.id = :doctorId AND a.id BETWEEN :fromId AND :toId " +
+            "AND a.status IN :statuses AND a.appointmentDate < :cutoff")
+    int transitionStatusInRange(@Param("doctorId") Integer doctorId,
+                                @Param("fromId") Integer fromId,
+                                @Param("toId") Integer toId,
+                                @Param("statuses") Collection<Status> statuses,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                @Param("target") Status target,
+                                @Param("now") LocalDateTime now);
+
 }
@@ -0,0 +1,23 @@
+package com.clinic.api.repositories;
+
+import com.clinic.api.models.BatchCheckpoint;
+import com.clinic.api.models.BatchCheckpoint.State;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, Integer> {
+    // Find all partitions of a job
+    List<BatchCheckpoint> findByJobName(String jobName);
+
+    // Check whether a previous run of the job was interrupted
+    boolean existsByJobNameAndState(String jobName, State state);
+
+    // Forget the partitions of a finished run
+    @Modifying
+    @Query("DELETE FROM BatchCheckpoint c WHERE c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
@@ -26,6 +26,10 @@ public interface DoctorRepository extends JpaRepository<Doctor,Integer> {
     // Find doctors by license number
     Optional<Doctor> findByLicenseNumber(String licenseNumber);
 
+    boolean existsByEmail(String email);
+
+    boolean existsByLicenseNumber(String licenseNumber);
+
     // Count doctors by specialization
     long countBySpecialization(Specialization specialization);
 
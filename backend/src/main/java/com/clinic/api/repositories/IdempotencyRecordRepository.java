@@ -0,0 +1,44 @@
+package com.clinic.api.repositories;
+
+import com.clinic.api.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Integer> {
+    // Find a stored response that has not expired yet
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKeyAndExpiresAtAfter(
+            String scope, String idempotencyKey, LocalDateTime now);
+
+    // Purge expired keys
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // Purge one expired key, e.g. a claim whose owner never finished
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key AND r.expiresAt < :now")
+    int deleteExpired(@Param("scope") String scope, @Param("key") String key, @Param("now") LocalDateTime now);
+
+    // Store the response of a claimed key
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :status, r.contentType = :contentType, " +
+            "r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.scope = :scope AND r.idempotencyKey = :key")
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Drop a claim so the key can be used again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.scope = :scope AND r.idempotencyKey = :key")
+    int release(@Param("scope") String scope, @Param("key") String key);
+}
@@ -2,6 +2,8 @@ package com.clinic.api.repositories;
 
 import com.clinic.api.models.Medication;
 import com.clinic.api.models.Medication.Form;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,6 +17,9 @@ public interface MedicationRepository extends JpaRepository<Medication, Integer>
     // Find active medications
     List<Medication> findByIsActiveTrue();
 
+    // One page plus a look-ahead row, without counting the table
+    Slice<Medication> findSliceBy(Pageable pageable);
+
     // Find medications by form (tablet, liquid, etc.)
     List<Medication> findByForm(Form form);
 
@@ -40,6 +45,10 @@ public interface MedicationRepository extends JpaRepository<Medication, Integer>
     // Check if medication exists by name and dosage
     boolean existsByNameAndDosage(String name, String dosage);
 
+    // Native, so deactivated medications count too: uk_medications_name_dosage covers them
+    @Query(value = "SELECT COUNT(*) FROM medications WHERE name = :name AND dosage = :dosage", nativeQuery = true)
+    long countAllByNameAndDosage(@Param("name") String name, @Param("dosage") String dosage);
+
     // Find medications with low stock
     @Query("SELECT m FROM Medication m WHERE m.stockQuantity < m.reorderLevel")
     List<Medication> findMedicationsBelowReorderLevel();
@@ -60,4 +69,12 @@ public interface MedicationRepository extends JpaRepository<Medication, Integer>
             nativeQuery = true)
     List<Medication> findFrequentlyCoPrescribedMedications(
             @Param("medicationId") Integer medicationId);
+
+    // Active medications on any of the patient's prescriptions
+    @Query(value = "SELECT DISTINCT m.* FROM medications m " +
+            "JOIN prescription_items pi ON m.id = pi.medication_id " +
+            "JOIN prescriptions p ON pi.prescription_id = p.id " +
+            "WHERE p.patient_id = :patientId AND m.is_active = true",
+            nativeQuery = true)
+    List<Medication> findActiveMedicationsForPatient(@Param("patientId") Integer patientId);
 }
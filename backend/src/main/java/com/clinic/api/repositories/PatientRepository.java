@@ -4,6 +4,7 @@ import com.clinic.api.models.Patient;
 import com.clinic.api.models.Patient.Gender;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +25,9 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
     // Find active patients
     List<Patient> findByIsActiveTrue();
 
+    // One page plus a look-ahead row, without counting the table
+    Slice<Patient> findSliceBy(Pageable pageable);
+
     // Find patients born between dates
     List<Patient> findByDateOfBirthBetween(LocalDate startDate, LocalDate endDate);
 
@@ -57,6 +61,17 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
     // Check if patient exists by email or phone
     boolean existsByEmailOrPhone(String email, String phone);
 
+    boolean existsByEmail(String email);
+
+    boolean existsByPhone(String phone);
+
+    // Native, so deactivated patients count too: the unique constraints on email and phone cover them
+    @Query(value = "SELECT COUNT(*) FROM patients WHERE email = :email", nativeQuery = true)
+    long countAllByEmail(@Param("email") String email);
+
+    @Query(value = "SELECT COUNT(*) FROM patients WHERE phone = :phone", nativeQuery = true)
+    long countAllByPhone(@Param("phone") String phone);
+
     // Find patients with specific medication allergies
     @Query("SELECT p FROM Patient p JOIN p.allergies a " +
             "WHERE LOWER(a) LIKE LOWER(CONCAT('%', :allergy, '%'))")
@@ -0,0 +1,11 @@
+package com.clinic.api.repositories;
+
+import com.clinic.api.models.UserAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface UserAccountRepository extends JpaRepository<UserAccount, Integer> {
+    // Login lookup; emails are matched case-insensitively
+    Optional<UserAccount> findByEmailIgnoreCaseAndIsActiveTrue(String email);
+}
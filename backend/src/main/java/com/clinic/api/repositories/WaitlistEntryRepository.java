@@ -0,0 +1,22 @@
+package com.clinic.api.repositories;
+
+import com.clinic.api.models.WaitlistEntry;
+import com.clinic.api.models.WaitlistEntry.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Integer> {
+    // Find waitlist entries of a patient
+    List<WaitlistEntry> findByPatientId(Integer patientId);
+
+    // Active entries whose window has not ended, for rebuilding the in-memory index: [entry, patientId, doctorId]
+    @Query("SELECT w, w.patient.id, d.id FROM WaitlistEntry w LEFT JOIN w.doctor d " +
+            "WHERE w.status = com.clinic.api.models.WaitlistEntry.Status.ACTIVE AND w.windowEnd > :now")
+    List<Object[]> findActiveWithIds(@Param("now") LocalDateTime now);
+
+    long countByStatus(Status status);
+}
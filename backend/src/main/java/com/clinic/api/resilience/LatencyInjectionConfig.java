@@ -0,0 +1,70 @@
+package com.clinic.api.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Simulates a stalled database for exercising {@link ResilientReads} locally: every
+ * connection request waits clinic.resilience.inject-latency-ms before reaching the pool.
+ * Never enable outside development.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "clinic.resilience.inject-latency-ms")
+public class LatencyInjectionConfig {
+    private static final Logger log = LoggerFactory.getLogger(LatencyInjectionConfig.class);
+
+    @Bean
+    public static BeanPostProcessor latencyInjectingDataSourcePostProcessor(Environment environment) {
+        long latencyMillis = environment.getProperty("clinic.resilience.inject-latency-ms", Long.class, 0L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latencyMillis <= 0 || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                log.warn("Injecting {} ms of latency into data source '{}'", latencyMillis, beanName);
+                return new SlowDataSource(dataSource, latencyMillis);
+            }
+        };
+    }
+
+    private static final class SlowDataSource extends DelegatingDataSource {
+        private final long latencyMillis;
+
+        SlowDataSource(DataSource target, long latencyMillis) {
+            super(target);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            pause();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            pause();
+            return super.getConnection(username, password);
+        }
+
+        private void pause() throws SQLException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for injected latency", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.clinic.api.resilience;
+
+import com.clinic.api.sharding.ClinicContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Guards read queries against a stalled database. Each call runs on a bounded pool with a
+ * time limit, behind a circuit breaker per query type. Successful results are kept as the
+ * last known good value; when a call times out, fails or is refused by an open breaker,
+ * that value is served instead and the response is marked stale, and a background
+ * refresh replaces it once the breaker lets a trial call through again. Breakers and
+ * cached values are kept per clinic.
+ */
+@Component
+public class ResilientReads {
+    private static final Logger log = LoggerFactory.getLogger(ResilientReads.class);
+    static final String STALE_SINCE_ATTRIBUTE = ResilientReads.class.getName() + ".staleSince";
+
+    private record KnownGood(Object value, long loadedAtMillis) {
+    }
+
+    private final long timeoutMillis;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxEntries;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, KnownGood> lastKnownGood = new ConcurrentHashMap<>();
+
+    private final Counter timeouts;
+    private final Counter failures;
+    private final Counter staleServed;
+
+    public ResilientReads(MeterRegistry meterRegistry,
+                          @Value("${clinic.resilience.timeout-ms:2000}") long timeoutMillis,
+                          @Value("${clinic.resilience.failure-threshold:5}") int failureThreshold,
+                          @Value("${clinic.resilience.open-ms:10000}") long openMillis,
+                          @Value("${clinic.resilience.threads:16}") int threads,
+                          @Value("${clinic.resilience.queue-size:200}") int queueSize,
+                          @Value("${clinic.resilience.max-entries:5000}") int maxEntries) {
+        this.timeoutMillis = timeoutMillis;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.maxEntries = maxEntries;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "resilient-read-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeouts = meterRegistry.counter("clinic.resilience.calls", "result", "timeout");
+        this.failures = meterRegistry.counter("clinic.resilience.calls", "result", "failure");
+        this.staleServed = meterRegistry.counter("clinic.resilience.calls", "result", "stale");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the query with a time limit, falling back to its last known good result. Throws
+     * 503 if the query fails and there is nothing to fall back to.
+     * <p>
+     * The loader runs on a worker thread, so a transaction of the caller would not cover it and
+     * would only pin a connection while the caller waits. Callers therefore do not open one
+     * ({@code @Transactional(propagation = SUPPORTS, readOnly = true)}); the repository call
+     * in the loader runs in its own.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String query, Supplier<T> loader, Object... args) {
+        String clinicId = ClinicContext.get();
+        // Shards fail independently and must never see each other's cached rows
+        String breakerKey = clinicId + '|' + query;
+        String key = args.length == 0 ? breakerKey : breakerKey + Arrays.deepToString(args);
+        CircuitBreaker breaker = breakers.computeIfAbsent(breakerKey,
+                q -> new CircuitBreaker(failureThreshold, openNanos));
+
+        if (!breaker.tryAcquire()) {
+            return (T) fallback(query, key, null);
+        }
+        if (breaker.getState() == CircuitBreaker.State.HALF_OPEN && lastKnownGood.containsKey(key)) {
+            // Let the trial call run in the background; this caller gets the cached result now
+            refreshInBackground(query, key, clinicId, breaker, loader);
+            return (T) fallback(query, key, null);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> ClinicContext.callIn(clinicId, loader::get));
+        } catch (RejectedExecutionException e) {
+            breaker.onFailure();
+            return (T) fallback(query, key, e);
+        }
+        try {
+            T value = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            remember(key, value);
+            return value;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            breaker.onFailure();
+            return (T) fallback(query, key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (!isDatabaseFailure(cause)) {
+                // The database answered; errors such as not-found belong to the caller
+                breaker.onSuccess();
+                throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+            }
+            breaker.onFailure();
+            failures.increment();
+            return (T) fallback(query, key, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            breaker.onFailure();
+            return (T) fallback(query, key, e);
+        }
+    }
+
+    /**
+     * Drops the clinic's last known good results of queries whose name starts with the
+     * prefix, so a row changed elsewhere is not served from before the change.
+     */
+    public void forget(String clinicId, String queryPrefix) {
+        String keyPrefix = clinicId + '|' + queryPrefix;
+        lastKnownGood.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private Object fallback(String query, String key, Throwable cause) {
+        KnownGood known = lastKnownGood.get(key);
+        if (known == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Database is not responding and no cached result is available", cause);
+        }
+        if (cause != null) {
+            log.warn("{} failed ({}); serving result from {} ms ago", query, cause.toString(),
+                    System.currentTimeMillis() - known.loadedAtMillis());
+        }
+        staleServed.increment();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object previous = request.getAttribute(STALE_SINCE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            long since = previous instanceof Long oldest ? Math.min(oldest, known.loadedAtMillis()) : known.loadedAtMillis();
+            request.setAttribute(STALE_SINCE_ATTRIBUTE, since, RequestAttributes.SCOPE_REQUEST);
+        }
+        return known.value();
+    }
+
+    // Runs the breaker's trial call off the request thread; the caller holds the trial permit
+    private void refreshInBackground(String query, String key, String clinicId, CircuitBreaker breaker,
+                                     Supplier<?> loader) {
+        try {
+            executor.submit(() -> {
+                try {
+                    Object value = ClinicContext.callIn(clinicId, loader::get);
+                    breaker.onSuccess();
+                    remember(key, value);
+                    log.info("{} recovered; cached result refreshed", query);
+                } catch (Exception e) {
+                    breaker.onFailure();
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            breaker.onFailure();
+        }
+    }
+
+    private static boolean isDatabaseFailure(Throwable cause) {
+        return cause instanceof DataAccessException || cause instanceof TransactionException
+                || cause instanceof SQLException;
+    }
+
+    private void remember(String key, Object value) {
+        if (lastKnownGood.size() >= maxEntries && !lastKnownGood.containsKey(key)) {
+            // Forget the oldest half rather than tracking access order on every read
+            long cutoff = lastKnownGood.values().stream().mapToLong(KnownGood::loadedAtMillis).sorted()
+                    .skip(maxEntries / 2).findFirst().orElse(Long.MAX_VALUE);
+            lastKnownGood.values().removeIf(known -> known.loadedAtMillis() < cutoff);
+        }
+        lastKnownGood.put(key, new KnownGood(value, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.clinic.api.resilience;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks responses built from a cached result that {@link ResilientReads} served because the
+ * database did not answer in time, so clients can tell the data may be out of date.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+    static final String STALE_HEADER = "X-Data-Stale";
+    static final String AGE_HEADER = "X-Data-Age-Seconds";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(ResilientReads.STALE_SINCE_ATTRIBUTE) instanceof Long since) {
+            long ageSeconds = Math.max(0, (System.currentTimeMillis() - since) / 1000);
+            response.getHeaders().set(STALE_HEADER, "true");
+            response.getHeaders().set(AGE_HEADER, Long.toString(ageSeconds));
+            response.getHeaders().set("Warning", "110 - \"Response is Stale\"");
+        }
+        return body;
+    }
+}
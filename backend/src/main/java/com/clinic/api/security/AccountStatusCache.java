@@ -0,0 +1,59 @@
+package com.clinic.api.security;
+
+import com.clinic.api.models.UserAccount;
+import com.clinic.api.repositories.UserAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether an account may still use its tokens. Tokens are otherwise valid until they
+ * expire, so a deactivated account is shut out once its cached status is older than
+ * clinic.security.account-check-ms; each account costs at most one primary-key lookup per
+ * interval, not one per request.
+ */
+@Component
+public class AccountStatusCache {
+
+    private record Status(boolean active, long checkedAtMillis) {
+    }
+
+    private final UserAccountRepository userAccountRepository;
+    private final long checkIntervalMillis;
+    private final int maxEntries;
+    private final Map<Integer, Status> statuses = new ConcurrentHashMap<>();
+
+    public AccountStatusCache(UserAccountRepository userAccountRepository,
+                              @Value("${clinic.security.account-check-ms:30000}") long checkIntervalMillis,
+                              @Value("${clinic.security.max-cached-accounts:10000}") int maxEntries) {
+        this.userAccountRepository = userAccountRepository;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isActive(int userId) {
+        long now = System.currentTimeMillis();
+        Status cached = statuses.get(userId);
+        if (cached != null && now - cached.checkedAtMillis() < checkIntervalMillis) {
+            return cached.active();
+        }
+        boolean active = userAccountRepository.findById(userId)
+                .map(UserAccount::getIsActive)
+                .orElse(false);
+        if (statuses.size() >= maxEntries) {
+            statuses.values().removeIf(status -> now - status.checkedAtMillis() >= checkIntervalMillis);
+            if (statuses.size() >= maxEntries) {
+                return active;
+            }
+        }
+        statuses.put(userId, new Status(active, now));
+        return active;
+    }
+
+    // Called when an account changes on this instance, so the change applies at once here
+    public void evict(int userId) {
+        statuses.remove(userId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.clinic.api.security;
+
+import com.clinic.api.models.UserAccount;
+import com.clinic.api.models.UserAccount.Role;
+import com.clinic.api.repositories.UserAccountRepository;
+import com.clinic.api.security.TokenService.IssuedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Password login. This is the only authentication step that touches the database; the
+ * token it returns is verified locally on every later request.
+ */
+@Service
+@Transactional
+public class AuthService {
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private final UserAccountRepository userAccountRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TokenService tokenService;
+    private final String bootstrapAdminEmail;
+    private final String bootstrapAdminPassword;
+    // Compared against when the email is unknown, so both cases take as long
+    private final String dummyHash;
+
+    public AuthService(UserAccountRepository userAccountRepository, PasswordEncoder passwordEncoder,
+                       TokenService tokenService,
+                       @Value("${clinic.security.bootstrap-admin.email:}") String bootstrapAdminEmail,
+                       @Value("${clinic.security.bootstrap-admin.password:}") String bootstrapAdminPassword) {
+        this.userAccountRepository = userAccountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.tokenService = tokenService;
+        this.bootstrapAdminEmail = bootstrapAdminEmail;
+        this.bootstrapAdminPassword = bootstrapAdminPassword;
+        this.dummyHash = passwordEncoder.encode("not-a-real-password");
+    }
+
+    @Transactional(readOnly = true)
+    public IssuedToken login(String email, String password) {
+        Optional<UserAccount> account = userAccountRepository.findByEmailIgnoreCaseAndIsActiveTrue(email.trim());
+        boolean matches = passwordEncoder.matches(password, account.map(UserAccount::getPasswordHash).orElse(dummyHash));
+        if (account.isEmpty() || !matches) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
+        return tokenService.issue(account.get());
+    }
+
+    // Creates the first administrator on an empty database, if one is configured
+    @EventListener(ApplicationReadyEvent.class)
+    public void createBootstrapAdmin() {
+        if (bootstrapAdminEmail.isBlank() || bootstrapAdminPassword.isBlank() || userAccountRepository.count() > 0) {
+            return;
+        }
+        userAccountRepository.save(UserAccount.builder()
+                .email(bootstrapAdminEmail.trim())
+                .passwordHash(passwordEncoder.encode(bootstrapAdminPassword))
+                .role(Role.ADMIN)
+                .build());
+        log.info("Created bootstrap administrator {}", bootstrapAdminEmail);
+    }
+}
@@ -0,0 +1,79 @@
+package com.clinic.api.security;
+
+import com.clinic.api.admission.AdmissionControlFilter;
+import com.clinic.api.idempotency.IdempotencyFilter;
+import com.clinic.api.sharding.ClinicContextFilter;
+import jakarta.servlet.Filter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Stateless API security: no session, no CSRF token, no login form. Every /api request
+ * except login must carry a bearer token; pages, static files, actuator health and the API
+ * docs stay open. Role checks are made with @PreAuthorize on the controllers.
+ * <p>
+ * Admission control, clinic binding and idempotency act on behalf of the caller, so they
+ * run inside this chain after authorization rather than as servlet filters in front of it
+ * (see {@link SecurityFilterRegistrations}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableWebSecurity
+@EnableMethodSecurity
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain apiSecurity(HttpSecurity http, TokenService tokenService,
+                                           AccountStatusCache accountStatus,
+                                           ObjectProvider<AdmissionControlFilter> admissionControl,
+                                           ObjectProvider<ClinicContextFilter> clinicContext,
+                                           ObjectProvider<IdempotencyFilter> idempotency) throws Exception {
+        http.csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // The feed takes its token in the URL; keep it out of Referer headers
+                .headers(headers -> headers.referrerPolicy(referrer -> referrer.policy(ReferrerPolicy.NO_REFERRER)))
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
+                        .requestMatchers("/api/**").authenticated()
+                        .anyRequest().permitAll())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, accountStatus),
+                        UsernamePasswordAuthenticationFilter.class);
+
+        // In this order: shed load first, then bind the clinic that idempotency records belong to
+        Class<? extends Filter> previous = AuthorizationFilter.class;
+        for (Filter filter : Stream.of(admissionControl.getIfAvailable(), clinicContext.getIfAvailable(),
+                idempotency.getIfAvailable()).filter(Objects::nonNull).toList()) {
+            http.addFilterAfter(filter, previous);
+            previous = filter.getClass();
+        }
+        return http.build();
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
+}
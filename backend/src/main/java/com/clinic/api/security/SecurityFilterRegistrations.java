@@ -0,0 +1,39 @@
+package com.clinic.api.security;
+
+import com.clinic.api.admission.AdmissionControlFilter;
+import com.clinic.api.idempotency.IdempotencyFilter;
+import com.clinic.api.sharding.ClinicContextFilter;
+import jakarta.servlet.Filter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot registers every Filter bean with the servlet container, which would run these
+ * a second time, in front of the security chain and before the caller is known. They are
+ * added to the chain by {@link SecurityConfig} instead.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecurityFilterRegistrations {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlRegistration(AdmissionControlFilter filter) {
+        return disabled(filter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ClinicContextFilter> clinicContextRegistration(ClinicContextFilter filter) {
+        return disabled(filter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyRegistration(IdempotencyFilter filter) {
+        return disabled(filter);
+    }
+
+    private static <T extends Filter> FilterRegistrationBean<T> disabled(T filter) {
+        FilterRegistrationBean<T> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,100 @@
+package com.clinic.api.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying a bearer token. Requests without one pass through
+ * unauthenticated and are left to the authorization rules; a token that fails
+ * verification, or whose account has been deactivated, is answered with 401 straight away.
+ * <p>
+ * Browsers cannot set headers on EventSource, so a GET of the appointment feed, and
+ * nothing else, also accepts the token as the access_token query parameter. Query strings
+ * end up in access logs and proxies; the access log pattern in application.properties
+ * leaves them out, and the token is never logged here.
+ * <p>
+ * Registered only inside the security filter chain, hence not a component.
+ */
+class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+    private static final String FEED_PATH = "/api/appointments/feed";
+
+    private static final String TOKEN_PARAMETER = "access_token=";
+
+    private final TokenService tokenService;
+    private final AccountStatusCache accountStatus;
+
+    TokenAuthenticationFilter(TokenService tokenService, AccountStatusCache accountStatus) {
+        this.tokenService = tokenService;
+        this.accountStatus = accountStatus;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String token = tokenOf(request);
+        if (token == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Authentication authentication = tokenService.authenticate(token);
+        if (authentication == null) {
+            rejectToken(response, "Invalid or expired token");
+            return;
+        }
+        if (authentication.getPrincipal() instanceof TokenPrincipal principal
+                && !accountStatus.isActive(principal.userId())) {
+            rejectToken(response, "Account is disabled");
+            return;
+        }
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void rejectToken(HttpServletResponse response, String message) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        response.sendError(HttpStatus.UNAUTHORIZED.value(), message);
+    }
+
+    private static String tokenOf(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            String token = header.substring(BEARER.length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+        if ("GET".equals(request.getMethod()) && FEED_PATH.equals(request.getRequestURI())) {
+            return queryToken(request.getQueryString());
+        }
+        return null;
+    }
+
+    // Read from the raw query string only, never from a form body
+    private static String queryToken(String query) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(TOKEN_PARAMETER) && pair.length() > TOKEN_PARAMETER.length()) {
+                // Base64url and dots need no decoding
+                return pair.substring(TOKEN_PARAMETER.length());
+            }
+        }
+        return null;
+    }
+}
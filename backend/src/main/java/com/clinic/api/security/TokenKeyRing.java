@@ -0,0 +1,104 @@
+package com.clinic.api.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * HMAC signing keys by key id. Keys come from a properties file that is re-read when it
+ * changes, so keys rotate without a restart:
+ * <pre>
+ * active=2026-10
+ * key.2026-09=&lt;base64, at least 32 bytes&gt;
+ * key.2026-10=&lt;base64, at least 32 bytes&gt;
+ * </pre>
+ * New tokens are signed with the active key; tokens signed with any listed key stay valid.
+ * To rotate, add a key and make it active, then remove the old key once its tokens expire.
+ * Without a key file a random key is generated, and tokens do not survive a restart.
+ */
+@Component
+public class TokenKeyRing {
+    private static final Logger log = LoggerFactory.getLogger(TokenKeyRing.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    record Keys(String activeKid, Map<String, SecretKeySpec> byKid, long version) {
+        SecretKeySpec active() {
+            return byKid.get(activeKid);
+        }
+    }
+
+    private final Path keyFile;
+    private volatile Keys keys;
+    private volatile long loadedModified = Long.MIN_VALUE;
+
+    public TokenKeyRing(@Value("${clinic.security.key-file:}") String keyFile) throws IOException {
+        this.keyFile = keyFile.isBlank() ? null : Path.of(keyFile);
+        if (this.keyFile == null) {
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            keys = new Keys("ephemeral", Map.of("ephemeral", new SecretKeySpec(secret, ALGORITHM)), 0);
+            log.warn("No clinic.security.key-file set; signing tokens with a random key that is lost on restart");
+        } else {
+            reload();
+        }
+    }
+
+    Keys current() {
+        return keys;
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.security.key-reload-ms:30000}")
+    public void reloadIfChanged() {
+        if (keyFile == null) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(keyFile).toMillis() != loadedModified) {
+                reload();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep signing with the keys we have rather than locking everyone out
+            log.error("Could not reload token keys from {}; keeping the current keys", keyFile, e);
+        }
+    }
+
+    private synchronized void reload() throws IOException {
+        long modified = Files.getLastModifiedTime(keyFile).toMillis();
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(keyFile)) {
+            properties.load(in);
+        }
+        Map<String, SecretKeySpec> byKid = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("key.")) {
+                byte[] secret = Base64.getDecoder().decode(properties.getProperty(name).trim());
+                if (secret.length < MIN_KEY_BYTES) {
+                    throw new IllegalArgumentException("Key " + name + " is shorter than " + MIN_KEY_BYTES + " bytes");
+                }
+                byKid.put(name.substring("key.".length()), new SecretKeySpec(secret, ALGORITHM));
+            }
+        }
+        String activeKid = properties.getProperty("active", "").trim();
+        if (!byKid.containsKey(activeKid)) {
+            throw new IllegalArgumentException("Active key '" + activeKid + "' is not listed in " + keyFile);
+        }
+        long version = keys == null ? 1 : keys.version() + 1;
+        keys = new Keys(activeKid, Map.copyOf(byKid), version);
+        loadedModified = modified;
+        log.info("Loaded {} token keys from {}; signing with '{}'", byKid.size(), keyFile, activeKid);
+    }
+}
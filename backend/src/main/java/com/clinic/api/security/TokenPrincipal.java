@@ -0,0 +1,33 @@
+package com.clinic.api.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * The caller behind a verified token. clinicId is the clinic the account is bound to, or
+ * null for accounts that may act for any clinic.
+ */
+public record TokenPrincipal(String email, int userId, String clinicId) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    // The caller of the current request, or null when it is anonymous
+    public static TokenPrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof TokenPrincipal principal
+                ? principal : null;
+    }
+
+    /**
+     * Key under which per-caller state (rate limits, idempotency records) is kept; the user
+     * id rather than the email, so it survives an email change.
+     */
+    public String key() {
+        return "user:" + userId;
+    }
+}
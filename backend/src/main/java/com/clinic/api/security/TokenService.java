@@ -0,0 +1,210 @@
+package com.clinic.api.security;
+
+import com.clinic.api.models.UserAccount;
+import com.clinic.api.security.TokenKeyRing.Keys;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and verifies HS256 JSON Web Tokens. Verification is local: a signature check
+ * against the key ring and a few claim checks, no database. Verified tokens are cached with
+ * the Authentication built from them, so a repeated token costs one map lookup; entries
+ * expire with their token and are re-verified after a key change.
+ */
+@Service
+public class TokenService {
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    private record Verified(Authentication authentication, long expiresAtMillis, long keyVersion) {
+    }
+
+    private final TokenKeyRing keyRing;
+    private final ObjectMapper objectMapper;
+    private final String issuer;
+    private final long ttlMillis;
+    private final long clockSkewMillis;
+    private final int maxCachedTokens;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    private final Timer cacheHits;
+    private final Timer cacheMisses;
+    private final Timer rejected;
+
+    public TokenService(TokenKeyRing keyRing, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                        @Value("${clinic.security.issuer:clinic-api}") String issuer,
+                        @Value("${clinic.security.token-ttl-ms:3600000}") long ttlMillis,
+                        @Value("${clinic.security.clock-skew-ms:30000}") long clockSkewMillis,
+                        @Value("${clinic.security.max-cached-tokens:10000}") int maxCachedTokens) {
+        this.keyRing = keyRing;
+        this.objectMapper = objectMapper;
+        this.issuer = issuer;
+        this.ttlMillis = ttlMillis;
+        this.clockSkewMillis = clockSkewMillis;
+        this.maxCachedTokens = maxCachedTokens;
+        this.cacheHits = meterRegistry.timer("clinic.security.authentication", "result", "cached");
+        this.cacheMisses = meterRegistry.timer("clinic.security.authentication", "result", "verified");
+        this.rejected = meterRegistry.timer("clinic.security.authentication", "result", "rejected");
+    }
+
+    public IssuedToken issue(UserAccount account) {
+        Keys keys = keyRing.current();
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(ttlMillis);
+
+        ObjectNode header = objectMapper.createObjectNode()
+                .put("alg", "HS256")
+                .put("typ", "JWT")
+                .put("kid", keys.activeKid());
+        ObjectNode claims = objectMapper.createObjectNode()
+                .put("iss", issuer)
+                .put("sub", account.getEmail())
+                .put("uid", account.getId())
+                .put("iat", now.getEpochSecond())
+                .put("exp", expiresAt.getEpochSecond());
+        if (account.getClinicId() != null) {
+            claims.put("clinic", account.getClinicId());
+        }
+        claims.putArray("roles").add(account.getRole().name());
+
+        String signingInput = encode(header) + '.' + encode(claims);
+        String signature = BASE64URL.encodeToString(sign(keys.active(), signingInput));
+        return new IssuedToken(signingInput + '.' + signature, expiresAt);
+    }
+
+    /**
+     * Returns the authentication for a valid token, or null if the token is malformed,
+     * wrongly signed, expired or from another issuer.
+     */
+    public Authentication authenticate(String token) {
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long keyVersion = keyRing.current().version();
+        Verified cached = verified.get(token);
+        if (cached != null && cached.expiresAtMillis() > now && cached.keyVersion() == keyVersion) {
+            cacheHits.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return cached.authentication();
+        }
+
+        Verified fresh = verify(token, now);
+        if (fresh == null) {
+            if (cached != null) {
+                verified.remove(token, cached);
+            }
+            rejected.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        remember(token, fresh, now);
+        cacheMisses.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return fresh.authentication();
+    }
+
+    private Verified verify(String token, long now) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || lastDot == token.length() - 1) {
+            return null;
+        }
+        try {
+            Keys keys = keyRing.current();
+            JsonNode header = decode(token.substring(0, firstDot));
+            if (!"HS256".equals(header.path("alg").asText())) {
+                return null;
+            }
+            SecretKeySpec key = keys.byKid().get(header.path("kid").asText());
+            if (key == null) {
+                return null;
+            }
+            byte[] expected = sign(key, token.substring(0, lastDot));
+            byte[] actual = BASE64URL_DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            JsonNode claims = decode(token.substring(firstDot + 1, lastDot));
+            long expiresAtMillis = claims.path("exp").asLong() * 1000;
+            if (expiresAtMillis + clockSkewMillis <= now || !issuer.equals(claims.path("iss").asText())
+                    || claims.path("sub").asText().isEmpty() || !claims.path("uid").canConvertToInt()) {
+                return null;
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (JsonNode role : claims.path("roles")) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.asText()));
+            }
+            TokenPrincipal principal = new TokenPrincipal(claims.path("sub").asText(), claims.path("uid").asInt(),
+                    claims.hasNonNull("clinic") ? claims.path("clinic").asText() : null);
+            Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, null, List.copyOf(authorities));
+            return new Verified(authentication, expiresAtMillis + clockSkewMillis, keys.version());
+        } catch (IOException | IllegalArgumentException e) {
+            // Bad base64 or JSON
+            return null;
+        }
+    }
+
+    private void remember(String token, Verified entry, long now) {
+        if (verified.size() >= maxCachedTokens) {
+            verified.values().removeIf(cached -> cached.expiresAtMillis() <= now);
+            if (verified.size() >= maxCachedTokens) {
+                // Full of live tokens: verification is still cheap, just not cached
+                return;
+            }
+        }
+        verified.put(token, entry);
+    }
+
+    private String encode(JsonNode node) {
+        try {
+            return BASE64URL.encodeToString(objectMapper.writeValueAsBytes(node));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode decode(String part) throws IOException {
+        return objectMapper.readTree(BASE64URL_DECODER.decode(part));
+    }
+
+    private static byte[] sign(SecretKeySpec key, String signingInput) {
+        Mac mac = HMAC.get();
+        try {
+            mac.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+}
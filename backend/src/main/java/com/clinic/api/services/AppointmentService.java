@@ -1,25 +1,65 @@
 package com.clinic.api.services;
 
+import com.clinic.api.audit.AuditLogWriter;
+import com.clinic.api.audit.AuditRecord;
+import com.clinic.api.dto.BulkStatusChangeResult;
+import com.clinic.api.dto.RecurringAppointmentRequest;
+import com.clinic.api.dto.RecurringSeriesResult;
+import com.clinic.api.dto.RecurringSeriesResult.Occurrence;
+import com.clinic.api.dto.RecurringSeriesResult.Outcome;
+import com.clinic.api.dto.StatusChangeRequest;
+import com.clinic.api.events.AppointmentChangedEvent;
+import com.clinic.api.events.AppointmentChangedEvent.ChangeType;
 import com.clinic.api.models.Appointment;
 import com.clinic.api.models.Appointment.Status;
 import com.clinic.api.repositories.AppointmentRepository;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.transaction.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 
 public class AppointmentService {
+    private static final long CONFLICT_WINDOW_MINUTES = 30;
+    private static final int MAX_BULK_CHANGES = 500;
+
     private final AppointmentRepository appointmentRepository;
+    private final SingleFlight singleFlight;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditLogWriter auditLogWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public AppointmentService(AppointmentRepository appointmentRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository, SingleFlight singleFlight,
+                              JdbcTemplate jdbcTemplate, AuditLogWriter auditLogWriter,
+                              ApplicationEventPublisher eventPublisher) {
         this.appointmentRepository = appointmentRepository;
+        this.singleFlight = singleFlight;
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditLogWriter = auditLogWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Appointment> getAllAppointments() {
@@ -30,11 +70,165 @@ public class AppointmentService {
         return appointmentRepository.findById(id);
     }
 
+    /**
+     * Runs the booking checks of {@link #createAppointment} without saving anything.
+     */
+    @Transactional(readOnly = true)
+    public void validateBooking(Appointment appointment) {
+        validateAppointmentTime(appointment.getAppointmentDate());
+        checkForConflicts(appointment);
+    }
+
     public Appointment createAppointment(Appointment appointment) {
         validateAppointmentTime(appointment.getAppointmentDate());
         checkForConflicts(appointment);
         appointment.setStatus(Status.SCHEDULED);
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(ChangeType.CREATED, saved));
+        return saved;
+    }
+
+    /**
+     * Books a recurring series. All occurrences are checked against one range query of the
+     * doctor's and patient's existing bookings, using binary searches over sorted slot times,
+     * and the bookable ones are inserted in a single JDBC batch. Unless the request allows a
+     * partial series, nothing is booked when any occurrence is rejected.
+     */
+    public RecurringSeriesResult createRecurringSeries(RecurringAppointmentRequest request) {
+        List<LocalDateTime> dates = expandRecurrence(request);
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("Recurrence rule produces no occurrences");
+        }
+
+        LocalDateTime first = dates.get(0);
+        LocalDateTime last = dates.get(dates.size() - 1);
+        List<Object[]> booked = appointmentRepository.findBookedSlots(request.getDoctorId(), request.getPatientId(),
+                first.minusMinutes(CONFLICT_WINDOW_MINUTES), last.plusMinutes(CONFLICT_WINDOW_MINUTES));
+
+        long[] doctorSlots = new long[booked.size()];
+        long[] patientSlots = new long[booked.size()];
+        int doctorCount = 0;
+        int patientCount = 0;
+        for (Object[] row : booked) {
+            long minute = epochMinute((LocalDateTime) row[2]);
+            if (request.getDoctorId().equals(row[0])) {
+                doctorSlots[doctorCount++] = minute;
+            }
+            if (request.getPatientId().equals(row[1])) {
+                patientSlots[patientCount++] = minute;
+            }
+        }
+        doctorSlots = Arrays.copyOf(doctorSlots, doctorCount);
+        patientSlots = Arrays.copyOf(patientSlots, patientCount);
+        Arrays.sort(doctorSlots);
+        Arrays.sort(patientSlots);
+
+        List<Occurrence> occurrences = new ArrayList<>(dates.size());
+        List<LocalDateTime> bookable = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            Occurrence occurrence = new Occurrence(date, Outcome.BOOKED, null);
+            try {
+                validateAppointmentTime(date);
+                long minute = epochMinute(date);
+                if (overlaps(patientSlots, minute)) {
+                    occurrence.setOutcome(Outcome.PATIENT_CONFLICT);
+                    occurrence.setReason("Patient has a conflicting appointment within 30 minutes");
+                } else if (overlaps(doctorSlots, minute)) {
+                    occurrence.setOutcome(Outcome.DOCTOR_CONFLICT);
+                    occurrence.setReason("Doctor has a conflicting appointment within 30 minutes");
+                } else {
+                    bookable.add(date);
+                }
+            } catch (IllegalArgumentException e) {
+                occurrence.setOutcome(Outcome.INVALID_TIME);
+                occurrence.setReason(e.getMessage());
+            }
+            occurrences.add(occurrence);
+        }
+
+        int rejected = occurrences.size() - bookable.size();
+        if (rejected > 0 && !request.isAllowPartial()) {
+            occurrences.stream()
+                    .filter(o -> o.getOutcome() == Outcome.BOOKED)
+                    .forEach(o -> o.setOutcome(Outcome.NOT_BOOKED));
+            return new RecurringSeriesResult(0, rejected, occurrences);
+        }
+
+        insertSeries(request.getPatientId(), request.getDoctorId(), bookable);
+        return new RecurringSeriesResult(bookable.size(), rejected, occurrences);
+    }
+
+    private List<LocalDateTime> expandRecurrence(RecurringAppointmentRequest request) {
+        int maxOccurrences = request.getCount() != null ? request.getCount() : 104;
+        LocalDateTime limit = request.getCount() == null && request.getUntil() != null
+                ? request.getUntil().plusDays(1).atStartOfDay()
+                : LocalDateTime.MAX;
+
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (int i = 0; i < maxOccurrences; i++) {
+            LocalDateTime date = request.getFirstOccurrence()
+                    .plus((long) i * request.getInterval(), request.getFrequency().getUnit());
+            if (!date.isBefore(limit)) {
+                break;
+            }
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private void insertSeries(Integer patientId, Integer doctorId, List<LocalDateTime> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // The batch bypasses ClinicAssignmentListener, so the shard key is set here
+        String clinicId = ClinicContext.get();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status, clinic_id, created_at, updated_at) " +
+                                "VALUES (?, ?, ?, ?, ?, ?, ?)", new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, patientId);
+                        ps.setInt(2, doctorId);
+                        ps.setTimestamp(3, Timestamp.valueOf(dates.get(i)));
+                        ps.setString(4, Status.SCHEDULED.name());
+                        ps.setString(5, clinicId);
+                        ps.setTimestamp(6, now);
+                        ps.setTimestamp(7, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return dates.size();
+                    }
+                }, keys);
+        // One event per occurrence, as a single booking would publish; the key column's name depends on the driver
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < dates.size(); i++) {
+            Integer appointmentId = i < generated.size() && !generated.get(i).isEmpty()
+                    ? ((Number) generated.get(i).values().iterator().next()).intValue()
+                    : null;
+            eventPublisher.publishEvent(new AppointmentChangedEvent(clinicId, ChangeType.CREATED, appointmentId,
+                    doctorId, patientId, dates.get(i), Status.SCHEDULED));
+        }
+        // JDBC batch inserts bypass Hibernate's entity events, so record the series explicitly once it commits
+        AuditRecord record = new AuditRecord(System.currentTimeMillis(), AuditRecord.Action.INSERT,
+                "Appointment", "series:patient:" + patientId + ":doctor:" + doctorId,
+                "{\"occurrences\":" + dates.size() + ",\"first\":\"" + dates.get(0) + "\"}");
+        AfterCommit.run(() -> auditLogWriter.append(record));
+    }
+
+    private static long epochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // True if any slot lies within the conflict window around the given minute
+    private static boolean overlaps(long[] sortedSlots, long minute) {
+        int index = Arrays.binarySearch(sortedSlots, minute - CONFLICT_WINDOW_MINUTES);
+        int insertion = index >= 0 ? index : -index - 1;
+        return insertion < sortedSlots.length && sortedSlots[insertion] <= minute + CONFLICT_WINDOW_MINUTES;
     }
 
     public Appointment updateAppointment(Integer id, Appointment appointmentDetails) {
@@ -50,11 +244,88 @@ public class AppointmentService {
             existingAppointment.setDoctor(appointmentDetails.getDoctor());
             existingAppointment.setStatus(appointmentDetails.getStatus());
 
-            return appointmentRepository.save(existingAppointment);
+            Appointment saved = appointmentRepository.save(existingAppointment);
+            eventPublisher.publishEvent(AppointmentChangedEvent.of(ChangeType.UPDATED, saved));
+            return saved;
         }
         throw new IllegalStateException("Cannot update a cancelled appointment");
     }
 
+    /**
+     * Applies a batch of status transitions. The affected rows are loaded with one query and
+     * checked against the appointment's transition rules in memory; the valid changes are
+     * written with one JDBC batch whose WHERE clause re-checks the old status, so a row
+     * changed concurrently is reported as a conflict instead of being overwritten.
+     */
+    public BulkStatusChangeResult bulkUpdateStatus(List<StatusChangeRequest> changes) {
+        if (changes.size() > MAX_BULK_CHANGES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_CHANGES + " changes per request");
+        }
+        Map<Integer, Appointment> appointments = appointmentRepository.findAllById(
+                        changes.stream().map(StatusChangeRequest::getId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+        List<BulkStatusChangeResult.Item> items = new ArrayList<>(changes.size());
+        List<BulkStatusChangeResult.Item> valid = new ArrayList<>(changes.size());
+        List<Appointment> validAppointments = new ArrayList<>(changes.size());
+        for (StatusChangeRequest change : changes) {
+            BulkStatusChangeResult.Item item = new BulkStatusChangeResult.Item(
+                    change.getId(), change.getStatus(), BulkStatusChangeResult.Outcome.UPDATED, null);
+            items.add(item);
+            Appointment appointment = appointments.get(change.getId());
+            if (appointment == null) {
+                item.setOutcome(BulkStatusChangeResult.Outcome.NOT_FOUND);
+                item.setMessage("Appointment not found with id: " + change.getId());
+                continue;
+            }
+            try {
+                appointment.checkTransition(change.getStatus());
+                valid.add(item);
+                validAppointments.add(appointment);
+            } catch (IllegalStateException e) {
+                item.setOutcome(BulkStatusChangeResult.Outcome.INVALID_TRANSITION);
+                item.setMessage(e.getMessage());
+            }
+        }
+        if (valid.isEmpty()) {
+            return new BulkStatusChangeResult(0, items);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            Appointment appointment = validAppointments.get(i);
+            batchArgs.add(new Object[]{valid.get(i).getStatus().name(), now, appointment.getId(),
+                    appointment.getStatus().name()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE appointments SET status = ?, updated_at = ? WHERE id = ? AND status = ?", batchArgs);
+
+        int updated = 0;
+        for (int i = 0; i < valid.size(); i++) {
+            BulkStatusChangeResult.Item item = valid.get(i);
+            Appointment appointment = validAppointments.get(i);
+            // Drivers that rewrite batches report SUCCESS_NO_INFO (-2) rather than a row count
+            if (counts[i] == 0) {
+                item.setOutcome(BulkStatusChangeResult.Outcome.CONFLICT);
+                item.setMessage("Appointment was changed concurrently");
+                continue;
+            }
+            updated++;
+            // JDBC batch updates bypass Hibernate's entity events; like those, only committed changes are audited
+            AuditRecord record = new AuditRecord(System.currentTimeMillis(), AuditRecord.Action.UPDATE,
+                    "Appointment", String.valueOf(appointment.getId()),
+                    "{\"status\":[\"" + appointment.getStatus() + "\",\"" + item.getStatus() + "\"]}");
+            AfterCommit.run(() -> auditLogWriter.append(record));
+            eventPublisher.publishEvent(new AppointmentChangedEvent(ClinicContext.get(),
+                    item.getStatus() == Status.CANCELLED ? ChangeType.CANCELLED : ChangeType.STATUS_CHANGED,
+                    appointment.getId(), appointment.getDoctor().getId(), appointment.getPatient().getId(),
+                    appointment.getAppointmentDate(), item.getStatus()));
+        }
+        return new BulkStatusChangeResult(updated, items);
+    }
+
     public void cancelAppointment(Integer id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
@@ -62,24 +333,46 @@ public class AppointmentService {
         if (appointment.getAppointmentDate().isAfter(LocalDateTime.now().plusHours(2))) {
             appointment.setStatus(Status.CANCELLED);
             appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(AppointmentChangedEvent.of(ChangeType.CANCELLED, appointment));
         } else {
             throw new IllegalStateException("Appointments can only be cancelled at least 2 hours in advance");
         }
     }
 
+    public Appointment rescheduleAppointment(Integer id, LocalDateTime newDateTime) {
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+
+        validateAppointmentTime(newDateTime);
+        // Checked against a transient copy so the pending date change is not flushed into the query
+        checkForConflicts(Appointment.builder()
+                .patient(appointment.getPatient())
+                .appointmentDate(newDateTime)
+                .build());
+
+        appointment.reschedule(newDateTime);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(ChangeType.RESCHEDULED, saved));
+        return saved;
+    }
+
     public void deleteAppointment(Integer id) {
-        if (!appointmentRepository.existsById(id)) {
-            throw new RuntimeException("Appointment not found with id: " + id);
-        }
-        appointmentRepository.deleteById(id);
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        appointmentRepository.delete(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(ChangeType.DELETED, appointment));
     }
 
     public List<Appointment> getAppointmentsByPatientId(Integer patientId) {
         return appointmentRepository.findByPatientId(patientId);
     }
 
+    // Coalesced: waiting callers must not hold a connection, so no transaction is opened here
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Appointment> getUpcomingAppointments() {
-        return appointmentRepository.findByAppointmentDateAfterAndStatus(LocalDateTime.now(), Status.SCHEDULED);
+        return singleFlight.execute("AppointmentService.getUpcomingAppointments",
+                () -> List.copyOf(appointmentRepository.findByAppointmentDateAfterAndStatus(
+                        LocalDateTime.now(), Status.SCHEDULED)));
     }
 
     public List<Appointment> getAppointmentsByDoctorAndDateRange(Integer doctorId, LocalDateTime start, LocalDateTime end) {
@@ -0,0 +1,53 @@
+package com.clinic.api.services;
+
+import com.clinic.api.dto.DoctorAppointmentCount;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.repositories.AppointmentRepository;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cross-clinic reports. Each query runs on every shard in parallel and the partial results
+ * are merged here; per-clinic numbers are kept so campuses can be compared.
+ */
+@Service
+public class ClinicReportService {
+    private final AppointmentRepository appointmentRepository;
+    private final ShardedQueryExecutor shardedQueryExecutor;
+
+    @Autowired
+    public ClinicReportService(AppointmentRepository appointmentRepository,
+                               ShardedQueryExecutor shardedQueryExecutor) {
+        this.appointmentRepository = appointmentRepository;
+        this.shardedQueryExecutor = shardedQueryExecutor;
+    }
+
+    public Map<String, Long> countCompletedAppointmentsByClinic() {
+        return shardedQueryExecutor.scatter(() -> appointmentRepository.countByStatus(Status.COMPLETED));
+    }
+
+    public long countCompletedAppointments() {
+        return countCompletedAppointmentsByClinic().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public List<DoctorAppointmentCount> findCompletedAppointmentsByDoctor(LocalDate start, LocalDate end) {
+        Map<String, List<Object[]>> perClinic = shardedQueryExecutor.scatter(
+                () -> appointmentRepository.findCompletedAppointmentsByDoctor(start, end));
+
+        List<DoctorAppointmentCount> merged = new ArrayList<>();
+        perClinic.forEach((clinicId, rows) -> {
+            for (Object[] row : rows) {
+                merged.add(new DoctorAppointmentCount(clinicId, (String) row[0], ((Number) row[1]).longValue()));
+            }
+        });
+        merged.sort(Comparator.comparingLong(DoctorAppointmentCount::getAppointments).reversed());
+        return merged;
+    }
+}
@@ -1,10 +1,20 @@
 package com.clinic.api.services;
 
+import com.clinic.api.cluster.CachedEntity;
+import com.clinic.api.cluster.InvalidationBus;
 import com.clinic.api.models.Doctor;
 import com.clinic.api.models.Doctor.Specialization;
 import com.clinic.api.repositories.DoctorRepository;
+import com.clinic.api.resilience.ResilientReads;
+import com.clinic.api.snapshot.DoctorSnapshot;
+import com.clinic.api.snapshot.SummarySnapshotService;
+import com.clinic.api.uniqueness.UniquenessGuard;
+import com.clinic.api.uniqueness.UniquenessGuard.Key;
+import com.clinic.api.validation.BulkValidationResult;
+import com.clinic.api.validation.DoctorValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -15,22 +25,53 @@ import java.util.Optional;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final SingleFlight singleFlight;
+    private final UniquenessGuard uniquenessGuard;
+    private final SummarySnapshotService snapshots;
+    private final DoctorValidator doctorValidator;
+    private final InvalidationBus invalidationBus;
+    private final ResilientReads resilientReads;
 
     @Autowired
-    public DoctorService(DoctorRepository doctorRepository) {
+    public DoctorService(DoctorRepository doctorRepository, SingleFlight singleFlight,
+                         UniquenessGuard uniquenessGuard, SummarySnapshotService snapshots,
+                         DoctorValidator doctorValidator, InvalidationBus invalidationBus,
+                         ResilientReads resilientReads) {
         this.doctorRepository = doctorRepository;
+        this.singleFlight = singleFlight;
+        this.uniquenessGuard = uniquenessGuard;
+        this.snapshots = snapshots;
+        this.doctorValidator = doctorValidator;
+        this.invalidationBus = invalidationBus;
+        this.resilientReads = resilientReads;
+        // Changes made on other instances must not resurface as a last known good result
+        invalidationBus.addListener((clinicId, entity, id, version) -> {
+            if (entity == CachedEntity.DOCTOR) {
+                resilientReads.forget(clinicId, "DoctorService.");
+            }
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Doctor> getAllDoctors() {
-        return doctorRepository.findAll();
+        return resilientReads.read("DoctorService.getAllDoctors", () -> List.copyOf(doctorRepository.findAll()));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Doctor> getActiveDoctors() {
-        return doctorRepository.findByIsActiveTrue();
+        return resilientReads.read("DoctorService.getActiveDoctors",
+                () -> List.copyOf(doctorRepository.findByIsActiveTrue()));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Doctor> getDoctorById(Integer id) {
-        return doctorRepository.findById(id);
+        return resilientReads.read("DoctorService.getDoctorById", () -> doctorRepository.findById(id), id);
+    }
+
+    // Served from the snapshot store; only a miss or a stale entry touches the database
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<DoctorSnapshot> getDoctorSummary(Integer id) {
+        return snapshots.getDoctor(id);
     }
 
     public Doctor getDoctorByEmail(String email) {
@@ -39,24 +80,36 @@ public class DoctorService {
     }
 
     public Doctor createDoctor(Doctor doctor) {
-        validateDoctor(doctor);
-        if (doctorRepository.existsByEmail(doctor.getEmail())) {
+        doctorValidator.check(doctor);
+        if (uniquenessGuard.exists(Key.DOCTOR_EMAIL, doctor.getEmail(),
+                () -> doctorRepository.existsByEmail(doctor.getEmail()))) {
             throw new BusinessException("Email already exists");
         }
         if (doctor.getLicenseNumber() != null &&
-                doctorRepository.existsByLicenseNumber(doctor.getLicenseNumber())) {
+                uniquenessGuard.exists(Key.DOCTOR_LICENSE, doctor.getLicenseNumber(),
+                        () -> doctorRepository.existsByLicenseNumber(doctor.getLicenseNumber()))) {
             throw new BusinessException("License number already exists");
         }
         doctor.setActive(true);
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        uniquenessGuard.record(Key.DOCTOR_EMAIL, saved.getEmail());
+        uniquenessGuard.record(Key.DOCTOR_LICENSE, saved.getLicenseNumber());
+        return saved;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkValidationResult validateDoctors(List<Doctor> doctors) {
+        return doctorValidator.validateAll(doctors);
     }
 
     public Doctor updateDoctor(Integer id, Doctor doctorDetails) {
+        doctorValidator.check(doctorDetails);
         Doctor existingDoctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
 
         if (!existingDoctor.getEmail().equals(doctorDetails.getEmail()) &&
-                doctorRepository.existsByEmail(doctorDetails.getEmail())) {
+                uniquenessGuard.exists(Key.DOCTOR_EMAIL, doctorDetails.getEmail(),
+                        () -> doctorRepository.existsByEmail(doctorDetails.getEmail()))) {
             throw new BusinessException("Email already exists");
         }
 
@@ -66,7 +119,12 @@ public class DoctorService {
         existingDoctor.setPhone(doctorDetails.getPhone());
         existingDoctor.setLicenseNumber(doctorDetails.getLicenseNumber());
 
-        return doctorRepository.save(existingDoctor);
+        Doctor saved = doctorRepository.save(existingDoctor);
+        uniquenessGuard.record(Key.DOCTOR_EMAIL, saved.getEmail());
+        uniquenessGuard.record(Key.DOCTOR_LICENSE, saved.getLicenseNumber());
+        snapshots.evictDoctor(id, saved::getVersion);
+        invalidationBus.publish(CachedEntity.DOCTOR, id, saved::getVersion);
+        return saved;
     }
 
     public void deactivateDoctor(Integer id) {
@@ -74,6 +132,8 @@ public class DoctorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
         doctor.setActive(false);
         doctorRepository.save(doctor);
+        snapshots.evictDoctor(id, doctor::getVersion);
+        invalidationBus.publish(CachedEntity.DOCTOR, id, doctor::getVersion);
     }
 
     public void deleteDoctor(Integer id) {
@@ -85,10 +145,18 @@ public class DoctorService {
         }
 
         doctorRepository.delete(doctor);
+        // The row is gone; any copy at or below its last version is stale
+        snapshots.evictDoctor(id, () -> doctor.getVersion() + 1);
+        invalidationBus.publish(CachedEntity.DOCTOR, id, () -> doctor.getVersion() + 1);
     }
 
+    // Coalesced: waiting callers must not hold a connection, so no transaction is opened here
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Doctor> getDoctorsBySpecialization(Specialization specialization) {
-        return doctorRepository.findBySpecialization(specialization);
+        return resilientReads.read("DoctorService.getDoctorsBySpecialization",
+                () -> singleFlight.execute("DoctorService.getDoctorsBySpecialization",
+                        () -> List.copyOf(doctorRepository.findBySpecialization(specialization)), specialization),
+                specialization);
     }
 
     public List<Doctor> searchDoctors(String name, Specialization specialization, Boolean isActive) {
@@ -102,16 +170,4 @@ public class DoctorService {
     private boolean hasUpcomingAppointments(Integer doctorId) {
         return doctorRepository.hasUpcomingAppointments(doctorId);
     }
-
-    private void validateDoctor(Doctor doctor) {
-        if (doctor.getName() == null || doctor.getName().trim().isEmpty()) {
-            throw new BusinessException("Doctor name is required");
-        }
-        if (doctor.getSpecialization() == null) {
-            throw new BusinessException("Specialization is required");
-        }
-        if (doctor.getEmail() == null || !doctor.getEmail().contains("@")) {
-            throw new BusinessException("Valid email is required");
-        }
-    }
 }
\ No newline at end of file
@@ -1,10 +1,25 @@
 package com.clinic.api.services;
 
+import com.clinic.api.cluster.CachedEntity;
+import com.clinic.api.cluster.InvalidationBus;
+import com.clinic.api.dto.SliceResponse;
 import com.clinic.api.models.Medication;
 import com.clinic.api.models.Medication.Form;
+import com.clinic.api.paging.CountCache;
+import com.clinic.api.paging.TotalMode;
 import com.clinic.api.repositories.MedicationRepository;
+import com.clinic.api.resilience.ResilientReads;
+import com.clinic.api.uniqueness.UniquenessGuard;
+import com.clinic.api.uniqueness.UniquenessGuard.Key;
+import com.clinic.api.validation.BulkValidationResult;
+import com.clinic.api.validation.MedicationValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -14,23 +29,69 @@ import java.util.Optional;
 @Transactional
 
 public class MedicationService {
+    private static final String COUNT_KEY = "medications";
+
     private final MedicationRepository medicationRepository;
+    private final SingleFlight singleFlight;
+    private final UniquenessGuard uniquenessGuard;
+    private final MedicationValidator medicationValidator;
+    private final CountCache countCache;
+    private final InvalidationBus invalidationBus;
+    private final ResilientReads resilientReads;
 
     @Autowired
-    public MedicationService(MedicationRepository medicationRepository) {
+    public MedicationService(MedicationRepository medicationRepository, SingleFlight singleFlight,
+                             UniquenessGuard uniquenessGuard, MedicationValidator medicationValidator,
+                             CountCache countCache, InvalidationBus invalidationBus,
+                             ResilientReads resilientReads) {
         this.medicationRepository = medicationRepository;
+        this.singleFlight = singleFlight;
+        this.uniquenessGuard = uniquenessGuard;
+        this.medicationValidator = medicationValidator;
+        this.countCache = countCache;
+        this.invalidationBus = invalidationBus;
+        this.resilientReads = resilientReads;
+        countCache.register(COUNT_KEY, medicationRepository::count);
+        // Changes made on other instances must not resurface as a last known good result
+        invalidationBus.addListener((clinicId, entity, id, version) -> {
+            if (entity == CachedEntity.MEDICATION) {
+                resilientReads.forget(clinicId, "MedicationService.");
+            }
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Medication> getAllMedications() {
-        return medicationRepository.findAll();
+        return resilientReads.read("MedicationService.getAllMedications",
+                () -> List.copyOf(medicationRepository.findAll()));
+    }
+
+    @Transactional(readOnly = true)
+    public SliceResponse<Medication> getMedicationSlice(int page, int size, TotalMode totalMode) {
+        Slice<Medication> slice = medicationRepository.findSliceBy(PageRequest.of(page, size, Sort.by("id")));
+        Long total = null;
+        if (totalMode != TotalMode.NONE) {
+            if (!slice.hasNext() && (page == 0 || slice.hasContent())) {
+                // The last page already tells the exact total
+                total = (long) page * size + slice.getNumberOfElements();
+            } else {
+                total = totalMode == TotalMode.EXACT ? countCache.exact(COUNT_KEY) : countCache.approximate(COUNT_KEY);
+            }
+        }
+        return SliceResponse.of(slice, totalMode, total);
     }
 
+    // Coalesced: waiting callers must not hold a connection, so no transaction is opened here
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Medication> getActiveMedications() {
-        return medicationRepository.findByIsActiveTrue();
+        return resilientReads.read("MedicationService.getActiveMedications",
+                () -> singleFlight.execute("MedicationService.getActiveMedications",
+                        () -> List.copyOf(medicationRepository.findByIsActiveTrue())));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Medication> getMedicationById(Integer id) {
-        return medicationRepository.findById(id);
+        return resilientReads.read("MedicationService.getMedicationById", () -> medicationRepository.findById(id), id);
     }
 
     public Medication getMedicationByNameAndDosage(String name, String dosage) {
@@ -39,25 +100,39 @@ public class MedicationService {
                         "Medication not found with name: " + name + " and dosage: " + dosage));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkValidationResult validateMedications(List<Medication> medications) {
+        return medicationValidator.validateAll(medications);
+    }
+
     public Medication createMedication(Medication medication) {
-        validateMedication(medication);
+        medicationValidator.check(medication);
 
-        if (medicationRepository.existsByNameAndDosage(medication.getName(), medication.getDosage())) {
+        if (uniquenessGuard.exists(Key.MEDICATION_NAME_DOSAGE,
+                UniquenessGuard.nameAndDosage(medication.getName(), medication.getDosage()),
+                () -> medicationRepository.countAllByNameAndDosage(medication.getName(), medication.getDosage()) > 0)) {
             throw new BusinessException("Medication with this name and dosage already exists");
         }
 
         medication.setActive(true);
-        return medicationRepository.save(medication);
+        Medication saved = saveUnique(medication);
+        uniquenessGuard.record(Key.MEDICATION_NAME_DOSAGE,
+                UniquenessGuard.nameAndDosage(saved.getName(), saved.getDosage()));
+        countCache.adjust(COUNT_KEY, 1);
+        return saved;
     }
 
     public Medication updateMedication(Integer id, Medication medicationDetails) {
+        medicationValidator.check(medicationDetails);
         Medication existingMedication = medicationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medication not found with id: " + id));
 
         if (!existingMedication.getName().equals(medicationDetails.getName()) ||
                 !existingMedication.getDosage().equals(medicationDetails.getDosage())) {
-            if (medicationRepository.existsByNameAndDosage(
-                    medicationDetails.getName(), medicationDetails.getDosage())) {
+            if (uniquenessGuard.exists(Key.MEDICATION_NAME_DOSAGE,
+                    UniquenessGuard.nameAndDosage(medicationDetails.getName(), medicationDetails.getDosage()),
+                    () -> medicationRepository.countAllByNameAndDosage(
+                            medicationDetails.getName(), medicationDetails.getDosage()) > 0)) {
                 throw new BusinessException("Medication with this name and dosage already exists");
             }
         }
@@ -68,7 +143,11 @@ public class MedicationService {
         existingMedication.setInstructions(medicationDetails.getInstructions());
         existingMedication.setCategory(medicationDetails.getCategory());
 
-        return medicationRepository.save(existingMedication);
+        Medication saved = saveUnique(existingMedication);
+        uniquenessGuard.record(Key.MEDICATION_NAME_DOSAGE,
+                UniquenessGuard.nameAndDosage(saved.getName(), saved.getDosage()));
+        invalidationBus.publish(CachedEntity.MEDICATION, id, saved::getVersion);
+        return saved;
     }
 
     public void deactivateMedication(Integer id) {
@@ -76,6 +155,8 @@ public class MedicationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Medication not found with id: " + id));
         medication.setActive(false);
         medicationRepository.save(medication);
+        countCache.adjust(COUNT_KEY, -1);
+        invalidationBus.publish(CachedEntity.MEDICATION, id, medication::getVersion);
     }
 
     public List<Medication> getMedicationsByForm(Form form) {
@@ -98,15 +179,12 @@ public class MedicationService {
         return medicationRepository.countByForm(form);
     }
 
-    private void validateMedication(Medication medication) {
-        if (medication.getName() == null || medication.getName().trim().isEmpty()) {
-            throw new BusinessException("Medication name is required");
-        }
-        if (medication.getDosage() == null || medication.getDosage().trim().isEmpty()) {
-            throw new BusinessException("Dosage is required");
-        }
-        if (medication.getForm() == null) {
-            throw new BusinessException("Form is required");
+    // A concurrent create can still take the name and dosage between the check and the write
+    private Medication saveUnique(Medication medication) {
+        try {
+            return medicationRepository.saveAndFlush(medication);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("Medication with this name and dosage already exists");
         }
     }
 }
@@ -1,37 +1,110 @@
 package com.clinic.api.services;
 
+import com.clinic.api.cluster.CachedEntity;
+import com.clinic.api.cluster.InvalidationBus;
+import com.clinic.api.dedup.DuplicateMatch;
+import com.clinic.api.dedup.DuplicatePatientDetector;
+import com.clinic.api.dto.SliceResponse;
 import com.clinic.api.models.Patient;
 import com.clinic.api.models.Patient.Gender;
+import com.clinic.api.paging.CountCache;
+import com.clinic.api.paging.TotalMode;
 import com.clinic.api.repositories.PatientRepository;
+import com.clinic.api.resilience.ResilientReads;
+import com.clinic.api.snapshot.PatientSnapshot;
+import com.clinic.api.snapshot.SummarySnapshotService;
+import com.clinic.api.transaction.AfterCommit;
+import com.clinic.api.uniqueness.UniquenessGuard;
+import com.clinic.api.uniqueness.UniquenessGuard.Key;
+import com.clinic.api.validation.BulkValidationResult;
+import com.clinic.api.validation.PatientValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 
 public class PatientService {
+    private static final String COUNT_KEY = "patients";
+
     private final PatientRepository patientRepository;
+    private final DuplicatePatientDetector duplicateDetector;
+    private final UniquenessGuard uniquenessGuard;
+    private final SummarySnapshotService snapshots;
+    private final PatientValidator patientValidator;
+    private final CountCache countCache;
+    private final InvalidationBus invalidationBus;
+    private final ResilientReads resilientReads;
+    private final double duplicateThreshold;
 
     @Autowired
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, DuplicatePatientDetector duplicateDetector,
+                          UniquenessGuard uniquenessGuard, SummarySnapshotService snapshots,
+                          PatientValidator patientValidator, CountCache countCache,
+                          InvalidationBus invalidationBus, ResilientReads resilientReads,
+                          @Value("${clinic.dedup.reject-threshold:0.92}") double duplicateThreshold) {
         this.patientRepository = patientRepository;
+        this.duplicateDetector = duplicateDetector;
+        this.uniquenessGuard = uniquenessGuard;
+        this.snapshots = snapshots;
+        this.patientValidator = patientValidator;
+        this.countCache = countCache;
+        this.invalidationBus = invalidationBus;
+        this.resilientReads = resilientReads;
+        countCache.register(COUNT_KEY, patientRepository::count);
+        this.duplicateThreshold = duplicateThreshold;
+        // Changes made on other instances must not resurface as a last known good result
+        invalidationBus.addListener((clinicId, entity, id, version) -> {
+            if (entity == CachedEntity.PATIENT) {
+                resilientReads.forget(clinicId, "PatientService.");
+            }
+        });
     }
 
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public SliceResponse<Patient> getPatientSlice(int page, int size, TotalMode totalMode) {
+        Slice<Patient> slice = patientRepository.findSliceBy(PageRequest.of(page, size, Sort.by("id")));
+        Long total = null;
+        if (totalMode != TotalMode.NONE) {
+            if (!slice.hasNext() && (page == 0 || slice.hasContent())) {
+                // The last page already tells the exact total
+                total = (long) page * size + slice.getNumberOfElements();
+            } else {
+                total = totalMode == TotalMode.EXACT ? countCache.exact(COUNT_KEY) : countCache.approximate(COUNT_KEY);
+            }
+        }
+        return SliceResponse.of(slice, totalMode, total);
+    }
+
     public List<Patient> getActivePatients() {
         return patientRepository.findByIsActiveTrue();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Patient> getPatientById(Integer id) {
-        return patientRepository.findById(id);
+        return resilientReads.read("PatientService.getPatientById", () -> patientRepository.findById(id), id);
+    }
+
+    // Served from the snapshot store; only a miss or a stale entry touches the database
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<PatientSnapshot> getPatientSummary(Integer id) {
+        return snapshots.getPatient(id);
     }
 
     public Patient getPatientByEmail(String email) {
@@ -40,29 +113,55 @@ public class PatientService {
     }
 
     public Patient createPatient(Patient patient) {
-        validatePatient(patient);
+        patientValidator.check(patient);
 
-        if (patientRepository.existsByEmail(patient.getEmail())) {
+        if (uniquenessGuard.exists(Key.PATIENT_EMAIL, patient.getEmail(),
+                () -> patientRepository.countAllByEmail(patient.getEmail()) > 0)) {
             throw new BusinessException("Email already registered to another patient");
         }
 
-        if (patientRepository.existsByPhone(patient.getPhone())) {
+        if (uniquenessGuard.exists(Key.PATIENT_PHONE, patient.getPhone(),
+                () -> patientRepository.countAllByPhone(patient.getPhone()) > 0)) {
             throw new BusinessException("Phone number already registered to another patient");
         }
 
+        Optional<DuplicateMatch> duplicate = duplicateDetector.findBestMatch(patient);
+        if (duplicate.isPresent() && duplicate.get().score() >= duplicateThreshold) {
+            throw new BusinessException("Patient appears to be already registered (patient #" +
+                    duplicate.get().patientId() + ")");
+        }
+
         patient.setActive(true);
-        return patientRepository.save(patient);
+        Patient saved = saveUnique(patient);
+        uniquenessGuard.record(Key.PATIENT_EMAIL, saved.getEmail());
+        uniquenessGuard.record(Key.PATIENT_PHONE, saved.getPhone());
+        AfterCommit.run(() -> duplicateDetector.index(saved));
+        countCache.adjust(COUNT_KEY, 1);
+        return saved;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkValidationResult validatePatients(List<Patient> patients) {
+        return patientValidator.validateAll(patients);
     }
 
     public Patient updatePatient(Integer id, Patient patientDetails) {
+        patientValidator.check(patientDetails);
         Patient existingPatient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
 
         if (!existingPatient.getEmail().equals(patientDetails.getEmail()) &&
-                patientRepository.existsByEmail(patientDetails.getEmail())) {
+                uniquenessGuard.exists(Key.PATIENT_EMAIL, patientDetails.getEmail(),
+                        () -> patientRepository.countAllByEmail(patientDetails.getEmail()) > 0)) {
             throw new BusinessException("Email already registered to another patient");
         }
 
+        if (!existingPatient.getPhone().equals(patientDetails.getPhone()) &&
+                uniquenessGuard.exists(Key.PATIENT_PHONE, patientDetails.getPhone(),
+                        () -> patientRepository.countAllByPhone(patientDetails.getPhone()) > 0)) {
+            throw new BusinessException("Phone number already registered to another patient");
+        }
+
         existingPatient.setFullName(patientDetails.getFullName());
         existingPatient.setEmail(patientDetails.getEmail());
         existingPatient.setPhone(patientDetails.getPhone());
@@ -71,7 +170,13 @@ public class PatientService {
         existingPatient.setAddress(patientDetails.getAddress());
         existingPatient.setBloodType(patientDetails.getBloodType());
 
-        return patientRepository.save(existingPatient);
+        Patient saved = saveUnique(existingPatient);
+        uniquenessGuard.record(Key.PATIENT_EMAIL, saved.getEmail());
+        uniquenessGuard.record(Key.PATIENT_PHONE, saved.getPhone());
+        AfterCommit.run(() -> duplicateDetector.index(saved));
+        snapshots.evictPatient(id, saved::getVersion);
+        invalidationBus.publish(CachedEntity.PATIENT, id, saved::getVersion);
+        return saved;
     }
 
     public void deactivatePatient(Integer id) {
@@ -79,6 +184,10 @@ public class PatientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
         patient.setActive(false);
         patientRepository.save(patient);
+        AfterCommit.run(() -> duplicateDetector.remove(id));
+        snapshots.evictPatient(id, patient::getVersion);
+        invalidationBus.publish(CachedEntity.PATIENT, id, patient::getVersion);
+        countCache.adjust(COUNT_KEY, -1);
     }
 
     public void deletePatient(Integer id) {
@@ -90,6 +199,16 @@ public class PatientService {
         }
 
         patientRepository.delete(patient);
+        AfterCommit.run(() -> duplicateDetector.remove(id));
+        // The soft delete bumps the version in SQL, past the loaded entity
+        snapshots.evictPatient(id, () -> patient.getVersion() + 1);
+        invalidationBus.publish(CachedEntity.PATIENT, id, () -> patient.getVersion() + 1);
+        countCache.adjust(COUNT_KEY, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Set<Integer>> findDuplicateClusters(double threshold) {
+        return duplicateDetector.findDuplicateClusters(threshold);
     }
 
     public List<Patient> searchPatients(String name, Gender gender, LocalDate minBirthDate, LocalDate maxBirthDate) {
@@ -109,19 +228,17 @@ public class PatientService {
         return patientRepository.countByGender(gender);
     }
 
+    // A concurrent registration can still take the email or phone between the check and the write
+    private Patient saveUnique(Patient patient) {
+        try {
+            return patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("Email or phone number already registered to another patient");
+        }
+    }
+
     private boolean hasActiveAppointments(Integer patientId) {
         return patientRepository.hasActiveAppointments(patientId);
     }
 
-    private void validatePatient(Patient patient) {
-        if (patient.getFullName() == null || patient.getFullName().trim().isEmpty()) {
-            throw new BusinessException("Patient name is required");
-        }
-        if (patient.getEmail() == null || !patient.getEmail().contains("@")) {
-            throw new BusinessException("Valid email is required");
-        }
-        if (patient.getDateOfBirth() == null || patient.getDateOfBirth().isAfter(LocalDate.now())) {
-            throw new BusinessException("Valid date of birth is required");
-        }
-    }
 }
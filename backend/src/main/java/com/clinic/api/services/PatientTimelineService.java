@@ -0,0 +1,64 @@
+package com.clinic.api.services;
+
+import com.clinic.api.dto.PatientTimeline;
+import com.clinic.api.dto.PatientTimeline.AppointmentEntry;
+import com.clinic.api.dto.PatientTimeline.HistoryPage;
+import com.clinic.api.dto.PatientTimeline.MedicationSummary;
+import com.clinic.api.dto.PatientTimeline.PatientSummary;
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Patient;
+import com.clinic.api.repositories.AppointmentRepository;
+import com.clinic.api.repositories.MedicationRepository;
+import com.clinic.api.repositories.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Builds the patient chart with a fixed fetch plan of three queries regardless of history
+ * length: the patient, one slice of appointments joined with their doctors, and the active
+ * medications. Later history pages cost one query each.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PatientTimelineService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final MedicationRepository medicationRepository;
+
+    @Autowired
+    public PatientTimelineService(PatientRepository patientRepository,
+                                  AppointmentRepository appointmentRepository,
+                                  MedicationRepository medicationRepository) {
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.medicationRepository = medicationRepository;
+    }
+
+    public Optional<PatientTimeline> getTimeline(Integer patientId, int page, int size) {
+        Optional<Patient> patient = patientRepository.findById(patientId);
+        if (patient.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new PatientTimeline(
+                PatientSummary.of(patient.get()),
+                getHistory(patientId, page, size),
+                medicationRepository.findActiveMedicationsForPatient(patientId).stream()
+                        .map(MedicationSummary::of)
+                        .toList()));
+    }
+
+    public HistoryPage getHistory(Integer patientId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Slice<Appointment> slice = appointmentRepository.findHistoryWithDoctor(
+                patientId, PageRequest.of(Math.max(0, page), pageSize));
+        return new HistoryPage(slice.getNumber(), slice.getSize(), slice.hasNext(),
+                slice.getContent().stream().map(AppointmentEntry::of).toList());
+    }
+}
@@ -0,0 +1,94 @@
+package com.clinic.api.services;
+
+import com.clinic.api.sharding.ClinicContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent identical reads into one in-flight query. The first caller for a key
+ * runs the query; callers arriving while it is running wait for and share its result.
+ * Nothing is cached once the query completes, so results are never older than the
+ * leader's query. When too many distinct keys are in flight, calls run uncoalesced.
+ */
+@Component
+public class SingleFlight {
+
+    // Identical calls for different clinics read different shards
+    private record CallKey(String clinicId, String method, List<Object> args) {
+    }
+
+    private final ConcurrentHashMap<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlightKeys;
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter bypassed;
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${clinic.single-flight.max-keys:1024}") int maxInFlightKeys) {
+        this.maxInFlightKeys = maxInFlightKeys;
+        this.leaders = meterRegistry.counter("clinic.singleflight.calls", "role", "leader");
+        this.followers = meterRegistry.counter("clinic.singleflight.calls", "role", "follower");
+        this.bypassed = meterRegistry.counter("clinic.singleflight.calls", "role", "bypassed");
+        Gauge.builder("clinic.singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of calls answered by another caller's query")
+                .register(meterRegistry);
+        Gauge.builder("clinic.singleflight.inflight", inFlight, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Supplier<T> query, Object... args) {
+        if (inFlight.size() >= maxInFlightKeys) {
+            bypassed.increment();
+            return query.get();
+        }
+
+        CallKey key = new CallKey(ClinicContext.get(), method, Arrays.asList(args));
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            followers.increment();
+            return (T) await(existing);
+        }
+
+        leaders.increment();
+        try {
+            T result = query.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    double coalescingRatio() {
+        double total = leaders.count() + followers.count() + bypassed.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+}
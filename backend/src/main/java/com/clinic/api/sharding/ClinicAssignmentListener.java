@@ -0,0 +1,28 @@
+package com.clinic.api.sharding;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Patient;
+import jakarta.persistence.PrePersist;
+
+/**
+ * Stamps new patients, doctors and appointments with the clinic of the shard they are
+ * written to, so rows stay attributable when shards are merged for reporting.
+ */
+public class ClinicAssignmentListener {
+
+    @PrePersist
+    public void assignClinic(Object entity) {
+        String clinicId = ClinicContext.get();
+        if (clinicId == null) {
+            return;
+        }
+        if (entity instanceof Patient patient && patient.getClinicId() == null) {
+            patient.setClinicId(clinicId);
+        } else if (entity instanceof Doctor doctor && doctor.getClinicId() == null) {
+            doctor.setClinicId(clinicId);
+        } else if (entity instanceof Appointment appointment && appointment.getClinicId() == null) {
+            appointment.setClinicId(clinicId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.clinic.api.sharding;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The clinic (shard) the current thread works for. Set per request by
+ * {@link ClinicContextFilter} and per task by {@link ShardedQueryExecutor}; the routing
+ * data source reads it when a transaction obtains its connection. Work handed to another
+ * thread does not inherit it: wrap the task, or bind the clinic explicitly.
+ */
+public final class ClinicContext {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClinicContext() {
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String clinicId) {
+        CURRENT.set(clinicId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void runIn(String clinicId, Runnable action) {
+        String previous = CURRENT.get();
+        CURRENT.set(clinicId);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Binds a task handed to another thread to the clinic of the thread that creates it.
+     */
+    public static Runnable wrap(Runnable task) {
+        String clinicId = CURRENT.get();
+        return () -> runIn(clinicId, task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String clinicId = CURRENT.get();
+        return () -> callIn(clinicId, task);
+    }
+
+    public static <T> T callIn(String clinicId, Callable<T> action) throws Exception {
+        String previous = CURRENT.get();
+        CURRENT.set(clinicId);
+        try {
+            return action.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.clinic.api.sharding;
+
+import com.clinic.api.security.TokenPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the caller's clinic to the request thread. Accounts bound to a clinic always work
+ * in it, and may only repeat it in the {@code X-Clinic-Id} header; accounts without one
+ * (administrators) pick the clinic with the header. Anonymous requests and requests
+ * without a clinic use the default shard. A header naming a clinic that is not configured
+ * is rejected with 400; with sharding disabled only the default shard is configured.
+ * <p>
+ * Runs inside the security chain after authorization; see SecurityConfig.
+ */
+@Component
+public class ClinicContextFilter extends OncePerRequestFilter {
+    public static final String CLINIC_HEADER = "X-Clinic-Id";
+    static final int MAX_CLINIC_ID_LENGTH = 20;
+
+    private final ShardingProperties properties;
+
+    public ClinicContextFilter(ShardingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String requested = request.getHeader(CLINIC_HEADER);
+        if (requested != null && !isValid(requested)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown clinic");
+            return;
+        }
+        TokenPrincipal principal = TokenPrincipal.current();
+        String clinicId;
+        if (principal == null) {
+            clinicId = null;
+        } else if (principal.clinicId() != null) {
+            if (requested != null && !requested.equals(principal.clinicId())) {
+                response.sendError(HttpStatus.FORBIDDEN.value(), "Not allowed to act for clinic " + requested);
+                return;
+            }
+            if (!properties.isKnown(principal.clinicId())) {
+                response.sendError(HttpStatus.FORBIDDEN.value(), "Account is bound to a clinic this deployment does not serve");
+                return;
+            }
+            clinicId = principal.clinicId();
+        } else {
+            clinicId = requested;
+        }
+        ClinicContext.set(properties.resolve(clinicId));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ClinicContext.clear();
+        }
+    }
+
+    // Checked before the value is echoed anywhere; the length bound matches the clinic_id columns
+    private boolean isValid(String clinicId) {
+        return !clinicId.isEmpty() && clinicId.length() <= MAX_CLINIC_ID_LENGTH && properties.isKnown(clinicId);
+    }
+}
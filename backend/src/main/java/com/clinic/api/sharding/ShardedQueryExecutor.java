@@ -0,0 +1,93 @@
+package com.clinic.api.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Scatter-gather over all clinic shards. Each shard's query runs on its own thread, bound to
+ * that shard and inside its own read-only transaction, and the results come back keyed by
+ * clinic id in configuration order.
+ */
+@Component
+public class ShardedQueryExecutor {
+    private static final Logger log = LoggerFactory.getLogger(ShardedQueryExecutor.class);
+
+    private final ShardingProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+
+    public ShardedQueryExecutor(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(Math.max(2, properties.getShardIds().size()), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> Map<String, T> scatter(Supplier<T> query) {
+        List<String> shardIds = properties.getShardIds();
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String clinicId : shardIds) {
+            futures.put(clinicId, CompletableFuture.supplyAsync(() -> runOn(clinicId, query), executor));
+        }
+
+        Map<String, T> results = new LinkedHashMap<>();
+        try {
+            futures.forEach((clinicId, future) -> results.put(clinicId, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private <T> T runOn(String clinicId, Supplier<T> query) {
+        ClinicContext.set(clinicId);
+        try {
+            return readOnlyTransaction.execute(status -> query.get());
+        } finally {
+            ClinicContext.clear();
+        }
+    }
+
+    /**
+     * Runs background work once per shard on the calling thread, bound to each shard in turn.
+     * A failure on one shard is logged and does not keep the others from running.
+     */
+    public void forEachShard(String task, Runnable work) {
+        for (String clinicId : properties.getShardIds()) {
+            try {
+                ClinicContext.runIn(clinicId, work);
+            } catch (RuntimeException e) {
+                log.error("{} failed for clinic {}", task, clinicId, e);
+            }
+        }
+    }
+
+    public List<String> getShardIds() {
+        return properties.getShardIds();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
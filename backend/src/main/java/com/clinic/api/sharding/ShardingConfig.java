@@ -0,0 +1,95 @@
+package com.clinic.api.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Routes every connection request to the shard bound to the current thread. Repositories
+     * and services stay shard-unaware; the shard is fixed when a transaction begins.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "clinic.sharding.enabled", havingValue = "true")
+    public DataSource shardRoutingDataSource(ShardingProperties properties) {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        properties.getShards().forEach((clinicId, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("shard-" + clinicId);
+            if (shard.getUrl() != null && shard.getUrl().startsWith("jdbc:mysql:")) {
+                // Without it Connector/J ignores fetch sizes and buffers whole result sets
+                dataSource.addDataSourceProperty("useCursorFetch", "true");
+            }
+            targets.put(clinicId, dataSource);
+        });
+        if (!targets.containsKey(properties.getDefaultShard())) {
+            throw new IllegalStateException("Default shard '" + properties.getDefaultShard() + "' is not configured");
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(properties.getDefaultShard()));
+        // Unknown keys must fail rather than silently land on the default shard
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // The shard pools are built here rather than as beans, so the context only closes them through this
+    static class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ClinicContext.get();
+        }
+
+        @Override
+        public void destroy() {
+            for (DataSource target : getResolvedDataSources().values()) {
+                if (target instanceof HikariDataSource pool) {
+                    pool.close();
+                }
+            }
+        }
+    }
+
+    // Hibernate's ddl-auto only sees the default shard, so embedded shards get their tables here
+    @Bean
+    @ConditionalOnProperty(name = {"clinic.sharding.enabled", "clinic.sharding.initialize-schema"}, havingValue = "true")
+    public ApplicationRunner shardSchemaInitializer(ShardingProperties properties,
+                                                    EntityManagerFactory entityManagerFactory) {
+        return args -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            for (String clinicId : properties.getShardIds()) {
+                if (!clinicId.equals(properties.getDefaultShard())) {
+                    ClinicContext.callIn(clinicId, () -> {
+                        sessionFactory.getSchemaManager().exportMappedObjects(true);
+                        return null;
+                    });
+                }
+            }
+        };
+    }
+}
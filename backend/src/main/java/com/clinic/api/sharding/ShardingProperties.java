@@ -0,0 +1,51 @@
+package com.clinic.api.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code clinic.sharding.*}: one data source per campus clinic. When sharding is disabled
+ * the application runs against {@code spring.datasource} as a single shard named
+ * {@link #getDefaultShard()}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "clinic.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private String defaultShard = "main";
+
+    // Create the mapped tables on every shard at startup; meant for embedded test databases
+    private boolean initializeSchema;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    public List<String> getShardIds() {
+        return enabled && !shards.isEmpty() ? List.copyOf(shards.keySet()) : List.of(defaultShard);
+    }
+
+    public boolean isKnown(String clinicId) {
+        return getShardIds().contains(clinicId);
+    }
+
+    // The clinic of work that runs without one, e.g. anonymous requests
+    public String resolve(String clinicId) {
+        return clinicId == null ? defaultShard : clinicId;
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
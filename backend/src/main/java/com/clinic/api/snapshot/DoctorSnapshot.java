@@ -0,0 +1,35 @@
+package com.clinic.api.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact doctor summary kept in the snapshot store.
+ */
+public record DoctorSnapshot(Integer id, String name, String specialization, String email,
+                             String phone, String gender) {
+
+    static final SnapshotStore.Codec<DoctorSnapshot> CODEC = new SnapshotStore.Codec<>() {
+        @Override
+        public void write(DoctorSnapshot value, DataOutput out) throws IOException {
+            out.writeInt(value.id());
+            out.writeUTF(value.name());
+            out.writeUTF(value.specialization());
+            out.writeUTF(value.email());
+            out.writeUTF(value.phone());
+            out.writeUTF(value.gender() == null ? "" : value.gender());
+        }
+
+        @Override
+        public DoctorSnapshot read(DataInput in) throws IOException {
+            int id = in.readInt();
+            String name = in.readUTF();
+            String specialization = in.readUTF();
+            String email = in.readUTF();
+            String phone = in.readUTF();
+            String gender = in.readUTF();
+            return new DoctorSnapshot(id, name, specialization, email, phone, gender.isEmpty() ? null : gender);
+        }
+    };
+}
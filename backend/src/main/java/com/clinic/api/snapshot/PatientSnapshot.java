@@ -0,0 +1,40 @@
+package com.clinic.api.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Compact patient summary kept in the snapshot store.
+ */
+public record PatientSnapshot(Integer id, String fullName, String email, String phone,
+                              LocalDate dateOfBirth, String gender, String bloodType) {
+
+    static final SnapshotStore.Codec<PatientSnapshot> CODEC = new SnapshotStore.Codec<>() {
+        @Override
+        public void write(PatientSnapshot value, DataOutput out) throws IOException {
+            out.writeInt(value.id());
+            out.writeUTF(value.fullName());
+            out.writeUTF(value.email());
+            out.writeUTF(value.phone());
+            out.writeLong(value.dateOfBirth() == null ? Long.MIN_VALUE : value.dateOfBirth().toEpochDay());
+            out.writeUTF(value.gender() == null ? "" : value.gender());
+            out.writeUTF(value.bloodType() == null ? "" : value.bloodType());
+        }
+
+        @Override
+        public PatientSnapshot read(DataInput in) throws IOException {
+            int id = in.readInt();
+            String fullName = in.readUTF();
+            String email = in.readUTF();
+            String phone = in.readUTF();
+            long epochDay = in.readLong();
+            String gender = in.readUTF();
+            String bloodType = in.readUTF();
+            return new PatientSnapshot(id, fullName, email, phone,
+                    epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay),
+                    gender.isEmpty() ? null : gender, bloodType.isEmpty() ? null : bloodType);
+        }
+    };
+}
@@ -0,0 +1,276 @@
+package com.clinic.api.snapshot;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-slot, memory-mapped store of small records keyed by entity id. Each id maps to one
+ * slot (id modulo capacity); a colliding id simply replaces the previous occupant. Slots are
+ * guarded by a sequence lock, so readers never block and retry only while a write to the
+ * same slot is in progress. The file outlives the process and is mapped again on startup.
+ * Ids are only unique within one database, so each clinic needs its own file.
+ * <p>
+ * An evicted slot keeps the id and version as a tombstone with no payload; a put of an
+ * older version, e.g. from a load that started before the change, is then refused.
+ *
+ * <pre>
+ * header: magic(4) version(4) slotSize(4) capacity(4) checkpointMillis(8) padding
+ * slot:   seq(4) id(4) version(8) verifiedAt(8) length(4) payload(length)
+ * </pre>
+ */
+public class SnapshotStore<T> implements Closeable {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    // 2: slots hold the entity's version column instead of its updatedAt
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int CHECKPOINT_OFFSET = 16;
+    private static final int SLOT_HEADER = 28;
+    private static final int MAX_READ_ATTEMPTS = 64;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final VarHandle INT =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Serialises values into a slot payload.
+     */
+    public interface Codec<T> {
+        void write(T value, DataOutput out) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    public record Entry<T>(T value, long version, long verifiedAt) {
+    }
+
+    private final Codec<T> codec;
+    private final int slotSize;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public SnapshotStore(Path file, int capacity, int slotSize, Codec<T> codec) throws IOException {
+        if (slotSize % 8 != 0 || slotSize <= SLOT_HEADER) {
+            throw new IllegalArgumentException("Slot size must be a multiple of 8 larger than " + SLOT_HEADER);
+        }
+        long size = HEADER_BYTES + (long) capacity * slotSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot file would exceed 2 GB: " + size + " bytes");
+        }
+        this.codec = codec;
+        this.slotSize = slotSize;
+        this.capacity = capacity;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean compatible = channel.size() == size;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.nativeOrder());
+        compatible = compatible && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION &&
+                buffer.getInt(8) == slotSize && buffer.getInt(12) == capacity;
+        if (!compatible) {
+            // Layout changed or file is new: start empty
+            for (int i = 0; i < size; i += 8) {
+                buffer.putLong(i, 0L);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, slotSize);
+            buffer.putInt(12, capacity);
+            buffer.force();
+        } else {
+            // A slot left odd by a crash mid-write is discarded
+            for (int base = HEADER_BYTES; base < size; base += slotSize) {
+                int seq = buffer.getInt(base);
+                if ((seq & 1) != 0) {
+                    buffer.putInt(base, seq + 1);
+                    buffer.putInt(base + 4, 0);
+                    buffer.putInt(base + 24, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the entry stored for the id, or null when the slot is empty, holds another id,
+     * or is being rewritten continuously.
+     */
+    public Entry<T> get(int id) {
+        int base = offset(id);
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            int seq = (int) INT.getAcquire(buffer, base);
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int storedId = buffer.getInt(base + 4);
+            long version = buffer.getLong(base + 8);
+            long verifiedAt = buffer.getLong(base + 16);
+            int length = buffer.getInt(base + 24);
+            byte[] payload = null;
+            if (storedId == id && length > 0 && length <= slotSize - SLOT_HEADER) {
+                payload = new byte[length];
+                buffer.get(base + SLOT_HEADER, payload);
+            }
+            VarHandle.acquireFence();
+            if ((int) INT.getAcquire(buffer, base) != seq) {
+                continue;
+            }
+            if (payload == null) {
+                return null;
+            }
+            T value = decode(payload);
+            return value == null ? null : new Entry<>(value, version, verifiedAt);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the value into the id's slot. Returns false if the encoded value does not fit or
+     * the slot already holds, or has evicted, a newer version of the id.
+     */
+    public boolean put(int id, T value, long version, long verifiedAt) {
+        byte[] payload = encode(value);
+        if (payload.length > slotSize - SLOT_HEADER) {
+            return false;
+        }
+        int base = offset(id);
+        synchronized (lock(base)) {
+            if (buffer.getInt(base + 4) == id && buffer.getLong(base + 8) > version) {
+                return false;
+            }
+            int seq = beginWrite(base);
+            buffer.putInt(base + 4, id);
+            buffer.putLong(base + 8, version);
+            buffer.putLong(base + 16, verifiedAt);
+            buffer.putInt(base + 24, payload.length);
+            buffer.put(base + SLOT_HEADER, payload);
+            INT.setRelease(buffer, base, seq + 2);
+        }
+        return true;
+    }
+
+    /**
+     * Records that the entry was checked against the database without rewriting it. Does
+     * nothing if the slot no longer holds that version of the id.
+     */
+    public void markVerified(int id, long version, long verifiedAt) {
+        int base = offset(id);
+        synchronized (lock(base)) {
+            if (buffer.getInt(base + 4) != id || buffer.getLong(base + 8) != version
+                    || buffer.getInt(base + 24) == 0) {
+                return;
+            }
+            int seq = beginWrite(base);
+            buffer.putLong(base + 16, verifiedAt);
+            INT.setRelease(buffer, base, seq + 2);
+        }
+    }
+
+    /**
+     * Drops the id's entry unless it is already at the given version or newer, leaving a
+     * tombstone so that puts of older versions are refused.
+     */
+    public void evict(int id, long version) {
+        int base = offset(id);
+        synchronized (lock(base)) {
+            if (buffer.getInt(base + 4) == id && buffer.getLong(base + 8) >= version) {
+                return;
+            }
+            tombstone(base, id, version);
+        }
+    }
+
+    /**
+     * Drops the id's entry whatever its version, e.g. because the row no longer exists.
+     */
+    public void remove(int id) {
+        int base = offset(id);
+        synchronized (lock(base)) {
+            if (buffer.getInt(base + 4) == id && buffer.getInt(base + 24) > 0) {
+                tombstone(base, id, buffer.getLong(base + 8));
+            }
+        }
+    }
+
+    public long getCheckpointMillis() {
+        return (long) LONG.getVolatile(buffer, CHECKPOINT_OFFSET);
+    }
+
+    /**
+     * Flushes all slots to disk, then records the checkpoint time so the next start knows
+     * which rows may have changed since.
+     */
+    public void checkpoint(long checkpointMillis) {
+        buffer.force();
+        LONG.setVolatile(buffer, CHECKPOINT_OFFSET, checkpointMillis);
+        buffer.force(0, HEADER_BYTES);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int offset(int id) {
+        return HEADER_BYTES + Math.floorMod(id, capacity) * slotSize;
+    }
+
+    private Object lock(int base) {
+        return locks[(base / slotSize) % LOCK_STRIPES];
+    }
+
+    // Makes the sequence odd so readers retry until the write is released; caller holds the lock
+    private int beginWrite(int base) {
+        int seq = (int) INT.get(buffer, base);
+        INT.setOpaque(buffer, base, seq + 1);
+        VarHandle.storeStoreFence();
+        return seq;
+    }
+
+    private void tombstone(int base, int id, long version) {
+        int seq = beginWrite(base);
+        buffer.putInt(base + 4, id);
+        buffer.putLong(base + 8, version);
+        buffer.putInt(base + 24, 0);
+        INT.setRelease(buffer, base, seq + 2);
+    }
+
+    private byte[] encode(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(slotSize);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(value, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // An unreadable payload (e.g. from an older codec) is treated as a miss
+    private T decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.clinic.api.snapshot;
+
+import com.clinic.api.cluster.CachedEntity;
+import com.clinic.api.cluster.InvalidationBus;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import com.clinic.api.sharding.ShardingProperties;
+import com.clinic.api.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Serves patient and doctor summaries from memory-mapped snapshot files, so a freshly
+ * started instance answers from the previous instance's snapshot instead of the database.
+ * An entry is trusted for a short while after it was last checked; after that the next
+ * read compares its version with the row's and reloads it only if the row has changed.
+ * A periodic checkpoint pulls in rows updated since the last checkpoint and flushes the files.
+ * Each clinic has its own files, under a directory named after it.
+ */
+@Service
+public class SummarySnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(SummarySnapshotService.class);
+    // Allowance for clock differences between this host and the database
+    private static final long CHECKPOINT_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String PATIENT_COLUMNS =
+            "SELECT id, full_name, email, phone, date_of_birth, gender, blood_type, version FROM patients ";
+    private static final String DOCTOR_COLUMNS =
+            "SELECT id, name, specialization, email, phone, gender, version FROM doctors ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final InvalidationBus invalidationBus;
+    private final ShardedQueryExecutor shards;
+    private final ShardingProperties shardingProperties;
+    private final Path directory;
+    private final int capacity;
+    private final int slotSize;
+    private final long revalidateAfterMillis;
+
+    private final Map<String, Table<PatientSnapshot>> patients = new HashMap<>();
+    private final Map<String, Table<DoctorSnapshot>> doctors = new HashMap<>();
+
+    public SummarySnapshotService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                  InvalidationBus invalidationBus, ShardedQueryExecutor shards,
+                                  ShardingProperties shardingProperties,
+                                  @Value("${clinic.snapshot.directory:snapshot}") String directory,
+                                  @Value("${clinic.snapshot.capacity:65536}") int capacity,
+                                  @Value("${clinic.snapshot.slot-size:512}") int slotSize,
+                                  @Value("${clinic.snapshot.revalidate-after-ms:60000}") long revalidateAfterMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+        this.shards = shards;
+        this.shardingProperties = shardingProperties;
+        this.directory = Path.of(directory);
+        this.capacity = capacity;
+        this.slotSize = slotSize;
+        this.revalidateAfterMillis = revalidateAfterMillis;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        for (String clinicId : shardingProperties.getShardIds()) {
+            Path clinicDirectory = directory.resolve(clinicId);
+            patients.put(clinicId, patientTable(new SnapshotStore<>(clinicDirectory.resolve("patients.snap"),
+                    capacity, slotSize, PatientSnapshot.CODEC)));
+            doctors.put(clinicId, doctorTable(new SnapshotStore<>(clinicDirectory.resolve("doctors.snap"),
+                    capacity, slotSize, DoctorSnapshot.CODEC)));
+        }
+
+        // Changes committed on other instances
+        invalidationBus.addListener((clinicId, entity, id, version) -> {
+            String clinic = shardingProperties.resolve(clinicId);
+            if (entity == CachedEntity.PATIENT && patients.containsKey(clinic)) {
+                patients.get(clinic).invalidate(id, version);
+            } else if (entity == CachedEntity.DOCTOR && doctors.containsKey(clinic)) {
+                doctors.get(clinic).invalidate(id, version);
+            }
+        });
+    }
+
+    private Table<PatientSnapshot> patientTable(SnapshotStore<PatientSnapshot> store) {
+        return new Table<>("patients", CachedEntity.PATIENT, store,
+                PATIENT_COLUMNS + "WHERE id = ? AND is_active = true",
+                PATIENT_COLUMNS + "WHERE updated_at > ? AND is_active = true",
+                "SELECT version FROM patients WHERE id = ? AND is_active = true",
+                (rs, rowNum) -> new PatientSnapshot(rs.getInt("id"), rs.getString("full_name"),
+                        rs.getString("email"), rs.getString("phone"), toLocalDate(rs.getDate("date_of_birth")),
+                        rs.getString("gender"), rs.getString("blood_type")));
+    }
+
+    private Table<DoctorSnapshot> doctorTable(SnapshotStore<DoctorSnapshot> store) {
+        return new Table<>("doctors", CachedEntity.DOCTOR, store,
+                DOCTOR_COLUMNS + "WHERE id = ?",
+                DOCTOR_COLUMNS + "WHERE updated_at > ?",
+                "SELECT version FROM doctors WHERE id = ?",
+                (rs, rowNum) -> new DoctorSnapshot(rs.getInt("id"), rs.getString("name"),
+                        rs.getString("specialization"), rs.getString("email"), rs.getString("phone"),
+                        rs.getString("gender")));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        checkpoint();
+        for (Table<PatientSnapshot> table : patients.values()) {
+            table.store.close();
+        }
+        for (Table<DoctorSnapshot> table : doctors.values()) {
+            table.store.close();
+        }
+    }
+
+    public Optional<PatientSnapshot> getPatient(Integer id) {
+        return forClinic(patients).get(id);
+    }
+
+    public Optional<DoctorSnapshot> getDoctor(Integer id) {
+        return forClinic(doctors).get(id);
+    }
+
+    /**
+     * Evicts the patient once the current transaction commits. The version supplier gives the
+     * row's version after the change; loads that read an older version are not stored.
+     */
+    public void evictPatient(Integer id, LongSupplier version) {
+        Table<PatientSnapshot> table = forClinic(patients);
+        AfterCommit.run(() -> table.store.evict(id, version.getAsLong()));
+    }
+
+    public void evictDoctor(Integer id, LongSupplier version) {
+        Table<DoctorSnapshot> table = forClinic(doctors);
+        AfterCommit.run(() -> table.store.evict(id, version.getAsLong()));
+    }
+
+    /**
+     * Brings both snapshots up to date with rows changed since their last checkpoint and
+     * flushes them. The first run after startup catches up on what changed while no
+     * instance was writing the files.
+     */
+    @Scheduled(initialDelayString = "${clinic.snapshot.initial-delay-ms:10000}",
+            fixedDelayString = "${clinic.snapshot.checkpoint-ms:300000}")
+    public void checkpoint() {
+        shards.forEachShard("Snapshot checkpoint", () -> {
+            forClinic(patients).checkpoint();
+            forClinic(doctors).checkpoint();
+        });
+    }
+
+    private <T> Table<T> forClinic(Map<String, Table<T>> tables) {
+        String clinicId = shardingProperties.resolve(ClinicContext.get());
+        Table<T> table = tables.get(clinicId);
+        if (table == null) {
+            throw new IllegalStateException("No snapshot store for clinic " + clinicId);
+        }
+        return table;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    private final class Table<T> {
+        final String name;
+        final CachedEntity entity;
+        final SnapshotStore<T> store;
+        final String selectById;
+        final String selectChangedSince;
+        final String selectVersion;
+        final RowMapper<T> mapper;
+        final Counter hits;
+        final Counter revalidated;
+        final Counter loaded;
+
+        Table(String name, CachedEntity entity, SnapshotStore<T> store, String selectById, String selectChangedSince,
+              String selectVersion, RowMapper<T> mapper) {
+            this.name = name;
+            this.entity = entity;
+            this.store = store;
+            this.selectById = selectById;
+            this.selectChangedSince = selectChangedSince;
+            this.selectVersion = selectVersion;
+            this.mapper = mapper;
+            this.hits = meterRegistry.counter("clinic.snapshot.reads", "table", name, "result", "hit");
+            this.revalidated = meterRegistry.counter("clinic.snapshot.reads", "table", name, "result", "revalidated");
+            this.loaded = meterRegistry.counter("clinic.snapshot.reads", "table", name, "result", "loaded");
+        }
+
+        Optional<T> get(Integer id) {
+            long now = System.currentTimeMillis();
+            SnapshotStore.Entry<T> entry = store.get(id);
+            if (entry != null) {
+                if (now - entry.verifiedAt() < revalidateAfterMillis) {
+                    hits.increment();
+                    return Optional.of(entry.value());
+                }
+                // Stale check: one indexed single-column lookup instead of the whole row
+                List<Long> version = jdbcTemplate.queryForList(selectVersion, Long.class, id);
+                if (!version.isEmpty() && version.get(0) == entry.version()) {
+                    store.markVerified(id, entry.version(), now);
+                    revalidated.increment();
+                    return Optional.of(entry.value());
+                }
+            }
+            loaded.increment();
+            List<T> rows = jdbcTemplate.query(selectById, (rs, rowNum) -> {
+                T value = mapper.mapRow(rs, rowNum);
+                put(id, value, rs.getLong("version"), now);
+                return value;
+            }, id);
+            if (rows.isEmpty()) {
+                store.remove(id);
+                return Optional.empty();
+            }
+            return Optional.of(rows.get(0));
+        }
+
+        // A row read before a newer change was announced must not be cached
+        void put(int id, T value, long version, long verifiedAt) {
+            if (invalidationBus.isStale(ClinicContext.get(), entity, id, version)) {
+                store.remove(id);
+            } else {
+                store.put(id, value, version, verifiedAt);
+            }
+        }
+
+        void invalidate(int id, long version) {
+            store.evict(id, version);
+        }
+
+        void checkpoint() {
+            long startedAt = System.currentTimeMillis();
+            long since = store.getCheckpointMillis();
+            int[] refreshed = {0};
+            jdbcTemplate.query(selectChangedSince, (ResultSet rs) -> {
+                put(rs.getInt("id"), mapper.mapRow(rs, 0), rs.getLong("version"), startedAt);
+                refreshed[0]++;
+            }, new Timestamp(Math.max(0L, since - CHECKPOINT_OVERLAP_MILLIS)));
+            store.checkpoint(startedAt);
+            log.debug("Snapshot checkpoint of {}: {} rows refreshed since {}", name, refreshed[0], since);
+        }
+    }
+}
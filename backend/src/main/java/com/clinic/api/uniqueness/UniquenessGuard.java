@@ -0,0 +1,190 @@
+package com.clinic.api.uniqueness;
+
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import com.clinic.api.sharding.ShardingProperties;
+import com.clinic.api.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bloom-filter pre-check for the uniqueness lookups done on every create and update. A
+ * definite "absent" skips the database round-trip; a possible hit still asks the database,
+ * and a unique index on every guarded column remains the final arbiter. Values are recorded
+ * once their write commits. A rebuild registers its new filter before it scans, and values
+ * committed meanwhile go to both filters, so whichever filter a value lands in, the
+ * replacement has it too.
+ *
+ * <p>Filters are built from the full tables (soft-deleted rows included, since the unique
+ * constraints cover them too) and rebuilt periodically to shed values that were changed.
+ * Each clinic shard has its own filters.
+ */
+@Component
+public class UniquenessGuard {
+    private static final Logger log = LoggerFactory.getLogger(UniquenessGuard.class);
+
+    public enum Key {
+        PATIENT_EMAIL("SELECT LOWER(email) FROM patients"),
+        PATIENT_PHONE("SELECT phone FROM patients"),
+        DOCTOR_EMAIL("SELECT LOWER(email) FROM doctors"),
+        DOCTOR_LICENSE("SELECT license_number FROM doctors"),
+        MEDICATION_NAME_DOSAGE("SELECT CONCAT(LOWER(name), '|', LOWER(dosage)) FROM medications");
+
+        private final String valuesQuery;
+
+        Key(String valuesQuery) {
+            this.valuesQuery = valuesQuery;
+        }
+    }
+
+    private static final class Guard {
+        // By clinic
+        final Map<String, BloomFilter> filters = new ConcurrentHashMap<>();
+        // Present while the clinic's filter is being rebuilt; writes go to both filters
+        final Map<String, BloomFilter> building = new ConcurrentHashMap<>();
+        Counter skipped;
+        Counter checked;
+        Counter falsePositives;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardedQueryExecutor shards;
+    private final ShardingProperties shardingProperties;
+    private final double falsePositiveRate;
+    private final Map<Key, Guard> guards = new EnumMap<>(Key.class);
+
+    @Autowired
+    public UniquenessGuard(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, ShardedQueryExecutor shards,
+                           ShardingProperties shardingProperties,
+                           @Value("${clinic.uniqueness.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.shardingProperties = shardingProperties;
+        this.falsePositiveRate = falsePositiveRate;
+        for (Key key : Key.values()) {
+            Guard guard = new Guard();
+            String tag = key.name().toLowerCase(Locale.ROOT);
+            guard.skipped = meterRegistry.counter("clinic.uniqueness.checks", "key", tag, "result", "skipped");
+            guard.checked = meterRegistry.counter("clinic.uniqueness.checks", "key", tag, "result", "database");
+            guard.falsePositives = meterRegistry.counter("clinic.uniqueness.false.positives", "key", tag);
+            Gauge.builder("clinic.uniqueness.false.positive.rate", guard, UniquenessGuard::falsePositiveRate)
+                    .tag("key", tag)
+                    .register(meterRegistry);
+            guards.put(key, guard);
+        }
+    }
+
+    /**
+     * @param databaseCheck the existing repository lookup, only run when the filter cannot rule the value out
+     */
+    public boolean exists(Key key, String value, BooleanSupplier databaseCheck) {
+        Guard guard = guards.get(key);
+        BloomFilter filter = guard.filters.get(clinic());
+        boolean screened = value != null && filter != null;
+        if (screened && !filter.mightContain(normalize(key, value))) {
+            guard.skipped.increment();
+            return false;
+        }
+        guard.checked.increment();
+        boolean exists = databaseCheck.getAsBoolean();
+        if (!exists && screened) {
+            guard.falsePositives.increment();
+        }
+        return exists;
+    }
+
+    public void record(Key key, String value) {
+        if (value == null) {
+            return;
+        }
+        String clinicId = clinic();
+        AfterCommit.run(() -> put(key, value, clinicId));
+    }
+
+    private void put(Key key, String value, String clinicId) {
+        Guard guard = guards.get(key);
+        String normalized = normalize(key, value);
+        BloomFilter building = guard.building.get(clinicId);
+        if (building != null) {
+            building.put(normalized);
+        }
+        BloomFilter filter = guard.filters.get(clinicId);
+        if (filter != null) {
+            filter.put(normalized);
+        }
+    }
+
+    public static String nameAndDosage(String name, String dosage) {
+        return name + '|' + dosage;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.uniqueness.rebuild-interval-ms:21600000}",
+            initialDelayString = "${clinic.uniqueness.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        shards.forEachShard("Uniqueness filter rebuild", this::rebuildCurrentClinic);
+    }
+
+    private void rebuildCurrentClinic() {
+        String clinicId = clinic();
+        for (Key key : Key.values()) {
+            Guard guard = guards.get(key);
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM (" + key.valuesQuery + ") v", Long.class);
+            // Headroom for growth until the next rebuild
+            BloomFilter filter = new BloomFilter(Math.max(1024, (rows == null ? 0 : rows) * 2), falsePositiveRate);
+            guard.building.put(clinicId, filter);
+            try {
+                JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+                streaming.setFetchSize(1000);
+                streaming.query(key.valuesQuery, rs -> {
+                    String value = rs.getString(1);
+                    if (value != null) {
+                        filter.put(value);
+                    }
+                });
+                guard.filters.put(clinicId, filter);
+            } finally {
+                guard.building.remove(clinicId);
+            }
+        }
+        log.info("Uniqueness filters rebuilt for clinic {}", clinicId);
+    }
+
+    private String clinic() {
+        return shardingProperties.resolve(ClinicContext.get());
+    }
+
+    // Mirrors the case-insensitive collation of the unique columns
+    private static String normalize(Key key, String value) {
+        return switch (key) {
+            case PATIENT_EMAIL, DOCTOR_EMAIL, MEDICATION_NAME_DOSAGE -> value.toLowerCase(Locale.ROOT);
+            default -> value;
+        };
+    }
+
+    private static double falsePositiveRate(Guard guard) {
+        double negatives = guard.skipped.count() + guard.falsePositives.count();
+        return negatives == 0 ? 0 : guard.falsePositives.count() / negatives;
+    }
+}
@@ -0,0 +1,12 @@
+package com.clinic.api.validation;
+
+import java.util.List;
+
+/**
+ * Outcome of validating a bulk payload; only rows with errors are listed, by position.
+ */
+public record BulkValidationResult(int total, int valid, List<Row> invalidRows) {
+
+    public record Row(int index, List<ValidationError> errors) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.clinic.api.validation;
+
+import java.util.regex.Pattern;
+
+/**
+ * Field checks shared by the entity validators. Patterns are compiled once here; the
+ * simple checks scan characters directly and allocate nothing.
+ */
+public final class Checks {
+    // Same rules as the @Pattern constraints on the entities
+    public static final Pattern PATIENT_PHONE = Pattern.compile("^\\+?[0-9\\-\\s()]{10,20}$");
+    public static final Pattern DOCTOR_PHONE =
+            Pattern.compile("^[+]?[(]?[0-9]{3}[)]?[-\\s.]?[0-9]{3}[-\\s.]?[0-9]{4,6}$");
+
+    private Checks() {
+    }
+
+    public static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean longerThan(String value, int max) {
+        return value != null && value.length() > max;
+    }
+
+    public static boolean matches(Pattern pattern, String value) {
+        return value != null && pattern.matcher(value).matches();
+    }
+
+    /**
+     * Structural e-mail check equivalent to what @Email accepts in practice: one '@', a
+     * non-empty local part, and a domain of dot-separated non-empty labels without spaces.
+     */
+    public static boolean isEmail(String value) {
+        if (value == null) {
+            return false;
+        }
+        int at = value.indexOf('@');
+        if (at <= 0 || at != value.lastIndexOf('@') || at == value.length() - 1) {
+            return false;
+        }
+        char previous = '.';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == '(' || c == ')' || c == ',' || c == ';' || c == ':' || c == '<' || c == '>') {
+                return false;
+            }
+            if (i > at) {
+                if (c == '.' && previous == '.') {
+                    return false;
+                }
+                previous = c;
+            }
+        }
+        return previous != '.';
+    }
+}
@@ -0,0 +1,37 @@
+package com.clinic.api.validation;
+
+import com.clinic.api.models.Doctor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class DoctorValidator implements EntityValidator<Doctor> {
+
+    @Override
+    public void validate(Doctor doctor, List<ValidationError> errors) {
+        if (Checks.isBlank(doctor.getName())) {
+            errors.add(new ValidationError("name", "Doctor name is required"));
+        } else if (doctor.getName().length() < 2 || Checks.longerThan(doctor.getName(), 100)) {
+            errors.add(new ValidationError("name", "Name must be between 2 and 100 characters"));
+        }
+        if (doctor.getSpecialization() == null || Checks.isBlank(doctor.getSpecialization().toString())) {
+            errors.add(new ValidationError("specialization", "Specialization is required"));
+        }
+        if (Checks.isBlank(doctor.getEmail())) {
+            errors.add(new ValidationError("email", "Email is required"));
+        } else if (Checks.longerThan(doctor.getEmail(), 100) || !Checks.isEmail(doctor.getEmail())) {
+            errors.add(new ValidationError("email", "Email should be valid"));
+        }
+        if (Checks.isBlank(doctor.getPhone())) {
+            errors.add(new ValidationError("phone", "Phone number is required"));
+        } else if (!Checks.matches(Checks.DOCTOR_PHONE, doctor.getPhone())) {
+            errors.add(new ValidationError("phone", "Invalid phone number format"));
+        }
+        if (Checks.isBlank(doctor.getLicenseNumber())) {
+            errors.add(new ValidationError("licenseNumber", "License number is required"));
+        } else if (Checks.longerThan(doctor.getLicenseNumber(), 50)) {
+            errors.add(new ValidationError("licenseNumber", "License number must be at most 50 characters"));
+        }
+    }
+}
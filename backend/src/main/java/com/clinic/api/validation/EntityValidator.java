@@ -0,0 +1,54 @@
+package com.clinic.api.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validation rules for one entity type, built once and shared. Implementations add every
+ * failed rule to the supplied list so callers get all problems in one round trip.
+ */
+public interface EntityValidator<T> {
+    // Every row of a bulk payload is validated in one request, so the payload is bounded
+    int MAX_BULK_ROWS = 1000;
+
+    void validate(T value, List<ValidationError> errors);
+
+    default List<ValidationError> validate(T value) {
+        List<ValidationError> errors = new ArrayList<>(0);
+        if (value == null) {
+            errors.add(new ValidationError("body", "Request body is required"));
+        } else {
+            validate(value, errors);
+        }
+        return errors;
+    }
+
+    /**
+     * Throws {@link ValidationException} listing every failed rule.
+     */
+    default void check(T value) {
+        List<ValidationError> errors = validate(value);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    /**
+     * Validates each row of a bulk payload independently. Throws {@link ValidationException}
+     * if the payload has more than {@link #MAX_BULK_ROWS} rows.
+     */
+    default BulkValidationResult validateAll(List<T> values) {
+        if (values.size() > MAX_BULK_ROWS) {
+            throw new ValidationException(List.of(new ValidationError("body",
+                    "At most " + MAX_BULK_ROWS + " rows can be validated per request")));
+        }
+        List<BulkValidationResult.Row> invalid = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            List<ValidationError> errors = validate(values.get(i));
+            if (!errors.isEmpty()) {
+                invalid.add(new BulkValidationResult.Row(i, errors));
+            }
+        }
+        return new BulkValidationResult(values.size(), values.size() - invalid.size(), invalid);
+    }
+}
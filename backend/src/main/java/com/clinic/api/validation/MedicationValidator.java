@@ -0,0 +1,33 @@
+package com.clinic.api.validation;
+
+import com.clinic.api.models.Medication;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class MedicationValidator implements EntityValidator<Medication> {
+
+    @Override
+    public void validate(Medication medication, List<ValidationError> errors) {
+        if (Checks.isBlank(medication.getName())) {
+            errors.add(new ValidationError("name", "Medication name is required"));
+        } else if (Checks.longerThan(medication.getName(), 100)) {
+            errors.add(new ValidationError("name", "Name must be less than 100 characters"));
+        }
+        if (Checks.isBlank(medication.getDosage())) {
+            errors.add(new ValidationError("dosage", "Dosage is required"));
+        } else if (Checks.longerThan(medication.getDosage(), 50)) {
+            errors.add(new ValidationError("dosage", "Dosage must be less than 50 characters"));
+        }
+        if (Checks.longerThan(medication.getInstructions(), 500)) {
+            errors.add(new ValidationError("instructions", "Instructions must be less than 500 characters"));
+        }
+        if (medication.getForm() == null) {
+            errors.add(new ValidationError("form", "Form is required"));
+        }
+        if (medication.getCategory() == null) {
+            errors.add(new ValidationError("category", "Category is required"));
+        }
+    }
+}
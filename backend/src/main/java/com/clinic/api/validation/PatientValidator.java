@@ -0,0 +1,49 @@
+package com.clinic.api.validation;
+
+import com.clinic.api.models.Patient;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class PatientValidator implements EntityValidator<Patient> {
+
+    @Override
+    public void validate(Patient patient, List<ValidationError> errors) {
+        if (Checks.isBlank(patient.getFullName())) {
+            errors.add(new ValidationError("fullName", "Full name is required"));
+        } else if (Checks.longerThan(patient.getFullName(), 100)) {
+            errors.add(new ValidationError("fullName", "Name must be less than 100 characters"));
+        }
+        if (Checks.isBlank(patient.getEmail())) {
+            errors.add(new ValidationError("email", "Email is required"));
+        } else if (Checks.longerThan(patient.getEmail(), 100) || !Checks.isEmail(patient.getEmail())) {
+            errors.add(new ValidationError("email", "Email should be valid"));
+        }
+        if (Checks.isBlank(patient.getPhone())) {
+            errors.add(new ValidationError("phone", "Phone number is required"));
+        } else if (!Checks.matches(Checks.PATIENT_PHONE, patient.getPhone())) {
+            errors.add(new ValidationError("phone", "Invalid phone number format"));
+        }
+        if (patient.getDateOfBirth() == null) {
+            errors.add(new ValidationError("dateOfBirth", "Date of birth is required"));
+        } else if (!patient.getDateOfBirth().isBefore(LocalDate.now())) {
+            errors.add(new ValidationError("dateOfBirth", "Date of birth must be in the past"));
+        }
+        if (patient.getAddress() == null) {
+            errors.add(new ValidationError("address", "Address is required"));
+        }
+        if (Checks.isBlank(patient.getEmergencyContact())) {
+            errors.add(new ValidationError("emergencyContact", "Emergency contact is required"));
+        }
+        if (Checks.isBlank(patient.getEmergencyPhone())) {
+            errors.add(new ValidationError("emergencyPhone", "Emergency phone is required"));
+        } else if (!Checks.matches(Checks.PATIENT_PHONE, patient.getEmergencyPhone())) {
+            errors.add(new ValidationError("emergencyPhone", "Invalid phone number format"));
+        }
+        if (Checks.longerThan(patient.getBloodType(), 5)) {
+            errors.add(new ValidationError("bloodType", "Blood type must be at most 5 characters"));
+        }
+    }
+}
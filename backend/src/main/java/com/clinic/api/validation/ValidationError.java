@@ -0,0 +1,7 @@
+package com.clinic.api.validation;
+
+/**
+ * One failed rule: the offending field and a message for the client.
+ */
+public record ValidationError(String field, String message) {
+}
@@ -0,0 +1,27 @@
+package com.clinic.api.validation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when an entity fails validation; carries every failed rule, not just the first.
+ */
+public class ValidationException extends ResponseStatusException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<ValidationError> errors;
+
+    public ValidationException(List<ValidationError> errors) {
+        super(HttpStatus.BAD_REQUEST, errors.stream()
+                .map(error -> error.field() + ": " + error.message())
+                .collect(Collectors.joining("; ")));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,183 @@
+package com.clinic.api.waitlist;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory index of active waitlist entries. Entries are filed under their doctor (or
+ * specialization) and every day their acceptable window touches, each bucket ordered by
+ * urgency, so matching a freed slot only looks at the heads of two small buckets.
+ * Concurrent cancellations never hand the same entry out twice: a match has to win a
+ * CAS on the entry's claim flag. Each clinic has its own index.
+ */
+class WaitlistIndex {
+    static final int MAX_WINDOW_DAYS = 120;
+
+    static final class Candidate {
+        final int entryId;
+        final int patientId;
+        final Integer doctorId;
+        final String specialization;
+        final long windowStart;
+        final long windowEnd;
+        final int priority;
+        final long sequence;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Candidate(int entryId, int patientId, Integer doctorId, String specialization,
+                  LocalDateTime windowStart, LocalDateTime windowEnd, int priority, long sequence) {
+            this.entryId = entryId;
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.specialization = specialization;
+            this.windowStart = epochMinute(windowStart);
+            this.windowEnd = epochMinute(windowEnd);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        boolean accepts(long slotMinute) {
+            return !claimed.get() && slotMinute >= windowStart && slotMinute <= windowEnd;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void release() {
+            claimed.set(false);
+        }
+    }
+
+    private static final Comparator<Candidate> URGENCY = Comparator
+            .comparingInt((Candidate c) -> -c.priority)
+            .thenComparingLong(c -> c.sequence)
+            .thenComparingInt(c -> c.entryId);
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Long, ConcurrentSkipListSet<Candidate>>> buckets =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Candidate> byEntryId = new ConcurrentHashMap<>();
+
+    void add(Candidate candidate) {
+        byEntryId.put(candidate.entryId, candidate);
+        String key = keyOf(candidate);
+        ConcurrentHashMap<Long, ConcurrentSkipListSet<Candidate>> days =
+                buckets.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        for (long day = dayOf(candidate.windowStart); day <= dayOf(candidate.windowEnd); day++) {
+            days.computeIfAbsent(day, d -> new ConcurrentSkipListSet<>(URGENCY)).add(candidate);
+        }
+    }
+
+    Candidate remove(int entryId) {
+        Candidate candidate = byEntryId.remove(entryId);
+        if (candidate == null) {
+            return null;
+        }
+        ConcurrentHashMap<Long, ConcurrentSkipListSet<Candidate>> days = buckets.get(keyOf(candidate));
+        if (days != null) {
+            for (long day = dayOf(candidate.windowStart); day <= dayOf(candidate.windowEnd); day++) {
+                ConcurrentSkipListSet<Candidate> bucket = days.get(day);
+                if (bucket != null) {
+                    bucket.remove(candidate);
+                    if (bucket.isEmpty()) {
+                        days.remove(day, bucket);
+                    }
+                }
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Claims the most urgent entry that accepts the slot, looking at entries for the doctor
+     * and for the doctor's specialization. The caller must either {@link #remove} the claimed
+     * entry once it is booked or {@link Candidate#release} it.
+     */
+    Candidate claimBest(Integer doctorId, String specialization, LocalDateTime slot) {
+        long minute = epochMinute(slot);
+        long day = dayOf(minute);
+        ConcurrentSkipListSet<Candidate> byDoctor = bucket(doctorKey(doctorId), day);
+        ConcurrentSkipListSet<Candidate> bySpecialization =
+                specialization == null ? null : bucket(specializationKey(specialization), day);
+
+        while (true) {
+            Candidate fromDoctor = firstAccepting(byDoctor, minute);
+            Candidate fromSpecialization = firstAccepting(bySpecialization, minute);
+            Candidate best = fromDoctor == null ? fromSpecialization
+                    : fromSpecialization == null ? fromDoctor
+                    : URGENCY.compare(fromDoctor, fromSpecialization) <= 0 ? fromDoctor : fromSpecialization;
+            if (best == null) {
+                return null;
+            }
+            if (best.claim()) {
+                return best;
+            }
+            // Lost the race to a concurrent cancellation; look again
+        }
+    }
+
+    /**
+     * Drops entries whose window ended before the given time; no slot can match them any more.
+     *
+     * @return the number of entries dropped
+     */
+    int evictExpired(LocalDateTime now) {
+        long minute = epochMinute(now);
+        int evicted = 0;
+        for (Candidate candidate : byEntryId.values()) {
+            if (candidate.windowEnd < minute && remove(candidate.entryId) != null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    int size() {
+        return byEntryId.size();
+    }
+
+    private ConcurrentSkipListSet<Candidate> bucket(String key, long day) {
+        ConcurrentHashMap<Long, ConcurrentSkipListSet<Candidate>> days = buckets.get(key);
+        return days == null ? null : days.get(day);
+    }
+
+    private static Candidate firstAccepting(ConcurrentSkipListSet<Candidate> bucket, long minute) {
+        if (bucket == null) {
+            return null;
+        }
+        Iterator<Candidate> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Candidate candidate = iterator.next();
+            if (candidate.accepts(minute)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String keyOf(Candidate candidate) {
+        return candidate.doctorId != null ? doctorKey(candidate.doctorId) : specializationKey(candidate.specialization);
+    }
+
+    private static String doctorKey(Integer doctorId) {
+        return "doctor:" + doctorId;
+    }
+
+    private static String specializationKey(String specialization) {
+        return "specialization:" + specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static long epochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static long dayOf(long epochMinute) {
+        return Math.floorDiv(epochMinute, 24 * 60);
+    }
+}
@@ -0,0 +1,255 @@
+package com.clinic.api.waitlist;
+
+import com.clinic.api.events.AppointmentChangedEvent;
+import com.clinic.api.events.AppointmentChangedEvent.ChangeType;
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.WaitlistEntry;
+import com.clinic.api.models.WaitlistEntry.Status;
+import com.clinic.api.repositories.DoctorRepository;
+import com.clinic.api.repositories.PatientRepository;
+import com.clinic.api.repositories.WaitlistEntryRepository;
+import com.clinic.api.services.AppointmentService;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import com.clinic.api.sharding.ShardingProperties;
+import com.clinic.api.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refills cancelled slots from the waitlist. Entries live in the database and in a
+ * {@link WaitlistIndex}; when a cancellation commits, the best waiting patient for that
+ * doctor, specialization and time is claimed from the index and booked through
+ * {@link AppointmentService}, so the usual time and conflict rules still apply.
+ * <p>
+ * Every clinic has its own index, loaded from its shard and matched on the cancelling
+ * clinic's context. Entries whose window has ended are swept from the indexes periodically.
+ */
+@Service
+@Transactional
+public class WaitlistService {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+    private static final int MAX_BOOKING_ATTEMPTS = 5;
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedQueryExecutor shards;
+    private final ShardingProperties shardingProperties;
+    private final Map<String, WaitlistIndex> indexes = new HashMap<>();
+    private final ExecutorService matcher = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter matches;
+    private final Timer matchLatency;
+
+    @Autowired
+    public WaitlistService(WaitlistEntryRepository waitlistRepository, PatientRepository patientRepository,
+                           DoctorRepository doctorRepository, AppointmentService appointmentService,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           ShardedQueryExecutor shards, ShardingProperties shardingProperties) {
+        this.waitlistRepository = waitlistRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.matches = meterRegistry.counter("clinic.waitlist.matches");
+        this.matchLatency = meterRegistry.timer("clinic.waitlist.match.latency");
+        this.shards = shards;
+        this.shardingProperties = shardingProperties;
+        for (String clinicId : shardingProperties.getShardIds()) {
+            WaitlistIndex index = new WaitlistIndex();
+            indexes.put(clinicId, index);
+            meterRegistry.gauge("clinic.waitlist.active", Tags.of("clinic", clinicId), index, WaitlistIndex::size);
+        }
+    }
+
+    public WaitlistEntry register(WaitlistEntry entry) {
+        validateEntry(entry);
+        entry.setStatus(Status.ACTIVE);
+        WaitlistEntry saved = waitlistRepository.save(entry);
+        WaitlistIndex.Candidate candidate = toCandidate(saved, saved.getPatient().getId(),
+                saved.getDoctor() != null ? saved.getDoctor().getId() : null);
+        WaitlistIndex index = forClinic();
+        AfterCommit.run(() -> index.add(candidate));
+        return saved;
+    }
+
+    public void cancel(Integer id) {
+        WaitlistEntry entry = waitlistRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found with id: " + id));
+        if (entry.getStatus() != Status.ACTIVE) {
+            throw new IllegalStateException("Only active waitlist entries can be cancelled");
+        }
+        entry.setStatus(Status.CANCELLED);
+        waitlistRepository.save(entry);
+        WaitlistIndex index = forClinic();
+        AfterCommit.run(() -> index.remove(id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getEntriesByPatient(Integer patientId) {
+        return waitlistRepository.findByPatientId(patientId);
+    }
+
+    // Each shard is read in its own transaction, which binds it to that shard's data source
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void loadIndex() {
+        shards.forEachShard("Waitlist index load", () -> {
+            WaitlistIndex index = forClinic();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : waitlistRepository.findActiveWithIds(LocalDateTime.now())) {
+                    index.add(toCandidate((WaitlistEntry) row[0], (Integer) row[1], (Integer) row[2]));
+                }
+            });
+            log.info("Loaded {} active waitlist entries for clinic {}", index.size(), ClinicContext.get());
+        });
+    }
+
+    // Expired entries stay ACTIVE in the database; they are only dropped from memory and skipped on load
+    @Scheduled(fixedDelayString = "${clinic.waitlist.evict-interval-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        indexes.forEach((clinicId, index) -> {
+            int evicted = index.evictExpired(now);
+            if (evicted > 0) {
+                log.debug("Evicted {} expired waitlist entries for clinic {}", evicted, clinicId);
+            }
+        });
+    }
+
+    // Runs after the cancel has committed; the matching itself happens on the matcher threads
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.type() == ChangeType.CANCELLED && event.appointmentDate().isAfter(LocalDateTime.now())) {
+            long start = System.nanoTime();
+            // The slot belongs to the clinic whose thread cancelled it
+            matcher.execute(ClinicContext.wrap(() -> {
+                fillSlot(event.doctorId(), event.appointmentDate());
+                matchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }));
+        }
+    }
+
+    void fillSlot(Integer doctorId, LocalDateTime slot) {
+        WaitlistIndex index = forClinic();
+        String specialization = transactionTemplate.execute(status ->
+                doctorRepository.findById(doctorId).map(Doctor::getSpecialization).orElse(null));
+
+        // Candidates that could not be booked stay claimed until we are done, so we never retry them
+        List<WaitlistIndex.Candidate> skipped = new ArrayList<>();
+        try {
+            for (int attempt = 0; attempt < MAX_BOOKING_ATTEMPTS; attempt++) {
+                WaitlistIndex.Candidate candidate = index.claimBest(doctorId, specialization, slot);
+                if (candidate == null) {
+                    return;
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> book(candidate, doctorId, slot));
+                    index.remove(candidate.entryId);
+                    matches.increment();
+                    log.info("Waitlist entry {} booked into freed slot {} with doctor {}",
+                            candidate.entryId, slot, doctorId);
+                    return;
+                } catch (RuntimeException e) {
+                    log.debug("Waitlist entry {} cannot take slot {}: {}", candidate.entryId, slot, e.getMessage());
+                    skipped.add(candidate);
+                }
+            }
+        } finally {
+            skipped.forEach(WaitlistIndex.Candidate::release);
+        }
+    }
+
+    private void book(WaitlistIndex.Candidate candidate, Integer doctorId, LocalDateTime slot) {
+        WaitlistEntry entry = waitlistRepository.findById(candidate.entryId)
+                .filter(e -> e.getStatus() == Status.ACTIVE)
+                .orElseThrow(() -> new IllegalStateException("Waitlist entry is no longer active"));
+
+        Appointment appointment = Appointment.builder()
+                .patient(patientRepository.getReferenceById(candidate.patientId))
+                .doctor(doctorRepository.getReferenceById(doctorId))
+                .appointmentDate(slot)
+                .build();
+        appointmentService.createAppointment(appointment);
+
+        entry.setStatus(Status.MATCHED);
+        entry.setMatchedAppointmentDate(slot);
+        waitlistRepository.save(entry);
+    }
+
+    private void validateEntry(WaitlistEntry entry) {
+        if (entry.getPatient() == null || entry.getPatient().getId() == null) {
+            throw new IllegalArgumentException("Patient is required");
+        }
+        if ((entry.getDoctor() == null || entry.getDoctor().getId() == null) &&
+                (entry.getSpecialization() == null || entry.getSpecialization().isBlank())) {
+            throw new IllegalArgumentException("Either a doctor or a specialization is required");
+        }
+        if (entry.getWindowStart() == null || entry.getWindowEnd() == null ||
+                !entry.getWindowEnd().isAfter(entry.getWindowStart())) {
+            throw new IllegalArgumentException("Window end must be after window start");
+        }
+        if (entry.getWindowEnd().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Window must not be in the past");
+        }
+        if (entry.getWindowStart().plusDays(WaitlistIndex.MAX_WINDOW_DAYS).isBefore(entry.getWindowEnd())) {
+            throw new IllegalArgumentException(
+                    "Window cannot be longer than " + WaitlistIndex.MAX_WINDOW_DAYS + " days");
+        }
+        if (entry.getPriority() == null) {
+            entry.setPriority(0);
+        }
+    }
+
+    private WaitlistIndex forClinic() {
+        String clinicId = shardingProperties.resolve(ClinicContext.get());
+        WaitlistIndex index = indexes.get(clinicId);
+        if (index == null) {
+            throw new IllegalStateException("No waitlist index for clinic " + clinicId);
+        }
+        return index;
+    }
+
+    private static WaitlistIndex.Candidate toCandidate(WaitlistEntry entry, Integer patientId, Integer doctorId) {
+        return new WaitlistIndex.Candidate(entry.getId(), patientId, doctorId, entry.getSpecialization(),
+                entry.getWindowStart(), entry.getWindowEnd(), entry.getPriority(), entry.getId());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        matcher.shutdownNow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.clinic.api.warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the warm-up operations. The synthetic mix uses the defaults; a
+ * recorded mix is a text file with one "OPERATION count" line per operation, e.g. taken
+ * from a production access log, with # comments allowed. Operations missing from the file
+ * are not replayed.
+ */
+public final class WarmupMix {
+    private final int[] cumulative;
+    private final WarmupOperation[] operations;
+
+    private WarmupMix(Map<WarmupOperation, Integer> weights) {
+        operations = weights.keySet().toArray(new WarmupOperation[0]);
+        cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Warm-up mix has no operations");
+        }
+    }
+
+    public static WarmupMix synthetic() {
+        Map<WarmupOperation, Integer> weights = new EnumMap<>(WarmupOperation.class);
+        for (WarmupOperation operation : WarmupOperation.values()) {
+            weights.put(operation, operation.getDefaultWeight());
+        }
+        return new WarmupMix(weights);
+    }
+
+    public static WarmupMix recorded(Path file) throws IOException {
+        Map<WarmupOperation, Integer> weights = new EnumMap<>(WarmupOperation.class);
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected 'OPERATION count' but got: " + line);
+            }
+            int count = Integer.parseInt(parts[1]);
+            if (count > 0) {
+                weights.merge(WarmupOperation.valueOf(parts[0]), count, Integer::sum);
+            }
+        }
+        return new WarmupMix(weights);
+    }
+
+    public WarmupOperation next(Random random) {
+        int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (pick < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinic.api.warmup;
+
+/**
+ * Representative calls replayed during warm-up, with their default share of the synthetic
+ * mix. Every operation is a read or a dry run; none of them writes.
+ */
+public enum WarmupOperation {
+    PATIENT_BY_ID(15),
+    PATIENT_SUMMARY(10),
+    PATIENT_TIMELINE(10),
+    PATIENT_PAGE(5),
+    PATIENT_SEARCH(10),
+    DOCTOR_LIST(5),
+    DOCTOR_BY_ID(5),
+    DOCTOR_SEARCH(5),
+    DOCTOR_AVAILABILITY(10),
+    UPCOMING_APPOINTMENTS(5),
+    BOOKING_VALIDATION(10),
+    MEDICATION_CATALOG(5),
+    MEDICATION_PAGE(5);
+
+    private final int defaultWeight;
+
+    WarmupOperation(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
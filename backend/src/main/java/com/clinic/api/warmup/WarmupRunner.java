@@ -0,0 +1,333 @@
+package com.clinic.api.warmup;
+
+import com.clinic.api.models.Appointment;
+import com.clinic.api.models.Doctor;
+import com.clinic.api.models.Patient;
+import com.clinic.api.paging.TotalMode;
+import com.clinic.api.services.AppointmentService;
+import com.clinic.api.services.DoctorService;
+import com.clinic.api.services.MedicationService;
+import com.clinic.api.services.PatientService;
+import com.clinic.api.services.PatientTimelineService;
+import com.clinic.api.sharding.ClinicContext;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a mix of representative service calls against the live database before the
+ * instance reports ready. Spring Boot only switches readiness to ACCEPTING_TRAFFIC after the
+ * application runners return, so the readiness probe stays red until warm-up is done.
+ * <p>
+ * The calls go through the real services, which compiles the hot paths, fills Hibernate's
+ * query plan cache and the driver's statement cache, builds the Jackson serializers and
+ * pre-populates the snapshot store, count cache and last-known-good reads. Each call runs in
+ * a read-only transaction that is rolled back, and booking uses the dry-run validation, so
+ * nothing is written. Every configured clinic shard is warmed in turn with its own samples,
+ * since each has its own connection pool and caches; the time budget is shared out evenly
+ * over the shards. Calls run in rounds; the p99 of the very first and the very last round is
+ * published to show how far the tail came down.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "clinic.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final int SAMPLE_SIZE = 200;
+
+    private record Samples(int[] patientIds, int[] doctorIds, String[] names) {
+    }
+
+    private final PatientService patientService;
+    private final PatientTimelineService timelineService;
+    private final DoctorService doctorService;
+    private final AppointmentService appointmentService;
+    private final MedicationService medicationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ShardedQueryExecutor shards;
+    private final TransactionTemplate readOnlyRollback;
+
+    private final String recording;
+    private final int iterations;
+    private final int rounds;
+    private final int threads;
+    private final long maxDurationMillis;
+    private final long seed;
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final AtomicLong durationNanos = new AtomicLong();
+    private final AtomicLong firstRoundP99Nanos = new AtomicLong();
+    private final AtomicLong lastRoundP99Nanos = new AtomicLong();
+
+    public WarmupRunner(PatientService patientService, PatientTimelineService timelineService,
+                        DoctorService doctorService, AppointmentService appointmentService,
+                        MedicationService medicationService, JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper, ShardedQueryExecutor shards,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                        @Value("${clinic.warmup.recording:}") String recording,
+                        @Value("${clinic.warmup.iterations:2000}") int iterations,
+                        @Value("${clinic.warmup.rounds:10}") int rounds,
+                        @Value("${clinic.warmup.threads:4}") int threads,
+                        @Value("${clinic.warmup.max-duration-ms:60000}") long maxDurationMillis,
+                        @Value("${clinic.warmup.seed:42}") long seed) {
+        this.patientService = patientService;
+        this.timelineService = timelineService;
+        this.doctorService = doctorService;
+        this.appointmentService = appointmentService;
+        this.medicationService = medicationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.shards = shards;
+        this.readOnlyRollback = new TransactionTemplate(transactionManager);
+        this.readOnlyRollback.setReadOnly(true);
+        this.recording = recording;
+        this.iterations = iterations;
+        this.rounds = Math.max(1, rounds);
+        this.threads = Math.max(1, threads);
+        this.maxDurationMillis = maxDurationMillis;
+        this.seed = seed;
+
+        this.succeeded = meterRegistry.counter("clinic.warmup.calls", "result", "ok");
+        this.failed = meterRegistry.counter("clinic.warmup.calls", "result", "error");
+        TimeGauge.builder("clinic.warmup.duration", durationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .register(meterRegistry);
+        TimeGauge.builder("clinic.warmup.latency.p99", firstRoundP99Nanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .tag("round", "first")
+                .register(meterRegistry);
+        TimeGauge.builder("clinic.warmup.latency.p99", lastRoundP99Nanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .tag("round", "last")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+        WarmupMix mix = recording.isBlank() ? WarmupMix.synthetic() : WarmupMix.recorded(Path.of(recording));
+        List<String> shardIds = shards.getShardIds();
+
+        int perRound = Math.max(threads, iterations / rounds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int completedRounds = 0;
+        try {
+            for (int shard = 0; shard < shardIds.size(); shard++) {
+                long now = System.nanoTime();
+                long shardDeadline = now + (deadline - now) / (shardIds.size() - shard);
+                boolean first = completedRounds == 0;
+                completedRounds += ClinicContext.callIn(shardIds.get(shard),
+                        () -> warmUpShard(executor, mix, perRound, shardDeadline, first));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        durationNanos.set(System.nanoTime() - started);
+        log.info("Warm-up ran {} rounds of {} calls over {} clinics in {} ms ({} failed); p99 went from {} ms to {} ms",
+                completedRounds, perRound, shardIds.size(), TimeUnit.NANOSECONDS.toMillis(durationNanos.get()),
+                (long) failed.count(), firstRoundP99Nanos.get() / 1_000_000.0, lastRoundP99Nanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Warms the clinic bound to the calling thread. Returns the number of rounds completed.
+     */
+    private int warmUpShard(ExecutorService executor, WarmupMix mix, int perRound, long deadline,
+                            boolean firstShard) throws Exception {
+        Samples samples;
+        try {
+            samples = loadSamples();
+        } catch (DataAccessException e) {
+            // A cold instance is still better than one that never starts
+            log.warn("Skipping warm-up of clinic {}: could not sample the database", ClinicContext.get(), e);
+            return 0;
+        }
+
+        int completedRounds = 0;
+        for (int round = 0; round < rounds && System.nanoTime() < deadline; round++) {
+            long p99 = runRound(executor, mix, samples, round, perRound, deadline);
+            if (firstShard && round == 0) {
+                firstRoundP99Nanos.set(p99);
+            }
+            lastRoundP99Nanos.set(p99);
+            completedRounds++;
+        }
+        return completedRounds;
+    }
+
+    private long runRound(ExecutorService executor, WarmupMix mix, Samples samples, int round, int calls,
+                          long deadline) throws Exception {
+        long[] latencies = new long[calls];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int worker = 0; worker < threads; worker++) {
+            // Seeded per round and worker so the replayed sequence is reproducible
+            Random random = new Random(seed + (long) round * threads + worker);
+            workers.add(executor.submit(ClinicContext.wrap(() -> {
+                int index;
+                while (System.nanoTime() < deadline && (index = next.getAndIncrement()) < calls) {
+                    WarmupOperation operation = mix.next(random);
+                    long callStarted = System.nanoTime();
+                    try {
+                        call(operation, samples, random);
+                        succeeded.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                        log.debug("Warm-up call {} failed", operation, e);
+                    }
+                    latencies[index] = System.nanoTime() - callStarted;
+                }
+            })));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        int recorded = Math.min(calls, next.get());
+        if (recorded == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, recorded);
+        Arrays.sort(sorted);
+        return sorted[Math.min(recorded - 1, (int) Math.ceil(recorded * 0.99) - 1)];
+    }
+
+    private void call(WarmupOperation operation, Samples samples, Random random) {
+        readOnlyRollback.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            serialize(invoke(operation, samples, random));
+        });
+    }
+
+    private Object invoke(WarmupOperation operation, Samples samples, Random random) {
+        Integer patientId = pick(samples.patientIds(), random);
+        Integer doctorId = pick(samples.doctorIds(), random);
+        switch (operation) {
+            case PATIENT_BY_ID:
+                return patientId == null ? null : patientService.getPatientById(patientId).orElse(null);
+            case PATIENT_SUMMARY:
+                return patientId == null ? null : patientService.getPatientSummary(patientId).orElse(null);
+            case PATIENT_TIMELINE:
+                return patientId == null ? null : timelineService.getTimeline(patientId, 0, 20).orElse(null);
+            case PATIENT_PAGE:
+                return patientService.getPatientSlice(random.nextInt(5), 20, TotalMode.APPROX);
+            case PATIENT_SEARCH:
+                String name = samples.names().length == 0 ? "a" : samples.names()[random.nextInt(samples.names().length)];
+                return patientService.searchPatients(name, null, null, null);
+            case DOCTOR_LIST:
+                return doctorService.getActiveDoctors();
+            case DOCTOR_BY_ID:
+                return doctorId == null ? null : doctorService.getDoctorById(doctorId).orElse(null);
+            case DOCTOR_SEARCH:
+                return doctorService.searchDoctors(null, null, true);
+            case DOCTOR_AVAILABILITY:
+                if (doctorId == null) {
+                    return null;
+                }
+                LocalDateTime day = LocalDate.now().plusDays(random.nextInt(14)).atStartOfDay();
+                return appointmentService.getAppointmentsByDoctorAndDateRange(doctorId, day.plusHours(8), day.plusHours(18));
+            case UPCOMING_APPOINTMENTS:
+                return appointmentService.getUpcomingAppointments();
+            case BOOKING_VALIDATION:
+                if (patientId == null || doctorId == null) {
+                    return null;
+                }
+                return validateBooking(patientId, doctorId, random);
+            case MEDICATION_CATALOG:
+                return medicationService.getActiveMedications();
+            case MEDICATION_PAGE:
+                return medicationService.getMedicationSlice(random.nextInt(5), 20, TotalMode.APPROX);
+            default:
+                throw new IllegalArgumentException("Unknown warm-up operation " + operation);
+        }
+    }
+
+    private Object validateBooking(int patientId, int doctorId, Random random) {
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(30));
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.plusDays(1);
+        }
+        Appointment booking = Appointment.builder()
+                .patient(Patient.builder().id(patientId).build())
+                .doctor(Doctor.builder().id(doctorId).build())
+                .appointmentDate(date.atTime(8 + random.nextInt(9), random.nextBoolean() ? 0 : 30))
+                .build();
+        try {
+            appointmentService.validateBooking(booking);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // A rejected slot exercises the same code path as an accepted one
+        }
+        return null;
+    }
+
+    private void serialize(Object result) {
+        if (result == null) {
+            return;
+        }
+        try {
+            objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize warm-up result", e);
+        }
+    }
+
+    private Samples loadSamples() {
+        List<Integer> patientIds = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, full_name FROM patients WHERE is_active = TRUE ORDER BY id DESC LIMIT ?",
+                (ResultSet rs) -> {
+                    patientIds.add(rs.getInt(1));
+                    String fullName = rs.getString(2);
+                    if (fullName != null && !fullName.isBlank()) {
+                        names.add(fullName.strip().split("\\s+")[0]);
+                    }
+                }, SAMPLE_SIZE);
+        List<Integer> doctorIds = jdbcTemplate.queryForList(
+                "SELECT id FROM doctors ORDER BY id LIMIT ?", Integer.class, SAMPLE_SIZE);
+        if (patientIds.isEmpty() || doctorIds.isEmpty()) {
+            log.info("Warm-up found no patients or doctors; only catalog and listing calls will be replayed");
+        }
+        return new Samples(patientIds.stream().mapToInt(Integer::intValue).toArray(),
+                doctorIds.stream().mapToInt(Integer::intValue).toArray(),
+                names.toArray(new String[0]));
+    }
+
+    private static Integer pick(int[] ids, Random random) {
+        return ids.length == 0 ? null : ids[random.nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,58 @@
+package com.clinic.api.admission;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    @Test
+    void aNewBucketStartsFullWhateverTheClockOrigin() {
+        long now = Long.MIN_VALUE / 2;
+        TokenBucket bucket = new TokenBucket(1, 3, now);
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isPositive();
+    }
+
+    @Test
+    void anExhaustedSearchBucketLeavesOtherEndpointGroupsAlone() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(true, 10, 20, 20, 40, 0.001, 2, 20, 4, 200);
+        FilterChain chain = (request, response) -> { };
+
+        assertThat(status(filter, chain, "/api/patients/search")).isEqualTo(200);
+        assertThat(status(filter, chain, "/api/patients/search")).isEqualTo(200);
+        assertThat(status(filter, chain, "/api/patients/search")).isEqualTo(429);
+        assertThat(status(filter, chain, "/api/doctors/search")).isEqualTo(200);
+        assertThat(status(filter, chain, "/api/patients/7")).isEqualTo(200);
+    }
+
+    @Test
+    void trackedBucketsStayCappedWhileEveryClientIsActive() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(true, 10, 20, 20, 40, 5, 10, 20, 4, 200);
+        FilterChain chain = (request, response) -> { };
+
+        for (int i = 0; i < 60_000; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/doctors/1");
+            request.setRemoteAddr("10." + (i >> 16) + '.' + ((i >> 8) & 0xff) + '.' + (i & 0xff));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, chain);
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+
+        assertThat(filter.getTrackedBuckets()).isLessThanOrEqualTo(50_000);
+    }
+
+    private static int status(AdmissionControlFilter filter, FilterChain chain, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response.getStatus();
+    }
+}
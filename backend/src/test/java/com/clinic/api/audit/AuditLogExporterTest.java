@@ -0,0 +1,70 @@
+package com.clinic.api.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogExporterTest {
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compactionExportsAndRemovesOnlySealedSegmentsBeforeTheCutOff() throws IOException {
+        writeSegment(1, record(T0, "1"), record(T0.plusSeconds(10), "2"));
+        writeSegment(2, record(T0.plusSeconds(3600), "3"));
+        writeSegment(3, record(T0.plusSeconds(20), "4"));
+        Path output = directory.resolve("archive.jsonl");
+
+        long exported = AuditLogExporter.compact(directory, output, T0.plusSeconds(60));
+
+        assertThat(exported).isEqualTo(2);
+        assertThat(entityIds(output)).containsExactly("1", "2");
+        // Segment 2 is too new; segment 3 is the one the writer appends to
+        assertThat(AuditLogReader.listSegments(directory)).extracting(AuditLogReader::sequenceOf)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void repeatedCompactionsAppendToTheArchive() throws IOException {
+        Path output = directory.resolve("archive.jsonl");
+        writeSegment(1, record(T0, "1"));
+        writeSegment(2, record(T0.plusSeconds(3600), "2"));
+        AuditLogExporter.compact(directory, output, T0.plusSeconds(60));
+
+        writeSegment(3, record(T0.plusSeconds(7200), "3"));
+        AuditLogExporter.compact(directory, output, T0.plusSeconds(86_400));
+
+        assertThat(entityIds(output)).containsExactly("1", "2");
+        assertThat(AuditLogReader.listSegments(directory)).extracting(AuditLogReader::sequenceOf)
+                .containsExactly(3L);
+    }
+
+    private void writeSegment(long sequence, AuditRecord... records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (AuditRecord record : records) {
+            bytes.write(record.encode());
+        }
+        Files.write(directory.resolve(AuditLogReader.segmentName(sequence)), bytes.toByteArray());
+    }
+
+    private static AuditRecord record(Instant at, String entityId) {
+        return new AuditRecord(at.toEpochMilli(), AuditRecord.Action.UPDATE, "Patient", entityId, null);
+    }
+
+    private static List<String> entityIds(Path output) throws IOException {
+        return Files.readAllLines(output, StandardCharsets.UTF_8).stream()
+                .map(line -> line.replaceAll(".*\"entityId\":\"([^\"]*)\".*", "$1"))
+                .toList();
+    }
+}
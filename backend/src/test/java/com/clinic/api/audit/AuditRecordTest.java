@@ -0,0 +1,46 @@
+package com.clinic.api.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditRecordTest {
+
+    @Test
+    void roundTripsIdsLongerThanASignedShort() {
+        AuditRecord record = new AuditRecord(1_000L, AuditRecord.Action.UPDATE, "Patient",
+                "x".repeat(40_000), "{\"status\":[\"A\",\"B\"]}");
+
+        assertThat(decode(record.encode())).isEqualTo(record);
+    }
+
+    @Test
+    void rejectsStringsThatDoNotFitTheLengthPrefix() {
+        AuditRecord record = new AuditRecord(1_000L, AuditRecord.Action.INSERT, "Patient",
+                "x".repeat(AuditRecord.MAX_SHORT_STRING_BYTES + 1), null);
+
+        assertThatThrownBy(record::encode)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("entity id");
+    }
+
+    @Test
+    void countsBytesNotCharacters() {
+        // Three UTF-8 bytes per character
+        AuditRecord record = new AuditRecord(1_000L, AuditRecord.Action.INSERT,
+                "\u20AC".repeat(AuditRecord.MAX_SHORT_STRING_BYTES / 3 + 1), "1", null);
+
+        assertThatThrownBy(record::encode)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("entity type");
+    }
+
+    private static AuditRecord decode(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        assertThat(buffer.getInt()).isEqualTo(frame.length - AuditRecord.FRAME_HEADER);
+        return AuditRecord.decode(buffer);
+    }
+}
@@ -0,0 +1,101 @@
+package com.clinic.api.batch;
+
+import com.clinic.api.audit.AuditLogWriter;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.models.BatchCheckpoint;
+import com.clinic.api.repositories.AppointmentRepository;
+import com.clinic.api.repositories.BatchCheckpointRepository;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentStatusTransitionJobTest {
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    private AppointmentRepository appointments;
+    private BatchCheckpointRepository checkpoints;
+    private ApplicationEventPublisher events;
+    private AppointmentStatusTransitionJob job;
+
+    @BeforeEach
+    void setUp() {
+        appointments = mock(AppointmentRepository.class);
+        checkpoints = mock(BatchCheckpointRepository.class);
+        events = mock(ApplicationEventPublisher.class);
+        job = new AppointmentStatusTransitionJob(appointments, checkpoints, mock(PlatformTransactionManager.class),
+                events, mock(AuditLogWriter.class), mock(ShardedQueryExecutor.class), Status.NO_SHOW, 24, 2, 1);
+    }
+
+    @Test
+    void resumeSkipsCommittedChunksAndCompletedPartitions() {
+        BatchCheckpoint done = checkpoint("doctor:1", 500, 500, BatchCheckpoint.State.COMPLETED);
+        BatchCheckpoint interrupted = checkpoint("doctor:2", 100, 300, BatchCheckpoint.State.IN_PROGRESS);
+        when(checkpoints.existsByJobNameAndState(AppointmentStatusTransitionJob.JOB_NAME,
+                BatchCheckpoint.State.IN_PROGRESS)).thenReturn(true);
+        when(checkpoints.findByJobName(AppointmentStatusTransitionJob.JOB_NAME)).thenReturn(List.of(done, interrupted));
+        when(appointments.findPendingIdsByDoctor(eq(2), eq(100), eq(300), any(), eq(CUTOFF), any()))
+                .thenReturn(List.of(150, 160));
+        when(appointments.findPendingIdsByDoctor(eq(2), eq(160), eq(300), any(), eq(CUTOFF), any()))
+                .thenReturn(List.of(170));
+        when(appointments.transitionStatusInRange(eq(2), eq(101), eq(160), any(), eq(CUTOFF), eq(Status.NO_SHOW), any()))
+                .thenReturn(2);
+        when(appointments.transitionStatusInRange(eq(2), eq(161), eq(300), any(), eq(CUTOFF), eq(Status.NO_SHOW), any()))
+                .thenReturn(1);
+
+        assertThat(job.run()).isEqualTo(3);
+
+        verify(appointments, never()).findPendingIdRangesByDoctor(any(), any());
+        verify(appointments, never()).transitionStatusInRange(eq(1), anyInt(), anyInt(), any(), any(), any(), any());
+        verify(appointments, never()).transitionStatusInRange(eq(2), eq(1), anyInt(), any(), any(), any(), any());
+        assertThat(interrupted.getLastProcessedId()).isEqualTo(300);
+        assertThat(interrupted.isCompleted()).isTrue();
+        verify(checkpoints).deleteByJobName(AppointmentStatusTransitionJob.JOB_NAME);
+        verify(events).publishEvent(new AppointmentStatusBatchCompletedEvent(null, Set.of(2), 3));
+    }
+
+    @Test
+    void completionEventFiresForCommittedChunksWhenARunFails() {
+        when(appointments.findPendingIdRangesByDoctor(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{7, 10, 40}));
+        when(checkpoints.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(appointments.findPendingIdsByDoctor(eq(7), eq(9), eq(40), any(), any(), any()))
+                .thenReturn(List.of(10, 12));
+        when(appointments.findPendingIdsByDoctor(eq(7), eq(12), eq(40), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection lost"));
+        when(appointments.transitionStatusInRange(eq(7), eq(10), eq(12), any(), any(), any(), any()))
+                .thenReturn(2);
+
+        assertThat(job.run()).isEqualTo(2);
+
+        // Only planning cleared old checkpoints; the committed one stays for the next run to resume from
+        verify(checkpoints).deleteByJobName(AppointmentStatusTransitionJob.JOB_NAME);
+        verify(events).publishEvent(new AppointmentStatusBatchCompletedEvent(null, Set.of(7), 2));
+    }
+
+    private static BatchCheckpoint checkpoint(String partitionKey, int lastProcessedId, int upperId,
+                                              BatchCheckpoint.State state) {
+        return BatchCheckpoint.builder()
+                .jobName(AppointmentStatusTransitionJob.JOB_NAME)
+                .partitionKey(partitionKey)
+                .lastProcessedId(lastProcessedId)
+                .upperId(upperId)
+                .cutoff(CUTOFF)
+                .state(state)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.clinic.api.cluster;
+
+import com.clinic.api.sharding.ClinicContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBusTest {
+    private record Received(String clinicId, CachedEntity entity, int id, long version) {
+    }
+
+    private final List<InvalidationBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ClinicContext.clear();
+        for (InvalidationBus bus : buses) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void deliversInvalidationsWithTheirClinicToPeers() throws Exception {
+        int senderPort = freePort();
+        int receiverPort = freePort();
+        InvalidationBus sender = bus(senderPort, receiverPort, "s3cret");
+        InvalidationBus receiver = bus(receiverPort, senderPort, "s3cret");
+        BlockingQueue<Received> delivered = listen(receiver);
+
+        ClinicContext.set("north");
+        sender.publish(CachedEntity.MEDICATION, 42, () -> 3L);
+        sender.flush();
+
+        assertThat(delivered.poll(5, TimeUnit.SECONDS))
+                .isEqualTo(new Received("north", CachedEntity.MEDICATION, 42, 3L));
+        assertThat(receiver.isStale("north", CachedEntity.MEDICATION, 42, 2L)).isTrue();
+        assertThat(receiver.isStale("north", CachedEntity.MEDICATION, 42, 3L)).isFalse();
+        assertThat(receiver.isStale("main", CachedEntity.MEDICATION, 42, 2L)).isFalse();
+    }
+
+    @Test
+    void ignoresVersionsOlderThanOneAlreadySeen() throws Exception {
+        int senderPort = freePort();
+        int receiverPort = freePort();
+        InvalidationBus sender = bus(senderPort, receiverPort, "s3cret");
+        InvalidationBus receiver = bus(receiverPort, senderPort, "s3cret");
+        BlockingQueue<Received> delivered = listen(receiver);
+
+        ClinicContext.set("main");
+        sender.publish(CachedEntity.PATIENT, 7, () -> 5L);
+        sender.flush();
+        assertThat(delivered.poll(5, TimeUnit.SECONDS)).isNotNull();
+
+        // A second sender has not seen version 5, so the older datagram does go out
+        InvalidationBus late = bus(freePort(), receiverPort, "s3cret");
+        late.publish(CachedEntity.PATIENT, 7, () -> 4L);
+        late.flush();
+
+        assertThat(delivered.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(receiver.isStale("main", CachedEntity.PATIENT, 7, 4L)).isTrue();
+    }
+
+    @Test
+    void dropsDatagramsSignedWithAnotherSecret() throws Exception {
+        int senderPort = freePort();
+        int receiverPort = freePort();
+        InvalidationBus sender = bus(senderPort, receiverPort, "wrong");
+        InvalidationBus receiver = bus(receiverPort, senderPort, "s3cret");
+        BlockingQueue<Received> delivered = listen(receiver);
+
+        ClinicContext.set("main");
+        sender.publish(CachedEntity.DOCTOR, 1, () -> 9L);
+        sender.flush();
+
+        assertThat(delivered.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(receiver.isStale("main", CachedEntity.DOCTOR, 1, 0L)).isFalse();
+    }
+
+    private InvalidationBus bus(int port, int peerPort, String secret) throws Exception {
+        InvalidationBus bus = new InvalidationBus(new SimpleMeterRegistry(), true, "127.0.0.1", port,
+                List.of("127.0.0.1:" + peerPort), secret, 60_000);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static BlockingQueue<Received> listen(InvalidationBus bus) {
+        BlockingQueue<Received> delivered = new LinkedBlockingQueue<>();
+        bus.addListener((clinicId, entity, id, version) -> delivered.add(new Received(clinicId, entity, id, version)));
+        return delivered;
+    }
+
+    private static int freePort() throws Exception {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.clinic.api.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    @Test
+    void sameSeedGivesTheSameRowsWhateverTheThreadCount() throws Exception {
+        JdbcTemplate single = generate(1);
+        JdbcTemplate parallel = generate(4);
+
+        for (String query : List.of(
+                "SELECT id, name, specialization, email, phone, gender, license_number FROM doctors ORDER BY id",
+                "SELECT id, name, dosage, instructions, form, is_active, category_id FROM medications ORDER BY id",
+                "SELECT id, full_name, email, phone, date_of_birth, city, gender, is_active, blood_type FROM patients ORDER BY id",
+                "SELECT patient_id, doctor_id, appointment_date, status FROM appointments "
+                        + "ORDER BY patient_id, appointment_date")) {
+            List<Map<String, Object>> expected = single.queryForList(query);
+            assertThat(expected).isNotEmpty();
+            assertThat(parallel.queryForList(query)).as(query).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void doctorsAreNeverBookedWithin30Minutes() throws Exception {
+        // Few doctors and a steep skew, so the busiest doctors run out of free slots
+        JdbcTemplate jdbcTemplate = generate(4, 3, 2.0);
+
+        List<Map<String, Object>> appointments = jdbcTemplate.queryForList(
+                "SELECT doctor_id, appointment_date FROM appointments ORDER BY doctor_id, appointment_date");
+        assertThat(appointments).isNotEmpty();
+        for (int i = 1; i < appointments.size(); i++) {
+            Map<String, Object> previous = appointments.get(i - 1);
+            Map<String, Object> current = appointments.get(i);
+            if (previous.get("doctor_id").equals(current.get("doctor_id"))) {
+                Duration gap = Duration.between(toLocalDateTime(previous.get("appointment_date")),
+                        toLocalDateTime(current.get("appointment_date")));
+                assertThat(gap).as("doctor %s at %s", current.get("doctor_id"), current.get("appointment_date"))
+                        .isGreaterThan(Duration.ofMinutes(30));
+            }
+        }
+    }
+
+    private static JdbcTemplate generate(int threads) throws Exception {
+        return generate(threads, 6, 0.8);
+    }
+
+    private static JdbcTemplate generate(int threads, long doctors, double doctorSkew) throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:datagen-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        createSchema(jdbcTemplate);
+        new DatasetGenerator(jdbcTemplate, new DataSourceTransactionManager(dataSource), 7, "",
+                400, doctors, 20, 4, AppointmentDistribution.GEOMETRIC, 40, doctorSkew, 2, 14, 0.05,
+                threads, 64, 50, "medication_categories").run(null);
+        return jdbcTemplate;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE doctors (id BIGINT PRIMARY KEY, name VARCHAR(100), "
+                + "specialization VARCHAR(50), email VARCHAR(100), phone VARCHAR(20), gender VARCHAR(10), "
+                + "license_number VARCHAR(30), clinic_id VARCHAR(20), created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE medication_categories (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO medication_categories VALUES (1), (2), (3)");
+        jdbcTemplate.execute("CREATE TABLE medications (id BIGINT PRIMARY KEY, name VARCHAR(100), "
+                + "dosage VARCHAR(20), instructions VARCHAR(255), form VARCHAR(20), is_active BOOLEAN, "
+                + "category_id BIGINT, created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE patients (id BIGINT PRIMARY KEY, full_name VARCHAR(100), "
+                + "email VARCHAR(100), phone VARCHAR(20), date_of_birth DATE, street VARCHAR(100), "
+                + "city VARCHAR(50), state VARCHAR(50), postal_code VARCHAR(10), country VARCHAR(50), "
+                + "gender VARCHAR(20), is_active BOOLEAN, emergency_contact VARCHAR(100), "
+                + "emergency_phone VARCHAR(20), blood_type VARCHAR(5), clinic_id VARCHAR(20), "
+                + "created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE appointments (id BIGINT AUTO_INCREMENT PRIMARY KEY, patient_id BIGINT, "
+                + "doctor_id BIGINT, appointment_date TIMESTAMP, status VARCHAR(20), clinic_id VARCHAR(20), "
+                + "created_at TIMESTAMP, updated_at TIMESTAMP)");
+    }
+}
@@ -0,0 +1,115 @@
+package com.clinic.api.idempotency;
+
+import com.clinic.api.repositories.IdempotencyRecordRepository;
+import com.clinic.api.security.TokenPrincipal;
+import com.clinic.api.sharding.ShardedQueryExecutor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyFilterTest {
+    private static final String BODY = "{\"patientId\":1,\"doctorId\":2}";
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyFilter filter;
+    private final AtomicInteger calls = new AtomicInteger();
+    private int status = 201;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.complete(anyString(), anyString(), anyInt(), any(), any(), any())).thenReturn(1);
+        IdempotencyStore store = new IdempotencyStore(repository, mock(ShardedQueryExecutor.class), 100, 60_000, 60_000);
+        filter = new IdempotencyFilter(store, List.of("/api/appointments"), 1_000);
+        TokenPrincipal principal = new TokenPrincipal("staff@clinic.test", 7, null);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, AuthorityUtils.createAuthorityList("ROLE_STAFF")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retriesAreAnsweredWithTheStoredResponse() throws Exception {
+        MockHttpServletResponse first = post("key-1", BODY);
+        MockHttpServletResponse retry = post("key-1", BODY);
+
+        assertThat(calls).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo(BODY);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void reusingAKeyWithAnotherBodyIsRejected() throws Exception {
+        post("key-1", BODY);
+        MockHttpServletResponse retry = post("key-1", "{\"patientId\":9}");
+
+        assertThat(calls).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void transientRefusalsAreNotReplayed() throws Exception {
+        status = 429;
+        post("key-1", BODY);
+        status = 201;
+        MockHttpServletResponse retry = post("key-1", BODY);
+
+        assertThat(calls).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        verify(repository).release(anyString(), anyString());
+    }
+
+    @Test
+    void keysHeldByAnotherInstanceAreRetriedLater() throws Exception {
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        MockHttpServletResponse response = post("key-1", BODY);
+
+        assertThat(calls).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    private MockHttpServletResponse post(String key, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+        request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            calls.incrementAndGet();
+            // Echo the body, which proves the controller still sees it after hashing
+            byte[] echoed = req.getInputStream().readAllBytes();
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getOutputStream().write(echoed);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
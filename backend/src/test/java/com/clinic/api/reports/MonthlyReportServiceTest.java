@@ -0,0 +1,129 @@
+package com.clinic.api.reports;
+
+import com.clinic.api.dto.MonthlyReport;
+import com.clinic.api.dto.MonthlyReport.DoctorLine;
+import com.clinic.api.dto.MonthlyReport.MedicationLine;
+import com.clinic.api.models.Appointment.Status;
+import com.clinic.api.models.Patient.Gender;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyReportServiceTest {
+    private static final YearMonth MONTH = YearMonth.of(2026, 3);
+
+    @Test
+    void forkJoinTotalsMatchASequentialCount() {
+        JdbcTemplate jdbcTemplate = fixture();
+        MonthlyReportService parallel = new MonthlyReportService(jdbcTemplate, 4, 1, 100, 10);
+        MonthlyReportService singlePartition = new MonthlyReportService(jdbcTemplate, 1, 31, 100, 10);
+        try {
+            MonthlyReport report = parallel.generate(MONTH);
+            MonthlyReport sequential = singlePartition.generate(MONTH);
+            sequential.setGeneratedAt(report.getGeneratedAt());
+            assertThat(report).isEqualTo(sequential);
+
+            Object[] range = {Timestamp.valueOf(MONTH.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(MONTH.plusMonths(1).atDay(1).atStartOfDay())};
+            assertThat(report.getTotalAppointments()).isEqualTo(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM appointments WHERE appointment_date >= ? AND appointment_date < ?",
+                    Long.class, range));
+            assertThat(report.getDistinctPatients()).isEqualTo(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(DISTINCT patient_id) FROM appointments "
+                            + "WHERE appointment_date >= ? AND appointment_date < ?", Long.class, range));
+
+            Map<String, Long> byStatus = new HashMap<>();
+            for (Status status : Status.values()) {
+                byStatus.put(status.name(), 0L);
+            }
+            jdbcTemplate.query("SELECT status, COUNT(*) FROM appointments "
+                    + "WHERE appointment_date >= ? AND appointment_date < ? GROUP BY status",
+                    rs -> { byStatus.put(rs.getString(1), rs.getLong(2)); }, range);
+            assertThat(report.getAppointmentsByStatus()).isEqualTo(byStatus);
+
+            Map<Integer, List<Long>> byDoctor = new HashMap<>();
+            jdbcTemplate.query("SELECT doctor_id, COUNT(*), SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) "
+                    + "FROM appointments WHERE appointment_date >= ? AND appointment_date < ? GROUP BY doctor_id",
+                    rs -> { byDoctor.put(rs.getInt(1), List.of(rs.getLong(2), rs.getLong(3))); }, range);
+            Map<Integer, List<Long>> reportedByDoctor = new HashMap<>();
+            for (DoctorLine line : report.getAppointmentsByDoctor()) {
+                reportedByDoctor.put(line.getDoctorId(), List.of(line.getAppointments(), line.getCompleted()));
+            }
+            assertThat(reportedByDoctor).isEqualTo(byDoctor);
+
+            Map<Integer, Long> byMedication = new HashMap<>();
+            jdbcTemplate.query("SELECT pi.medication_id, COUNT(*) FROM prescription_items pi "
+                    + "JOIN prescriptions pr ON pi.prescription_id = pr.id "
+                    + "WHERE pr.created_at >= ? AND pr.created_at < ? GROUP BY pi.medication_id",
+                    rs -> { byMedication.put(rs.getInt(1), rs.getLong(2)); }, range);
+            Map<Integer, Long> reportedByMedication = new HashMap<>();
+            for (MedicationLine line : report.getMedicationUsage()) {
+                reportedByMedication.put(line.getMedicationId(), line.getPrescriptions());
+            }
+            assertThat(reportedByMedication).isEqualTo(byMedication);
+        } finally {
+            parallel.shutdown();
+            singlePartition.shutdown();
+        }
+    }
+
+    // Rows on the days around the month, so the partition edges are exercised too
+    private static JdbcTemplate fixture() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:report-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE doctors (id INT PRIMARY KEY, name VARCHAR(100), specialization VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE medications (id INT PRIMARY KEY, name VARCHAR(100), dosage VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE patients (id INT PRIMARY KEY, gender VARCHAR(20), date_of_birth DATE)");
+        jdbcTemplate.execute("CREATE TABLE appointments (id INT AUTO_INCREMENT PRIMARY KEY, patient_id INT, "
+                + "doctor_id INT, appointment_date TIMESTAMP, status VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE prescriptions (id INT PRIMARY KEY, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE prescription_items (id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "prescription_id INT, medication_id INT)");
+
+        Random random = new Random(42);
+        String[] specializations = {"CARDIOLOGY", "PEDIATRICS", "GENERAL"};
+        for (int id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO doctors VALUES (?, ?, ?)", id, "Doctor " + id, specializations[id % 3]);
+        }
+        for (int id = 1; id <= 4; id++) {
+            jdbcTemplate.update("INSERT INTO medications VALUES (?, ?, ?)", id, "Medication " + id, id * 10 + "mg");
+        }
+        Gender[] genders = Gender.values();
+        for (int id = 1; id <= 40; id++) {
+            jdbcTemplate.update("INSERT INTO patients VALUES (?, ?, ?)", id, genders[random.nextInt(genders.length)].name(),
+                    Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000))));
+        }
+
+        LocalDateTime from = MONTH.atDay(1).atStartOfDay().minusDays(2);
+        Status[] statuses = Status.values();
+        for (int i = 0; i < 400; i++) {
+            jdbcTemplate.update("INSERT INTO appointments (patient_id, doctor_id, appointment_date, status) "
+                            + "VALUES (?, ?, ?, ?)", 1 + random.nextInt(40), 1 + random.nextInt(5),
+                    Timestamp.valueOf(from.plusMinutes(random.nextInt(35 * 24 * 60))),
+                    statuses[random.nextInt(statuses.length)].name());
+        }
+        for (int id = 1; id <= 120; id++) {
+            jdbcTemplate.update("INSERT INTO prescriptions VALUES (?, ?)", id,
+                    Timestamp.valueOf(from.plusMinutes(random.nextInt(35 * 24 * 60))));
+            for (int item = random.nextInt(3); item >= 0; item--) {
+                jdbcTemplate.update("INSERT INTO prescription_items (prescription_id, medication_id) VALUES (?, ?)",
+                        id, 1 + random.nextInt(4));
+            }
+        }
+        return jdbcTemplate;
+    }
+}
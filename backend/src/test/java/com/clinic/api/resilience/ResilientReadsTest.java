@@ -0,0 +1,127 @@
+package com.clinic.api.resilience;
+
+import com.clinic.api.sharding.ClinicContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilientReadsTest {
+    private static final Supplier<String> DOWN = () -> {
+        throw new DataAccessResourceFailureException("connection refused");
+    };
+
+    private ResilientReads reads;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        // 200 ms timeout, breaker opens after 2 failures and stays open for an hour
+        reads = new ResilientReads(new SimpleMeterRegistry(), 200, 2, TimeUnit.HOURS.toMillis(1), 4, 10, 100);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        reads.shutdown();
+    }
+
+    @Test
+    void servesTheLastKnownGoodValueWhenTheDatabaseFails() {
+        assertThat(reads.read("patients.byId", () -> "fresh", 1)).isEqualTo("fresh");
+        assertThat(request.getAttribute(ResilientReads.STALE_SINCE_ATTRIBUTE)).isNull();
+
+        assertThat(reads.read("patients.byId", DOWN, 1)).isEqualTo("fresh");
+        assertThat(request.getAttribute(ResilientReads.STALE_SINCE_ATTRIBUTE)).isInstanceOf(Long.class);
+    }
+
+    @Test
+    void servesTheLastKnownGoodValueWhenTheQueryTimesOut() {
+        reads.read("patients.byId", () -> "fresh", 1);
+        String value = reads.read("patients.byId", () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }, 1);
+        assertThat(value).isEqualTo("fresh");
+    }
+
+    @Test
+    void failsWith503WhenNothingIsCached() {
+        assertThatThrownBy(() -> reads.read("patients.byId", DOWN, 1))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void cachedValuesAreKeptPerArgument() {
+        reads.read("patients.byId", () -> "one", 1);
+        assertThatThrownBy(() -> reads.read("patients.byId", DOWN, 2))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void openBreakerStopsCallingTheDatabase() {
+        reads.read("patients.byId", () -> "fresh", 1);
+        reads.read("patients.byId", DOWN, 1);
+        reads.read("patients.byId", DOWN, 1);
+
+        AtomicInteger calls = new AtomicInteger();
+        String value = reads.read("patients.byId", () -> {
+            calls.incrementAndGet();
+            return "recovered";
+        }, 1);
+        assertThat(value).isEqualTo("fresh");
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void applicationErrorsPassThroughAndDoNotTripTheBreaker() {
+        reads.read("patients.byId", () -> "fresh", 1);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> reads.read("patients.byId", () -> {
+                throw new IllegalArgumentException("bad id");
+            }, 1)).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(reads.read("patients.byId", () -> "still live", 1)).isEqualTo("still live");
+    }
+
+    @Test
+    void oneClinicNeverSeesAnotherClinicsCachedValue() throws Exception {
+        ClinicContext.callIn("main", () -> reads.read("patients.byId", () -> "main patient", 1));
+
+        assertThatThrownBy(() -> ClinicContext.callIn("bellville", () -> reads.read("patients.byId", DOWN, 1)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(ClinicContext.callIn("main", () -> reads.read("patients.byId", DOWN, 1)))
+                .isEqualTo("main patient");
+    }
+
+    @Test
+    void breakersAreKeptPerClinic() throws Exception {
+        ClinicContext.callIn("main", () -> reads.read("patients.byId", () -> "main patient", 1));
+        ClinicContext.callIn("main", () -> reads.read("patients.byId", DOWN, 1));
+        ClinicContext.callIn("main", () -> reads.read("patients.byId", DOWN, 1));
+
+        // main's breaker is open; bellville's database is still asked
+        assertThat(ClinicContext.callIn("bellville", () -> reads.read("patients.byId", () -> "bellville patient", 1)))
+                .isEqualTo("bellville patient");
+    }
+}
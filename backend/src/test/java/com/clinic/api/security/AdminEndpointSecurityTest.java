@@ -0,0 +1,151 @@
+package com.clinic.api.security;
+
+import com.clinic.api.admission.AdmissionControlFilter;
+import com.clinic.api.controllers.MedicationController;
+import com.clinic.api.controllers.PatientController;
+import com.clinic.api.idempotency.IdempotencyFilter;
+import com.clinic.api.models.Patient;
+import com.clinic.api.models.UserAccount;
+import com.clinic.api.models.UserAccount.Role;
+import com.clinic.api.services.MedicationService;
+import com.clinic.api.services.PatientService;
+import com.clinic.api.services.PatientTimelineService;
+import com.clinic.api.sharding.ClinicContextFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {PatientController.class, MedicationController.class},
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {AdmissionControlFilter.class, ClinicContextFilter.class, IdempotencyFilter.class}))
+@Import({SecurityConfig.class, TokenService.class, TokenKeyRing.class, AdminEndpointSecurityTest.Metrics.class})
+class AdminEndpointSecurityTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        @Primary
+        MeterRegistry testMeterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @MockBean
+    private PatientService patientService;
+
+    @MockBean
+    private PatientTimelineService patientTimelineService;
+
+    @MockBean
+    private MedicationService medicationService;
+
+    @MockBean
+    private AccountStatusCache accountStatus;
+
+    @BeforeEach
+    void activeAccounts() {
+        when(accountStatus.isActive(anyInt())).thenReturn(true);
+    }
+
+    private String tokenFor(int id, Role role) {
+        UserAccount account = UserAccount.builder()
+                .id(id)
+                .email("user" + id + "@clinic.test")
+                .passwordHash("{noop}unused")
+                .role(role)
+                .build();
+        return "Bearer " + tokenService.issue(account).token();
+    }
+
+    @Test
+    void staffCannotCreatePatients() throws Exception {
+        mockMvc.perform(post("/api/patients")
+                        .header(HttpHeaders.AUTHORIZATION, tokenFor(2, Role.STAFF))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\":\"Jane Doe\"}"))
+                .andExpect(status().isForbidden());
+        verify(patientService, never()).createPatient(any());
+    }
+
+    @Test
+    void staffCannotCreateMedications() throws Exception {
+        mockMvc.perform(post("/api/medications")
+                        .header(HttpHeaders.AUTHORIZATION, tokenFor(2, Role.STAFF))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Amoxicillin\"}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(medicationService);
+    }
+
+    @Test
+    void adminCanCreatePatients() throws Exception {
+        when(patientService.createPatient(any())).thenAnswer(invocation -> invocation.<Patient>getArgument(0));
+        mockMvc.perform(post("/api/patients")
+                        .header(HttpHeaders.AUTHORIZATION, tokenFor(1, Role.ADMIN))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\":\"Jane Doe\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void requestsWithoutATokenAreUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/patients")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void tamperedTokensAreUnauthorized() throws Exception {
+        String token = tokenFor(1, Role.ADMIN);
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+        mockMvc.perform(post("/api/patients")
+                        .header(HttpHeaders.AUTHORIZATION, tampered)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void deactivatedAccountsLoseTheirTokens() throws Exception {
+        String token = tokenFor(3, Role.ADMIN);
+        when(accountStatus.isActive(3)).thenReturn(false);
+        mockMvc.perform(post("/api/patients")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(patientService);
+    }
+}
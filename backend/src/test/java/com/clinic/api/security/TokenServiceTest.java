@@ -0,0 +1,78 @@
+package com.clinic.api.security;
+
+import com.clinic.api.models.UserAccount;
+import com.clinic.api.models.UserAccount.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTest {
+
+    private final TokenKeyRing keyRing = new TokenKeyRing("");
+
+    TokenServiceTest() throws IOException {
+    }
+
+    private TokenService service(String issuer, long ttlMillis) {
+        return new TokenService(keyRing, new ObjectMapper(), new SimpleMeterRegistry(), issuer, ttlMillis, 0, 100);
+    }
+
+    private static UserAccount account(String clinicId) {
+        return UserAccount.builder()
+                .id(7)
+                .email("staff@clinic.test")
+                .passwordHash("{noop}unused")
+                .role(Role.STAFF)
+                .clinicId(clinicId)
+                .build();
+    }
+
+    @Test
+    void issuedTokenAuthenticatesAsTheAccount() {
+        TokenService tokens = service("clinic-api", 60_000);
+        String token = tokens.issue(account("bellville")).token();
+
+        Authentication authentication = tokens.authenticate(token);
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal("staff@clinic.test", 7, "bellville"));
+        assertThat(authentication.getName()).isEqualTo("staff@clinic.test");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_STAFF");
+        // Second lookup is served from the cache and gives the same result
+        assertThat(tokens.authenticate(token)).isSameAs(authentication);
+    }
+
+    @Test
+    void accountWithoutClinicHasNoClinicClaim() {
+        TokenService tokens = service("clinic-api", 60_000);
+        Authentication authentication = tokens.authenticate(tokens.issue(account(null)).token());
+        assertThat(((TokenPrincipal) authentication.getPrincipal()).clinicId()).isNull();
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        TokenService tokens = service("clinic-api", -1_000);
+        assertThat(tokens.authenticate(tokens.issue(account(null)).token())).isNull();
+    }
+
+    @Test
+    void tokensFromAnotherIssuerAreRejected() {
+        String token = service("other-api", 60_000).issue(account(null)).token();
+        assertThat(service("clinic-api", 60_000).authenticate(token)).isNull();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        TokenService tokens = service("clinic-api", 60_000);
+        assertThat(tokens.authenticate("not-a-token")).isNull();
+        assertThat(tokens.authenticate("a.b.c")).isNull();
+        assertThat(tokens.authenticate("..")).isNull();
+    }
+}
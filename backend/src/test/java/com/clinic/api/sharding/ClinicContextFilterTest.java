@@ -0,0 +1,131 @@
+package com.clinic.api.sharding;
+
+import com.clinic.api.security.TokenPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClinicContextFilterTest {
+    private ShardingProperties properties;
+    private ClinicContextFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final AtomicReference<String> seenClinic = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setDefaultShard("main");
+        properties.getShards().put("main", new ShardingProperties.Shard());
+        properties.getShards().put("north", new ShardingProperties.Shard());
+        filter = new ClinicContextFilter(properties);
+        request = new MockHttpServletRequest("GET", "/api/patients");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ClinicContext.clear();
+    }
+
+    @Test
+    void anonymousCallersUseTheDefaultShard() throws Exception {
+        run();
+
+        assertThat(seenClinic.get()).isEqualTo("main");
+        assertThat(ClinicContext.get()).isNull();
+    }
+
+    @Test
+    void unboundAccountsPickTheClinicWithTheHeader() throws Exception {
+        signIn(null);
+        request.addHeader(ClinicContextFilter.CLINIC_HEADER, "north");
+
+        run();
+
+        assertThat(seenClinic.get()).isEqualTo("north");
+    }
+
+    @Test
+    void boundAccountsWorkInTheirClinic() throws Exception {
+        signIn("north");
+
+        run();
+
+        assertThat(seenClinic.get()).isEqualTo("north");
+    }
+
+    @Test
+    void boundAccountsCannotSwitchClinic() throws Exception {
+        signIn("north");
+        request.addHeader(ClinicContextFilter.CLINIC_HEADER, "main");
+
+        run();
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(seenClinic.get()).isNull();
+    }
+
+    @Test
+    void unknownClinicIsABadRequest() throws Exception {
+        signIn(null);
+        request.addHeader(ClinicContextFilter.CLINIC_HEADER, "south");
+
+        run();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(seenClinic.get()).isNull();
+    }
+
+    @Test
+    void overlongClinicIsABadRequest() throws Exception {
+        properties.getShards().put("x".repeat(40), new ShardingProperties.Shard());
+        request.addHeader(ClinicContextFilter.CLINIC_HEADER, "x".repeat(40));
+
+        run();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void onlyTheDefaultShardIsKnownWhenShardingIsDisabled() throws Exception {
+        properties.setEnabled(false);
+        signIn(null);
+        request.addHeader(ClinicContextFilter.CLINIC_HEADER, "north");
+
+        run();
+
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void accountsBoundToAnUnservedClinicAreRejected() throws Exception {
+        signIn("south");
+
+        run();
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(seenClinic.get()).isNull();
+    }
+
+    private void signIn(String clinicId) {
+        TokenPrincipal principal = new TokenPrincipal("staff@clinic.test", 7, clinicId);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, AuthorityUtils.createAuthorityList("ROLE_STAFF")));
+    }
+
+    private void run() throws Exception {
+        filter.doFilter(request, response, (req, res) -> seenClinic.set(ClinicContext.get()));
+    }
+}
@@ -0,0 +1,124 @@
+package com.clinic.api.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRoutingTest {
+    private ShardingProperties properties;
+    private AbstractRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private ShardedQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setDefaultShard("main");
+        for (String clinicId : List.of("main", "north")) {
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setUrl("jdbc:h2:mem:" + clinicId + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            shard.setUsername("sa");
+            shard.setPassword("");
+            shard.setDriverClassName("org.h2.Driver");
+            properties.getShards().put(clinicId, shard);
+        }
+        routing = (AbstractRoutingDataSource) new ShardingConfig().shardRoutingDataSource(properties);
+        jdbcTemplate = new JdbcTemplate(routing);
+        for (String clinicId : properties.getShardIds()) {
+            ClinicContext.callIn(clinicId, () -> {
+                jdbcTemplate.execute("CREATE TABLE clinic_marker (name VARCHAR(20))");
+                return jdbcTemplate.update("INSERT INTO clinic_marker VALUES (?)", clinicId);
+            });
+        }
+        executor = new ShardedQueryExecutor(properties, new DataSourceTransactionManager(routing));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ClinicContext.clear();
+        executor.shutdown();
+        ((DisposableBean) routing).destroy();
+    }
+
+    @Test
+    void connectionsFollowTheBoundClinic() throws Exception {
+        assertThat(ClinicContext.callIn("north", this::marker)).isEqualTo("north");
+        assertThat(ClinicContext.callIn("main", this::marker)).isEqualTo("main");
+    }
+
+    @Test
+    void unboundThreadsUseTheDefaultShard() {
+        assertThat(marker()).isEqualTo("main");
+    }
+
+    @Test
+    void unknownClinicsFailInsteadOfFallingBack() {
+        assertThatThrownBy(() -> ClinicContext.callIn("south", this::marker))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void destroyingTheRoutingDataSourceClosesEveryShardPool() throws Exception {
+        ((DisposableBean) routing).destroy();
+
+        assertThat(routing.getResolvedDataSources().values())
+                .allSatisfy(dataSource -> assertThat(((HikariDataSource) dataSource).isClosed()).isTrue());
+    }
+
+    @Test
+    void scatterQueriesEveryShard() {
+        Map<String, String> markers = executor.scatter(this::marker);
+
+        assertThat(markers).containsExactly(Map.entry("main", "main"), Map.entry("north", "north"));
+    }
+
+    @Test
+    void forEachShardKeepsGoingAfterAFailure() {
+        List<String> visited = new ArrayList<>();
+
+        executor.forEachShard("test", () -> {
+            visited.add(marker());
+            if ("main".equals(ClinicContext.get())) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThat(visited).containsExactly("main", "north");
+        assertThat(ClinicContext.get()).isNull();
+    }
+
+    @Test
+    void wrappedTasksRunForTheSubmittingClinic() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ClinicContext.set("north");
+            String fromWrapped = pool.submit(ClinicContext.wrap(this::marker)).get();
+            String fromBare = pool.submit(this::marker).get();
+
+            assertThat(fromWrapped).isEqualTo("north");
+            assertThat(fromBare).isEqualTo("main");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM clinic_marker", String.class);
+    }
+}
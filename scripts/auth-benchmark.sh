@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Measures the per-request cost of bearer-token authentication on a running instance.
+#
+#   java -jar target/patient-management-backend-1.0.0.jar \
+#        --management.endpoints.web.exposure.include=health,metrics \
+#        --clinic.security.bootstrap-admin.email=admin@clinic.local \
+#        --clinic.security.bootstrap-admin.password=change-me
+#   scripts/auth-benchmark.sh [requests]
+#
+# Logs in once, sends the requests with the token, then reads the server-side timer
+# clinic.security.authentication: "verified" is the first sight of a token (signature and
+# claim checks), "cached" every later request. End-to-end latency is printed alongside,
+# so the auth share of a request is visible.
+set -euo pipefail
+
+REQUESTS=${1:-1000}
+BASE=${BASE:-http://localhost:8080}
+EMAIL=${EMAIL:-admin@clinic.local}
+PASSWORD=${PASSWORD:-change-me}
+ENDPOINT=${ENDPOINT:-/api/medications/active}
+
+TOKEN=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" "$BASE/api/auth/login" \
+    | sed -E 's/.*"accessToken":"([^"]+)".*/\1/')
+
+start=$(date +%s%N)
+for ((i = 1; i <= REQUESTS; i++)); do
+    curl -sf -o /dev/null -H "Authorization: Bearer $TOKEN" "$BASE$ENDPOINT"
+done
+end=$(date +%s%N)
+printf '%-10s %8d us/request end to end (%d requests)\n' "total" $(((end - start) / 1000 / REQUESTS)) "$REQUESTS"
+
+for result in verified cached; do
+    curl -sf "$BASE/actuator/metrics/clinic.security.authentication?tag=result:$result" \
+        | sed -E 's/.*"statistic":"COUNT","value":([0-9.E]+).*"statistic":"TOTAL_TIME","value":([0-9.E-]+).*/\1 \2/' \
+        | awk -v name="$result" '{ if ($1 > 0) printf "%-10s %8.2f us/request in auth (%d requests)\n", name, $2 / $1 * 1e6, $1 }'
+done
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Compares startup time of the JVM, AOT, AOT+CDS and native builds.
+#
+#   mvn -Pfast-startup package          # jar, AOT classes and target/cds/app.jsa
+#   mvn -Pnative native:compile         # optional, needs GraalVM
+#   scripts/startup-benchmark.sh [runs]
+#
+# Each variant refreshes the application context and exits (spring.context.exit=onRefresh),
+# so the numbers cover JPA metamodel building, springdoc scanning and web server startup
+# but not request handling. Schema diffing is switched off to keep the database out of the measurement.
+set -euo pipefail
+
+RUNS=${1:-5}
+TARGET=${TARGET:-target}
+JAR="$TARGET/patient-management-backend-1.0.0.jar"
+CP="$JAR:$TARGET/cds/lib/*"
+MAIN=com.clinic.api.ClinicApplication
+COMMON=(-Dspring.context.exit=onRefresh
+        -Dspring.jpa.hibernate.ddl-auto=none
+        -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false)
+
+measure() {
+    local name=$1; shift
+    local total=0
+    for ((i = 1; i <= RUNS; i++)); do
+        local start end
+        start=$(date +%s%N)
+        "$@" > /dev/null 2>&1
+        end=$(date +%s%N)
+        total=$((total + (end - start) / 1000000))
+    done
+    printf '%-12s %6d ms (mean of %d runs)\n' "$name" $((total / RUNS)) "$RUNS"
+}
+
+measure "jvm" java "${COMMON[@]}" -cp "$CP" "$MAIN"
+measure "aot" java "${COMMON[@]}" -Dspring.aot.enabled=true -cp "$CP" "$MAIN"
+
+if [[ -f "$TARGET/cds/app.jsa" ]]; then
+    measure "aot+cds" java "${COMMON[@]}" -Dspring.aot.enabled=true \
+        -XX:SharedArchiveFile="$TARGET/cds/app.jsa" -cp "$CP" "$MAIN"
+fi
+
+if [[ -x "$TARGET/patient-management-backend" ]]; then
+    measure "native" "$TARGET/patient-management-backend" "${COMMON[@]}"
+fi